@@ -0,0 +1,419 @@
+package info.kgeorgiy.ja.eliseev.implementor;
+
+import java.lang.reflect.Method;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Queue;
+import java.util.Set;
+
+/**
+ * Handler of calls to implementations generated with {@link GenerationMode#DISPATCH}.
+ * Analog of {@link java.lang.reflect.InvocationHandler}, but each implemented method is also identified by
+ * integer id, which is index of the method in implementation, and methods with zero or one argument
+ * are dispatched to specialized entry points, so arguments are neither boxed nor copied to an array.
+ * <p>
+ * Entry point is chosen by return type of implemented method:
+ * <ul>
+ * <li>{@code invoke} for reference types and {@code void}, result is ignored for {@code void}</li>
+ * <li>{@code invokeLong} for {@code byte}, {@code short}, {@code char}, {@code int} and {@code long}</li>
+ * <li>{@code invokeDouble} for {@code float} and {@code double}</li>
+ * <li>{@code invokeBoolean} for {@code boolean}</li>
+ * </ul>
+ * and by arguments: single argument of integral type, {@code char} or {@code boolean} is passed as {@code long},
+ * {@code boolean} being {@code 1} or {@code 0}, of {@code float} type as {@code double}, and of reference type
+ * as {@link Object}. Two or more arguments are passed as array.
+ * Results of primitive types are narrowed to return type of implemented method.
+ * <p>
+ * Only {@link #invoke(Object, int, Method, Object[])} must be implemented: other entry points box arguments
+ * and unbox result by default, in the same way as {@link java.lang.reflect.Proxy} does.
+ * Checked exceptions, that implemented method cannot throw, are wrapped into
+ * {@link java.lang.reflect.UndeclaredThrowableException}.
+ *
+ * @author Aleksandr Eliseev
+ * @see Implementor#withGenerationMode(GenerationMode)
+ */
+public interface DispatchHandler {
+    /**
+     * Finds method, that is implemented by implementation of {@code token}.
+     * Method is searched in {@code token} and its supertypes, so the most specific declaration is found.
+     * It is used by generated implementations to resolve methods once, when implementation is initialized.
+     *
+     * @param token          implemented class/interface
+     * @param name           name of method
+     * @param parameterTypes erased parameter types of method
+     * @return found method
+     * @throws NoSuchMethodError if there is no such method
+     */
+    static Method findMethod(final Class<?> token, final String name, final Class<?>... parameterTypes) {
+        final Queue<Class<?>> queue = new ArrayDeque<>();
+        final Set<Class<?>> visited = new HashSet<>();
+        queue.add(token);
+        while (!queue.isEmpty()) {
+            final Class<?> type = queue.remove();
+            if (visited.add(type)) {
+                try {
+                    return type.getDeclaredMethod(name, parameterTypes);
+                } catch (final NoSuchMethodException ignored) {
+                    // Declared in supertype
+                }
+                if (type.getSuperclass() != null) {
+                    queue.add(type.getSuperclass());
+                }
+                queue.addAll(Arrays.asList(type.getInterfaces()));
+            }
+        }
+        throw new NoSuchMethodError(token.getName() + "." + name + Arrays.toString(parameterTypes));
+    }
+
+    /**
+     * Processes call with any number of arguments, returning reference type or {@code void}.
+     *
+     * @param proxy     implementation, which method is called
+     * @param methodId  id of called method
+     * @param method    called method
+     * @param arguments arguments of call, primitive values are boxed
+     * @return result of call, ignored for {@code void} methods
+     * @throws Throwable exception to be thrown by called method
+     */
+    Object invoke(Object proxy, int methodId, Method method, Object[] arguments) throws Throwable;
+
+    /**
+     * Processes call without arguments, returning reference type or {@code void}.
+     *
+     * @param proxy    implementation, which method is called
+     * @param methodId id of called method
+     * @param method   called method
+     * @return result of call, ignored for {@code void} methods
+     * @throws Throwable exception to be thrown by called method
+     */
+    default Object invoke(final Object proxy, final int methodId, final Method method) throws Throwable {
+        return invoke(proxy, methodId, method, new Object[0]);
+    }
+
+    /**
+     * Processes call with one argument of reference type, returning reference type or {@code void}.
+     *
+     * @param proxy    implementation, which method is called
+     * @param methodId id of called method
+     * @param method   called method
+     * @param argument argument of call
+     * @return result of call, ignored for {@code void} methods
+     * @throws Throwable exception to be thrown by called method
+     */
+    default Object invoke(final Object proxy, final int methodId, final Method method, final Object argument)
+            throws Throwable {
+        return invoke(proxy, methodId, method, new Object[]{argument});
+    }
+
+    /**
+     * Processes call with one argument of integral type, {@code char} or {@code boolean},
+     * returning reference type or {@code void}.
+     *
+     * @param proxy    implementation, which method is called
+     * @param methodId id of called method
+     * @param method   called method
+     * @param argument argument of call, widened to {@code long}
+     * @return result of call, ignored for {@code void} methods
+     * @throws Throwable exception to be thrown by called method
+     */
+    default Object invoke(final Object proxy, final int methodId, final Method method, final long argument)
+            throws Throwable {
+        return invoke(proxy, methodId, method, box(method, argument));
+    }
+
+    /**
+     * Processes call with one argument of floating-point type, returning reference type or {@code void}.
+     *
+     * @param proxy    implementation, which method is called
+     * @param methodId id of called method
+     * @param method   called method
+     * @param argument argument of call, widened to {@code double}
+     * @return result of call, ignored for {@code void} methods
+     * @throws Throwable exception to be thrown by called method
+     */
+    default Object invoke(final Object proxy, final int methodId, final Method method, final double argument)
+            throws Throwable {
+        return invoke(proxy, methodId, method, box(method, argument));
+    }
+
+    /**
+     * Processes call with any number of arguments, returning integral type or {@code char}.
+     *
+     * @param proxy     implementation, which method is called
+     * @param methodId  id of called method
+     * @param method    called method
+     * @param arguments arguments of call, primitive values are boxed
+     * @return result of call
+     * @throws Throwable exception to be thrown by called method
+     */
+    default long invokeLong(final Object proxy, final int methodId, final Method method, final Object[] arguments)
+            throws Throwable {
+        return unboxLong(invoke(proxy, methodId, method, arguments));
+    }
+
+    /**
+     * Processes call without arguments, returning integral type or {@code char}.
+     *
+     * @param proxy    implementation, which method is called
+     * @param methodId id of called method
+     * @param method   called method
+     * @return result of call
+     * @throws Throwable exception to be thrown by called method
+     */
+    default long invokeLong(final Object proxy, final int methodId, final Method method) throws Throwable {
+        return unboxLong(invoke(proxy, methodId, method));
+    }
+
+    /**
+     * Processes call with one argument of reference type, returning integral type or {@code char}.
+     *
+     * @param proxy    implementation, which method is called
+     * @param methodId id of called method
+     * @param method   called method
+     * @param argument argument of call
+     * @return result of call
+     * @throws Throwable exception to be thrown by called method
+     */
+    default long invokeLong(final Object proxy, final int methodId, final Method method, final Object argument)
+            throws Throwable {
+        return unboxLong(invoke(proxy, methodId, method, argument));
+    }
+
+    /**
+     * Processes call with one argument of integral type, {@code char} or {@code boolean},
+     * returning integral type or {@code char}.
+     *
+     * @param proxy    implementation, which method is called
+     * @param methodId id of called method
+     * @param method   called method
+     * @param argument argument of call, widened to {@code long}
+     * @return result of call
+     * @throws Throwable exception to be thrown by called method
+     */
+    default long invokeLong(final Object proxy, final int methodId, final Method method, final long argument)
+            throws Throwable {
+        return unboxLong(invoke(proxy, methodId, method, argument));
+    }
+
+    /**
+     * Processes call with one argument of floating-point type, returning integral type or {@code char}.
+     *
+     * @param proxy    implementation, which method is called
+     * @param methodId id of called method
+     * @param method   called method
+     * @param argument argument of call, widened to {@code double}
+     * @return result of call
+     * @throws Throwable exception to be thrown by called method
+     */
+    default long invokeLong(final Object proxy, final int methodId, final Method method, final double argument)
+            throws Throwable {
+        return unboxLong(invoke(proxy, methodId, method, argument));
+    }
+
+    /**
+     * Processes call with any number of arguments, returning floating-point type.
+     *
+     * @param proxy     implementation, which method is called
+     * @param methodId  id of called method
+     * @param method    called method
+     * @param arguments arguments of call, primitive values are boxed
+     * @return result of call
+     * @throws Throwable exception to be thrown by called method
+     */
+    default double invokeDouble(final Object proxy, final int methodId, final Method method,
+                                final Object[] arguments) throws Throwable {
+        return unboxDouble(invoke(proxy, methodId, method, arguments));
+    }
+
+    /**
+     * Processes call without arguments, returning floating-point type.
+     *
+     * @param proxy    implementation, which method is called
+     * @param methodId id of called method
+     * @param method   called method
+     * @return result of call
+     * @throws Throwable exception to be thrown by called method
+     */
+    default double invokeDouble(final Object proxy, final int methodId, final Method method) throws Throwable {
+        return unboxDouble(invoke(proxy, methodId, method));
+    }
+
+    /**
+     * Processes call with one argument of reference type, returning floating-point type.
+     *
+     * @param proxy    implementation, which method is called
+     * @param methodId id of called method
+     * @param method   called method
+     * @param argument argument of call
+     * @return result of call
+     * @throws Throwable exception to be thrown by called method
+     */
+    default double invokeDouble(final Object proxy, final int methodId, final Method method, final Object argument)
+            throws Throwable {
+        return unboxDouble(invoke(proxy, methodId, method, argument));
+    }
+
+    /**
+     * Processes call with one argument of integral type, {@code char} or {@code boolean},
+     * returning floating-point type.
+     *
+     * @param proxy    implementation, which method is called
+     * @param methodId id of called method
+     * @param method   called method
+     * @param argument argument of call, widened to {@code long}
+     * @return result of call
+     * @throws Throwable exception to be thrown by called method
+     */
+    default double invokeDouble(final Object proxy, final int methodId, final Method method, final long argument)
+            throws Throwable {
+        return unboxDouble(invoke(proxy, methodId, method, argument));
+    }
+
+    /**
+     * Processes call with one argument of floating-point type, returning floating-point type.
+     *
+     * @param proxy    implementation, which method is called
+     * @param methodId id of called method
+     * @param method   called method
+     * @param argument argument of call, widened to {@code double}
+     * @return result of call
+     * @throws Throwable exception to be thrown by called method
+     */
+    default double invokeDouble(final Object proxy, final int methodId, final Method method, final double argument)
+            throws Throwable {
+        return unboxDouble(invoke(proxy, methodId, method, argument));
+    }
+
+    /**
+     * Processes call with any number of arguments, returning {@code boolean}.
+     *
+     * @param proxy     implementation, which method is called
+     * @param methodId  id of called method
+     * @param method    called method
+     * @param arguments arguments of call, primitive values are boxed
+     * @return result of call
+     * @throws Throwable exception to be thrown by called method
+     */
+    default boolean invokeBoolean(final Object proxy, final int methodId, final Method method,
+                                  final Object[] arguments) throws Throwable {
+        return (Boolean) invoke(proxy, methodId, method, arguments);
+    }
+
+    /**
+     * Processes call without arguments, returning {@code boolean}.
+     *
+     * @param proxy    implementation, which method is called
+     * @param methodId id of called method
+     * @param method   called method
+     * @return result of call
+     * @throws Throwable exception to be thrown by called method
+     */
+    default boolean invokeBoolean(final Object proxy, final int methodId, final Method method) throws Throwable {
+        return (Boolean) invoke(proxy, methodId, method);
+    }
+
+    /**
+     * Processes call with one argument of reference type, returning {@code boolean}.
+     *
+     * @param proxy    implementation, which method is called
+     * @param methodId id of called method
+     * @param method   called method
+     * @param argument argument of call
+     * @return result of call
+     * @throws Throwable exception to be thrown by called method
+     */
+    default boolean invokeBoolean(final Object proxy, final int methodId, final Method method,
+                                  final Object argument) throws Throwable {
+        return (Boolean) invoke(proxy, methodId, method, argument);
+    }
+
+    /**
+     * Processes call with one argument of integral type, {@code char} or {@code boolean}, returning {@code boolean}.
+     *
+     * @param proxy    implementation, which method is called
+     * @param methodId id of called method
+     * @param method   called method
+     * @param argument argument of call, widened to {@code long}
+     * @return result of call
+     * @throws Throwable exception to be thrown by called method
+     */
+    default boolean invokeBoolean(final Object proxy, final int methodId, final Method method, final long argument)
+            throws Throwable {
+        return (Boolean) invoke(proxy, methodId, method, argument);
+    }
+
+    /**
+     * Processes call with one argument of floating-point type, returning {@code boolean}.
+     *
+     * @param proxy    implementation, which method is called
+     * @param methodId id of called method
+     * @param method   called method
+     * @param argument argument of call, widened to {@code double}
+     * @return result of call
+     * @throws Throwable exception to be thrown by called method
+     */
+    default boolean invokeBoolean(final Object proxy, final int methodId, final Method method,
+                                  final double argument) throws Throwable {
+        return (Boolean) invoke(proxy, methodId, method, argument);
+    }
+
+    /**
+     * Boxes argument, passed as {@code long}, into wrapper of {@code method}'s parameter type.
+     *
+     * @param method   called method with one parameter of integral type, {@code char} or {@code boolean}
+     * @param argument argument of call, widened to {@code long}
+     * @return boxed argument
+     */
+    private static Object box(final Method method, final long argument) {
+        final Class<?> type = method.getParameterTypes()[0];
+        if (type == int.class) {
+            return (int) argument;
+        } else if (type == long.class) {
+            return argument;
+        } else if (type == boolean.class) {
+            return argument != 0;
+        } else if (type == char.class) {
+            return (char) argument;
+        } else if (type == short.class) {
+            return (short) argument;
+        } else {
+            return (byte) argument;
+        }
+    }
+
+    /**
+     * Boxes argument, passed as {@code double}, into wrapper of {@code method}'s parameter type.
+     *
+     * @param method   called method with one parameter of floating-point type
+     * @param argument argument of call, widened to {@code double}
+     * @return boxed argument
+     */
+    private static Object box(final Method method, final double argument) {
+        return method.getParameterTypes()[0] == float.class ? (Object) (float) argument : (Object) argument;
+    }
+
+    /**
+     * Unboxes result of integral type or {@code char}.
+     *
+     * @param result boxed result
+     * @return result widened to {@code long}
+     * @throws NullPointerException if {@code result} is {@code null}
+     * @throws ClassCastException   if {@code result} is neither {@link Number} nor {@link Character}
+     */
+    private static long unboxLong(final Object result) {
+        return result instanceof final Character character ? character : ((Number) result).longValue();
+    }
+
+    /**
+     * Unboxes result of floating-point type.
+     *
+     * @param result boxed result
+     * @return result widened to {@code double}
+     * @throws NullPointerException if {@code result} is {@code null}
+     * @throws ClassCastException   if {@code result} is not {@link Number}
+     */
+    private static double unboxDouble(final Object result) {
+        return ((Number) result).doubleValue();
+    }
+}
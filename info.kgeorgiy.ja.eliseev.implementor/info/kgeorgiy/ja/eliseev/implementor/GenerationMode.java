@@ -0,0 +1,32 @@
+package info.kgeorgiy.ja.eliseev.implementor;
+
+/**
+ * Ways to implement methods in implementations generated by {@link Implementor}.
+ *
+ * @author Aleksandr Eliseev
+ * @see Implementor#withGenerationMode(GenerationMode)
+ */
+public enum GenerationMode {
+    /**
+     * Methods ignore their arguments and return default value of return type.
+     */
+    DEFAULT_VALUES,
+    /**
+     * Implementation holds instance of implemented class/interface, passed as first constructor argument,
+     * and methods forward calls to it with the same arguments.
+     * Only implemented abstract methods are forwarded, other methods are inherited.
+     */
+    DELEGATE,
+    /**
+     * Implementation holds {@link DispatchHandler}, passed as first constructor argument,
+     * and methods pass calls to it with id of method and {@link java.lang.reflect.Method}, resolved once
+     * when implementation is initialized. Implementations require this module to compile and run.
+     */
+    DISPATCH,
+    /**
+     * Methods return default values, as with {@link #DEFAULT_VALUES}, and count their calls.
+     * Numbers of calls are got by static method {@code getCallCounts()} of implementation,
+     * which returns {@code Map<String, Long>} from name and parameter types of each method to number of its calls.
+     */
+    COUNTING
+}
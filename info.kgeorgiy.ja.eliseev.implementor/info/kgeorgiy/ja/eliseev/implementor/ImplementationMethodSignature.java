@@ -74,21 +74,50 @@ public class ImplementationMethodSignature {
      * Context used to substitute types in {@link #referenceMethod}.
      */
     private final Map<String, Type> context;
+    /**
+     * Method's return type, that should be substituted using {@link #methodContext}.
+     */
+    private final Type genericReturnType;
+    /**
+     * Method's parameter types, that should be substituted using {@link #methodContext}.
+     */
+    private final List<Type> genericParameterTypes;
+    /**
+     * {@link #context} extended with mapping of {@link #referenceMethod}'s type parameters to {@link #typeParameters}.
+     */
+    private final Map<String, Type> methodContext;
+    /**
+     * Override-equivalent methods, that are overridden by the method.
+     */
+    private final List<Method> equivalentMethods;
+    /**
+     * {@link String} representation of type, that declares {@link #referenceMethod}, if the method should be called
+     * through this type to be resolved unambiguously, {@code null} otherwise.
+     */
+    private final String receiverType;
 
     /**
      * Constructor, that assign its arguments to class' fields.
      *
-     * @param accessModifier  value of {@link #accessModifier}
-     * @param typeParameters  value of {@link #typeParameters}
-     * @param returnType      value of {@link #returnType}
-     * @param name            value of {@link #name}
-     * @param referenceMethod value of {@link #referenceMethod}
-     * @param parameterTypes  value of {@link #parameterTypes}
-     * @param context         value of {@link #context}
+     * @param accessModifier        value of {@link #accessModifier}
+     * @param typeParameters        value of {@link #typeParameters}
+     * @param returnType            value of {@link #returnType}
+     * @param name                  value of {@link #name}
+     * @param referenceMethod       value of {@link #referenceMethod}
+     * @param parameterTypes        value of {@link #parameterTypes}
+     * @param context               value of {@link #context}
+     * @param genericReturnType     value of {@link #genericReturnType}
+     * @param genericParameterTypes value of {@link #genericParameterTypes}
+     * @param methodContext         value of {@link #methodContext}
+     * @param equivalentMethods     value of {@link #equivalentMethods}
+     * @param receiverType          value of {@link #receiverType}
      */
     private ImplementationMethodSignature(final int accessModifier, final List<GeneratedTypeVariable> typeParameters,
                                           final String returnType, final String name, final Method referenceMethod,
-                                          final List<String> parameterTypes, final Map<String, Type> context) {
+                                          final List<String> parameterTypes, final Map<String, Type> context,
+                                          final Type genericReturnType, final List<Type> genericParameterTypes,
+                                          final Map<String, Type> methodContext,
+                                          final List<Method> equivalentMethods, final String receiverType) {
         this.accessModifier = accessModifier;
         this.typeParameters = typeParameters;
         this.returnType = returnType;
@@ -96,6 +125,11 @@ public class ImplementationMethodSignature {
         this.referenceMethod = referenceMethod;
         this.parameterTypes = parameterTypes;
         this.context = context;
+        this.genericReturnType = genericReturnType;
+        this.genericParameterTypes = genericParameterTypes;
+        this.methodContext = methodContext;
+        this.equivalentMethods = equivalentMethods;
+        this.receiverType = receiverType;
     }
 
     /**
@@ -175,13 +209,36 @@ public class ImplementationMethodSignature {
         if (referenceMethod == null) {
             throw new ImplerException("Cannot generate implementation without unchecked casts");
         }
+        final List<Type> genericParameterTypes = List.of(firstMethod.getGenericParameterTypes());
+        // Generic methods inherited from different types are ambiguous for compiler, even if override-equivalent
+        final Class<?> referenceClass = referenceMethod.getDeclaringClass();
+        final String receiverType = !typeParameters.isEmpty()
+                && equivalentMethods.stream().anyMatch(method -> method.getDeclaringClass() != referenceClass)
+                ? getTypeInContext(referenceClass, contexts.getContext(referenceClass)) : null;
         return new ImplementationMethodSignature(accessModifier, typeParameters,
                                                  GenericUtils.typeToStringInContext(referenceMethodContext, returnType,
                                                                                     Set.of()), firstMethod.getName(),
-                                                 referenceMethod, Arrays.stream(firstMethod.getGenericParameterTypes())
+                                                 referenceMethod, genericParameterTypes.stream()
                                                                         .map(type -> GenericUtils.typeToStringInContext(
                                                                                 referenceMethodContext, type, Set.of()))
-                                                                        .toList(), context);
+                                                                        .toList(), context,
+                                                 returnType, genericParameterTypes, referenceMethodContext,
+                                                 List.copyOf(equivalentMethods), receiverType);
+    }
+
+    /**
+     * Gets {@link String} representation of generic class/interface, parameterized with its type parameters
+     * substituted using {@code context}.
+     *
+     * @param type    class/interface to be represented
+     * @param context context used to substitute type parameters of {@code type}
+     * @return {@link String} representation of {@code type} in {@code context}
+     */
+    private static String getTypeInContext(final Class<?> type, final Map<String, Type> context) {
+        final TypeVariable<?>[] typeParameters = type.getTypeParameters();
+        return type.getCanonicalName() + (typeParameters.length == 0 ? "" : Arrays.stream(typeParameters)
+                .map(typeParameter -> GenericUtils.typeToStringInContext(context, typeParameter, Set.of()))
+                .collect(Collectors.joining(", ", "<", ">")));
     }
 
     /**
@@ -287,6 +344,149 @@ public class ImplementationMethodSignature {
         return referenceMethod;
     }
 
+    /**
+     * Gets {@link #equivalentMethods}.
+     *
+     * @return unmodifiable list of methods, which signature was made from
+     * @see #getCommonMethodSignature(Collection, Set, GenericContexts)
+     */
+    public List<Method> getEquivalentMethods() {
+        return equivalentMethods;
+    }
+
+    /**
+     * Gets {@link #receiverType}. Call through implemented class/interface is ambiguous,
+     * when the method overrides generic methods, that are declared in different types.
+     *
+     * @return type to call the method through, as written in implementation,
+     * or {@code null} if the method can be called through implemented class/interface
+     */
+    public String getReceiverType() {
+        return receiverType;
+    }
+
+    /**
+     * Gets names of method's type parameters, in order of declaration.
+     *
+     * @return list of type parameters' names, empty if method is not generic
+     */
+    public List<String> getTypeParameterNames() {
+        return typeParameters.stream().map(GeneratedTypeVariable::getName).toList();
+    }
+
+    /**
+     * Gets checked exception types, that the method can declare in {@code throws} clause.
+     * Exception type can be declared, if it is allowed by {@code throws} clauses of all {@link #equivalentMethods},
+     * so only exception types declared by one of them are considered.
+     * Unchecked exception types are not included.
+     *
+     * @return list of exception types, without duplicates
+     */
+    public List<Class<?>> getCommonExceptionTypes() {
+        return equivalentMethods.stream()
+                .flatMap(method -> Arrays.stream(method.getExceptionTypes()))
+                .distinct()
+                .filter(exceptionType -> !RuntimeException.class.isAssignableFrom(exceptionType)
+                        && !Error.class.isAssignableFrom(exceptionType))
+                .filter(exceptionType -> equivalentMethods.stream().allMatch(method -> Arrays.stream(
+                        method.getExceptionTypes()).anyMatch(allowed -> allowed.isAssignableFrom(exceptionType))))
+                .toList();
+    }
+
+    /**
+     * Gets {@link #returnType}.
+     *
+     * @return return type of the method, as written in implementation
+     */
+    public String getReturnType() {
+        return returnType;
+    }
+
+    /**
+     * Gets {@link #accessModifier}.
+     *
+     * @return access modifier of the method
+     */
+    public int getAccessModifier() {
+        return accessModifier;
+    }
+
+    /**
+     * Gets <a href="https://docs.oracle.com/javase/specs/jls/se19/html/jls-4.html#jls-4.6">erasure</a>
+     * of the method's return type.
+     *
+     * @return erased return type
+     */
+    public Class<?> getErasedReturnType() {
+        return erase(genericReturnType, methodContext);
+    }
+
+    /**
+     * Gets <a href="https://docs.oracle.com/javase/specs/jls/se19/html/jls-4.html#jls-4.6">erasures</a>
+     * of the method's parameter types.
+     *
+     * @return erased parameter types
+     */
+    public Class<?>[] getErasedParameterTypes() {
+        return genericParameterTypes.stream().map(type -> erase(type, methodContext)).toArray(Class<?>[]::new);
+    }
+
+    /**
+     * Gets JVM signature of the method, as stored in <var>Signature</var> attribute of class-file.
+     *
+     * @return JVM signature of the method
+     * @see <a href="https://docs.oracle.com/javase/specs/jvms/se17/html/jvms-4.html#jvms-4.7.9.1">
+     * Signatures</a>
+     */
+    public String getGenericSignature() {
+        return GenericUtils.typeParametersToSignature(typeParameters, context) + genericParameterTypes.stream()
+                .map(type -> GenericUtils.typeToSignatureInContext(methodContext, type, Set.of()))
+                .collect(Collectors.joining("", "(", ")"))
+                + GenericUtils.typeToSignatureInContext(methodContext, genericReturnType, Set.of());
+    }
+
+    /**
+     * Checks if the method's signature contains any type, that is not erased.
+     *
+     * @return {@code true} if and only if the method is generic, or any of its parameter types or return type
+     * is not {@link Class}
+     */
+    public boolean isGeneric() {
+        return !typeParameters.isEmpty() || !(genericReturnType instanceof Class<?>)
+                || genericParameterTypes.stream().anyMatch(type -> !(type instanceof Class<?>));
+    }
+
+    /**
+     * Gets erasure of {@code type}, declared in {@link #referenceMethod}'s declaring class.
+     *
+     * @param type    type to be erased
+     * @param context context used to substitute type variables
+     * @return erasure of {@code type}
+     */
+    private Class<?> erase(final Type type, final Map<String, Type> context) {
+        if (type instanceof final ParameterizedType parameterizedType) {
+            return (Class<?>) parameterizedType.getRawType();
+        } else if (type instanceof final GenericArrayType arrayType) {
+            return erase(arrayType.getGenericComponentType(), context).arrayType();
+        } else if (type instanceof final GeneratedTypeVariable typeVariable) {
+            // Bounds refer either to other generated type variables, or to declaring class' type variables,
+            // which may be shadowed in {@link #methodContext} by reference method's type parameters
+            return erase(typeVariable.getBounds()[0], this.context);
+        } else if (type instanceof final TypeVariable<?> typeVariable) {
+            if (context.containsKey(typeVariable.getName())) {
+                final Type replacement = context.get(typeVariable.getName());
+                // Replacement is a type of implemented class or generated type variable,
+                // so it is erased without further substitution
+                return erase(replacement, Map.of());
+            }
+            return erase(typeVariable.getBounds()[0], context);
+        } else if (type instanceof final Class<?> clazz) {
+            return clazz;
+        } else {
+            throw new AssertionError("Unreachable");
+        }
+    }
+
     /**
      * Generates {@link String} representation of the signature of the method.
      * Specifically, it is access modifier, followed by type parameters, if any,
@@ -296,12 +496,28 @@ public class ImplementationMethodSignature {
      */
     @Override
     public String toString() {
-        return String.format("%s%s %s %s%s{", Modifier.toString(accessModifier),
+        return toString(List.of());
+    }
+
+    /**
+     * Generates {@link String} representation of the signature of the method with given {@code throws} clause.
+     * Representation is the same as {@link #toString()}, but has {@code throws} clause before left curly bracket,
+     * if {@code exceptionTypes} is not empty.
+     *
+     * @param exceptionTypes exception types to be declared
+     * @return method's signature.
+     * @see #getCommonExceptionTypes()
+     */
+    public String toString(final List<Class<?>> exceptionTypes) {
+        return String.format("%s%s %s %s%s%s{", Modifier.toString(accessModifier),
                              GenericUtils.typeParametersToString(typeParameters, context), returnType, name,
                              IntStream.range(0, parameterTypes.size()).mapToObj(idx -> {
                                  final String typeName = parameterTypes.get(idx);
                                  return typeName + " var" + idx;
-                             }).collect(Collectors.joining(", ", "(", ") ")));
+                             }).collect(Collectors.joining(", ", "(", ") ")),
+                             exceptionTypes.isEmpty() ? "" : exceptionTypes.stream()
+                                     .map(Class::getCanonicalName)
+                                     .collect(Collectors.joining(", ", "throws ", " ")));
     }
 
     /**
@@ -0,0 +1,607 @@
+package info.kgeorgiy.ja.eliseev.implementor;
+
+import info.kgeorgiy.ja.eliseev.implementor.utils.CompilerService;
+import info.kgeorgiy.ja.eliseev.implementor.utils.IOUtils;
+import info.kgeorgiy.ja.eliseev.implementor.utils.JarUtils;
+import info.kgeorgiy.ja.eliseev.implementor.utils.SchedulingUtils;
+import info.kgeorgiy.java.advanced.implementor.ImplerException;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Batch engine, that implements classes/interfaces in pipeline of stages connected by bounded queues.
+ * Analysis and generation of implementations, as well as compilation, are CPU-bound and run on fixed pool of
+ * platform threads, while files and <var>.jar</var> files are written on separate I/O threads, so that
+ * I/O of some implementations overlaps with analysis of others.
+ * I/O threads are virtual, if runtime supports them, and platform threads otherwise.
+ * <p>
+ * Each stage blocks when queue of the next stage is full, so number of implementations, that are generated but
+ * not written yet, is bounded, and memory used doesn't depend on number of implemented classes/interfaces.
+ * Implementations are generated as by configured {@link Implementor}.
+ * <p>
+ * Results of implementation can also be published as soon as each of them is ready,
+ * see {@link #publishAll(Iterable, Path)}.
+ *
+ * @author Aleksandr Eliseev
+ * @see Implementor#implementAll(Collection, Path)
+ * @see Implementor#implementJar(Collection, Path)
+ */
+public final class ImplementationPipeline {
+    /**
+     * Default capacity of queues between stages.
+     */
+    private static final int DEFAULT_CAPACITY = 64;
+    /**
+     * Default number of implementations compiled in one compilation.
+     */
+    private static final int DEFAULT_BATCH_SIZE = 256;
+    /**
+     * Interval in milliseconds, at which stage waiting for space in full queue checks if next stage stopped.
+     */
+    private static final long POLL_INTERVAL_MILLIS = 100;
+    /**
+     * Item, that marks end of input of stage.
+     */
+    private static final Item END = new Item(-1, null);
+
+    /**
+     * Implementor, which configuration is used to generate implementations.
+     */
+    private final Implementor implementor;
+    /**
+     * Number of threads analyzing classes/interfaces.
+     */
+    private final int parallelism;
+    /**
+     * Capacity of queues between stages.
+     */
+    private final int capacity;
+    /**
+     * Maximal number of implementations compiled in one compilation.
+     */
+    private final int batchSize;
+
+    /**
+     * Creates pipeline with one analyzing thread per available processor, and default capacity of queues
+     * and size of compiled batches.
+     *
+     * @param implementor implementor, which configuration is used to generate implementations
+     */
+    public ImplementationPipeline(final Implementor implementor) {
+        this(implementor, Runtime.getRuntime().availableProcessors(), DEFAULT_CAPACITY, DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * Creates pipeline with given configuration.
+     *
+     * @param implementor implementor, which configuration is used to generate implementations
+     * @param parallelism number of threads analyzing classes/interfaces
+     * @param capacity    capacity of queues between stages
+     * @param batchSize   maximal number of implementations compiled in one compilation
+     * @throws IllegalArgumentException if any of numbers is not positive
+     */
+    public ImplementationPipeline(final Implementor implementor, final int parallelism, final int capacity,
+                                  final int batchSize) {
+        if (parallelism <= 0 || capacity <= 0 || batchSize <= 0) {
+            throw new IllegalArgumentException("Parallelism, capacity and batch size must be positive");
+        }
+        this.implementor = Objects.requireNonNull(implementor);
+        this.parallelism = parallelism;
+        this.capacity = capacity;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Implements all given classes/interfaces, writing source code of implementations to {@code root}.
+     * Result is the same as of {@link Implementor#implementAll(Collection, Path)}.
+     * Source code is generated by analyzing threads, and written by I/O threads.
+     * Classes/interfaces are analyzed largest-first, as ordered by {@link SchedulingUtils#getLargestFirstOrder(List)}.
+     *
+     * @param tokens classes/interfaces to be implemented
+     * @param root   root directory
+     * @return results of implementation, in iteration order of {@code tokens}
+     * @throws InterruptedException if current thread is interrupted while waiting for stages
+     */
+    public List<ImplementationResult> implementAll(final Collection<Class<?>> tokens, final Path root)
+            throws InterruptedException {
+        final ImplementationResult[] results = new ImplementationResult[tokens.size()];
+        final BlockingQueue<Item> analysisQueue = new ArrayBlockingQueue<>(capacity);
+        final BlockingQueue<Item> writeQueue = new ArrayBlockingQueue<>(capacity);
+        final ExecutorService analysis = Executors.newFixedThreadPool(parallelism);
+        final ExecutorService io = newIoExecutor();
+        try {
+            final Future<?> writer = io.submit(() -> {
+                // Writes are independent, so they are performed concurrently, but no more than queue capacity
+                final Semaphore writing = new Semaphore(capacity);
+                for (Item item = writeQueue.take(); item != END; item = writeQueue.take()) {
+                    final Item written = item;
+                    writing.acquire();
+                    io.execute(() -> {
+                        try {
+                            results[written.index] = write(written, root);
+                        } finally {
+                            writing.release();
+                        }
+                    });
+                }
+                writing.acquire(capacity);
+                return null;
+            });
+            final List<Future<?>> analyzers = startWorkers(analysis, parallelism, analysisQueue, item -> {
+                item.started = System.nanoTime();
+                try {
+                    item.source = implementor.generateSource(item.token);
+                } catch (final ImplerException e) {
+                    item.failure = e;
+                } catch (final RuntimeException | LinkageError e) {
+                    item.failure = Implementor.unexpectedFailure(e);
+                }
+                put(writeQueue, item, List.of(writer));
+            });
+
+            final List<Class<?>> tokenList = new ArrayList<>(tokens);
+            for (final int index : SchedulingUtils.getLargestFirstOrder(tokenList)) {
+                put(analysisQueue, new Item(index, tokenList.get(index)), analyzers);
+            }
+            finish(analysisQueue, analyzers);
+            finish(writeQueue, List.of(writer));
+        } catch (final ImplerException e) {
+            throw new AssertionError("Failures are returned as results", e);
+        } finally {
+            analysis.shutdownNow();
+            io.shutdownNow();
+        }
+        return Arrays.asList(results);
+    }
+
+    /**
+     * Produces one <var>.jar</var> file, that contains implementations of all given classes/interfaces.
+     * Result is the same as of {@link Implementor#implementJar(Collection, Path)}, but implementations are
+     * generated by analyzing threads, compiled in batches, and written to <var>.jar</var> file by I/O thread
+     * as soon as each batch is compiled, so {@code tokens} may be arbitrarily large.
+     * Jar file is always written from scratch, and replaces existing file only if all implementations are written.
+     *
+     * @param tokens  classes/interfaces to be implemented, duplicates are ignored
+     * @param jarFile target <var>.jar</var> file
+     * @throws ImplerException      if any of {@code tokens} cannot be implemented, compilation fails,
+     *                              or an I/O error occurs during <var>.jar</var> file creation
+     * @throws InterruptedException if current thread is interrupted while waiting for stages
+     */
+    public void implementJar(final Iterable<Class<?>> tokens, final Path jarFile)
+            throws ImplerException, InterruptedException {
+        final BlockingQueue<Item> analysisQueue = new ArrayBlockingQueue<>(capacity);
+        final BlockingQueue<Item> compileQueue = new ArrayBlockingQueue<>(capacity);
+        final BlockingQueue<Item> packQueue = new ArrayBlockingQueue<>(capacity);
+        // One more thread for compilation stage
+        final ExecutorService cpu = Executors.newFixedThreadPool(parallelism + 1);
+        final ExecutorService io = newIoExecutor();
+        try {
+            final Future<?> packer = io.submit(() -> {
+                try (final JarUtils.JarWriter writer = new JarUtils.JarWriter(
+                        jarFile, IOUtils.MANIFEST, implementor.getJarCompression())) {
+                    for (Item item = packQueue.take(); item != END; item = packQueue.take()) {
+                        writer.write(item.classes);
+                    }
+                    writer.commit();
+                } catch (final IOException e) {
+                    throw new ImplerException("Cannot write jar file", e);
+                }
+                return null;
+            });
+            final Future<?> compiler = cpu.submit(() -> {
+                final Map<String, String> sources = new LinkedHashMap<>();
+                final Map<String, byte[]> classes = new HashMap<>();
+                final Set<Class<?>> batch = new LinkedHashSet<>();
+                for (Item item = compileQueue.take(); ; item = compileQueue.take()) {
+                    if (item != END) {
+                        if (item.source != null) {
+                            sources.put(IOUtils.getImplementationName(item.token), item.source);
+                        } else {
+                            classes.putAll(item.classes);
+                        }
+                        batch.add(item.token);
+                    }
+                    if (!batch.isEmpty() && (item == END || batch.size() == batchSize)) {
+                        final Item compiled = new Item(-1, null);
+                        compiled.classes = new HashMap<>(classes);
+                        if (!sources.isEmpty()) {
+                            compiled.classes.putAll(CompilerService.getInstance()
+                                    .compile(sources, implementor.getCompilationClassPath(batch)));
+                        }
+                        put(packQueue, compiled, List.of(packer));
+                        sources.clear();
+                        classes.clear();
+                        batch.clear();
+                    }
+                    if (item == END) {
+                        return null;
+                    }
+                }
+            });
+            final List<Future<?>> analyzers = startWorkers(cpu, parallelism, analysisQueue, item -> {
+                try {
+                    if (implementor.compilesSources()) {
+                        item.source = implementor.generateSource(item.token);
+                    } else {
+                        item.classes = Map.of(IOUtils.getImplementationName(item.token),
+                                implementor.generateClassFile(item.token));
+                    }
+                } catch (final ImplerException e) {
+                    throw Implementor.wrapException(item.token, e);
+                } catch (final RuntimeException | LinkageError e) {
+                    throw Implementor.wrapException(item.token, Implementor.unexpectedFailure(e));
+                }
+                put(compileQueue, item, List.of(compiler));
+            });
+
+            final Set<Class<?>> distinctTokens = new HashSet<>();
+            for (final Class<?> token : tokens) {
+                if (distinctTokens.add(token)) {
+                    if (distinctTokens.size() == 1 && implementor.compilesSources()) {
+                        CompilerService.getInstance().warmUp(
+                                implementor.getCompilationClassPath(List.of(token)));
+                    }
+                    put(analysisQueue, new Item(-1, token), analyzers);
+                }
+            }
+            finish(analysisQueue, analyzers);
+            finish(compileQueue, List.of(compiler));
+            finish(packQueue, List.of(packer));
+        } finally {
+            // Interrupts stages after failure, so that unfinished jar file is discarded
+            cpu.shutdownNow();
+            io.shutdownNow();
+            try {
+                io.awaitTermination(POLL_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Writes source code of implementation.
+     *
+     * @param item analyzed class/interface
+     * @param root root directory
+     * @return result of implementation
+     */
+    private static ImplementationResult write(final Item item, final Path root) {
+        try {
+            if (item.failure != null) {
+                throw item.failure;
+            }
+            Implementor.writeSource(item.token, root, item.source);
+            return ImplementationResult.success(item.token,
+                    IOUtils.getFilePath(item.token, root, IOUtils.JAVA_EXTENSION), item.elapsed());
+        } catch (final ImplerException e) {
+            return ImplementationResult.failure(item.token, e, item.elapsed());
+        } catch (final RuntimeException e) {
+            return ImplementationResult.failure(item.token, new ImplerException("Cannot write to output file", e),
+                    item.elapsed());
+        }
+    }
+
+    /**
+     * Gets publisher of results of implementing given classes/interfaces, writing source code of implementations
+     * to {@code root}. Each class/interface is implemented as with {@link Implementor#implement(Class, Path)}.
+     * Implementations are performed by {@link ForkJoinPool#commonPool() common pool}.
+     * <p>
+     * Implementation starts when subscriber subscribes, and each subscriber gets results of its own run.
+     * Results are published in order of completion, as soon as each implementation is written.
+     * Classes/interfaces are implemented concurrently by number of analyzing threads, and no more than queue capacity
+     * of results are buffered for slow subscriber: implementation waits until subscriber requests more.
+     * Implementation stops, if subscriber cancels subscription.
+     *
+     * @param tokens classes/interfaces to be implemented
+     * @param root   root directory
+     * @return cold publisher of results, one per element of {@code tokens}
+     */
+    public Flow.Publisher<ImplementationResult> publishAll(final Iterable<Class<?>> tokens, final Path root) {
+        return publishAll(tokens, root, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Gets publisher of results of implementing given classes/interfaces, as by {@link #publishAll(Iterable, Path)},
+     * but implementations are performed by given executor.
+     *
+     * @param tokens   classes/interfaces to be implemented
+     * @param root     root directory
+     * @param executor executor performing implementations
+     * @return cold publisher of results, one per element of {@code tokens}
+     */
+    public Flow.Publisher<ImplementationResult> publishAll(final Iterable<Class<?>> tokens, final Path root,
+                                                           final Executor executor) {
+        return publish(tokens, token -> implementor.implementToResult(token, root), executor);
+    }
+
+    /**
+     * Gets publisher of results of generating class-files of implementations of given classes/interfaces in memory.
+     * Class-files are compiled from source code, or generated directly, as in
+     * {@link Implementor#implementJar(Class, Path)}, and are available as {@link ImplementationResult#getClassFile()}.
+     * Results are published as by {@link #publishAll(Iterable, Path)}.
+     *
+     * @param tokens classes/interfaces to be implemented
+     * @return cold publisher of results, one per element of {@code tokens}
+     */
+    public Flow.Publisher<ImplementationResult> publishClassFiles(final Iterable<Class<?>> tokens) {
+        return publishClassFiles(tokens, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Gets publisher of results of generating class-files of implementations of given classes/interfaces,
+     * as by {@link #publishClassFiles(Iterable)}, but class-files are generated by given executor.
+     *
+     * @param tokens   classes/interfaces to be implemented
+     * @param executor executor generating class-files
+     * @return cold publisher of results, one per element of {@code tokens}
+     */
+    public Flow.Publisher<ImplementationResult> publishClassFiles(final Iterable<Class<?>> tokens,
+                                                                  final Executor executor) {
+        return publish(tokens, implementor::compileToResult, executor);
+    }
+
+    /**
+     * Gets publisher, that performs given task for each class/interface when subscribed, and publishes its results.
+     * Results are delivered to subscriber by {@link ForkJoinPool#commonPool() common pool}, so that tasks waiting
+     * for space in subscriber's buffer never block delivery.
+     *
+     * @param tokens   classes/interfaces to be implemented
+     * @param task     task implementing class/interface
+     * @param executor executor performing tasks
+     * @return cold publisher of results
+     */
+    private Flow.Publisher<ImplementationResult> publish(final Iterable<Class<?>> tokens,
+                                                         final Function<Class<?>, ImplementationResult> task,
+                                                         final Executor executor) {
+        Objects.requireNonNull(executor);
+        return subscriber -> {
+            final SubmissionPublisher<ImplementationResult> publisher = new SubmissionPublisher<>(
+                    ForkJoinPool.commonPool(), capacity);
+            publisher.subscribe(subscriber);
+            final Iterator<Class<?>> iterator = tokens.iterator();
+            final AtomicInteger chains = new AtomicInteger(parallelism);
+            for (int i = 0; i < parallelism; i++) {
+                produce(iterator, task, publisher, executor, chains);
+            }
+        };
+    }
+
+    /**
+     * Schedules task for the next class/interface on executor, that submits its result to publisher and
+     * then schedules the next one, so that each call starts chain of tasks, that run one after another.
+     * Failure of task is submitted as failed result. Publisher is closed, when the last chain finds no more
+     * classes/interfaces, or exceptionally, if task fails with {@link Error}, that is not {@link LinkageError}.
+     *
+     * @param tokens    iterator over classes/interfaces to be implemented, shared by all chains
+     * @param task      task implementing class/interface
+     * @param publisher publisher of results
+     * @param executor  executor performing tasks
+     * @param chains    number of chains, that are not finished
+     */
+    private void produce(final Iterator<Class<?>> tokens, final Function<Class<?>, ImplementationResult> task,
+                         final SubmissionPublisher<ImplementationResult> publisher, final Executor executor,
+                         final AtomicInteger chains) {
+        final Class<?> token;
+        synchronized (tokens) {
+            // Subscription might be cancelled, or other task failed
+            final boolean stopped = publisher.isClosed() || !publisher.hasSubscribers();
+            token = !stopped && tokens.hasNext() ? tokens.next() : null;
+        }
+        if (token == null) {
+            if (chains.decrementAndGet() == 0) {
+                publisher.close();
+            }
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                final long start = System.nanoTime();
+                ImplementationResult result;
+                try {
+                    result = task.apply(token);
+                } catch (final RuntimeException | LinkageError e) {
+                    result = ImplementationResult.failure(token, Implementor.unexpectedFailure(e),
+                            Duration.ofNanos(System.nanoTime() - start));
+                } catch (final Error e) {
+                    publisher.closeExceptionally(e);
+                    return;
+                }
+                try {
+                    publisher.submit(result);
+                } catch (final IllegalStateException ignored) {
+                    // Publisher is closed exceptionally by other task
+                }
+                produce(tokens, task, publisher, executor, chains);
+            });
+        } catch (final RejectedExecutionException e) {
+            publisher.closeExceptionally(e);
+        }
+    }
+
+    /**
+     * Starts workers, that process items from queue until they take {@link #END}.
+     *
+     * @param executor executor running workers
+     * @param count    number of workers
+     * @param queue    queue of items
+     * @param action   action performed for each item
+     * @return futures of workers
+     */
+    private static List<Future<?>> startWorkers(final ExecutorService executor, final int count,
+                                                final BlockingQueue<Item> queue, final ItemAction action) {
+        final List<Future<?>> workers = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            workers.add(executor.submit(() -> {
+                for (Item item = queue.take(); item != END; item = queue.take()) {
+                    action.perform(item);
+                }
+                return null;
+            }));
+        }
+        return workers;
+    }
+
+    /**
+     * Puts item into queue, waiting while it is full.
+     * Workers of the next stage, that finished normally, have taken {@link #END}, while the rest are still running.
+     *
+     * @param queue     queue of the next stage
+     * @param item      item to be put
+     * @param consumers workers of the next stage
+     * @throws ImplerException       if any worker of the next stage failed with {@link ImplerException}
+     * @throws IllegalStateException if all workers of the next stage finished, so item would never be taken
+     * @throws InterruptedException  if current thread is interrupted while waiting
+     */
+    private static void put(final BlockingQueue<Item> queue, final Item item, final List<Future<?>> consumers)
+            throws ImplerException, InterruptedException {
+        while (!queue.offer(item, POLL_INTERVAL_MILLIS, TimeUnit.MILLISECONDS)) {
+            boolean stopped = true;
+            for (final Future<?> consumer : consumers) {
+                if (consumer.isDone()) {
+                    // Rethrows failure of worker
+                    await(consumer);
+                } else {
+                    stopped = false;
+                }
+            }
+            if (stopped) {
+                throw new IllegalStateException("Stage stopped before end of input");
+            }
+        }
+    }
+
+    /**
+     * Marks end of input of stage, and waits until all its workers finish.
+     *
+     * @param queue   queue of stage
+     * @param workers workers of stage
+     * @throws ImplerException      if any worker failed with {@link ImplerException}
+     * @throws InterruptedException if current thread is interrupted while waiting
+     */
+    private static void finish(final BlockingQueue<Item> queue, final List<Future<?>> workers)
+            throws ImplerException, InterruptedException {
+        for (int i = 0; i < workers.size(); i++) {
+            put(queue, END, workers);
+        }
+        for (final Future<?> worker : workers) {
+            await(worker);
+        }
+    }
+
+    /**
+     * Waits until worker finishes, and rethrows exception it failed with.
+     *
+     * @param worker worker of stage
+     * @throws ImplerException      if worker failed with {@link ImplerException}
+     * @throws InterruptedException if current thread is interrupted while waiting, or worker was interrupted
+     */
+    private static void await(final Future<?> worker) throws ImplerException, InterruptedException {
+        try {
+            worker.get();
+        } catch (final ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof final ImplerException implerException) {
+                throw implerException;
+            } else if (cause instanceof final InterruptedException interruptedException) {
+                throw interruptedException;
+            } else if (cause instanceof final RuntimeException runtimeException) {
+                throw runtimeException;
+            } else if (cause instanceof final Error error) {
+                throw error;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    /**
+     * Creates executor, that runs each task in new virtual thread, if runtime supports virtual threads.
+     * Otherwise, tasks run in cached pool of platform threads.
+     *
+     * @return executor for I/O tasks
+     */
+    private static ExecutorService newIoExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (final ReflectiveOperationException e) {
+            // Virtual threads are not available before Java 21
+            return Executors.newCachedThreadPool();
+        }
+    }
+
+    /**
+     * Action performed by worker of stage for each item.
+     *
+     * @author Aleksandr Eliseev
+     */
+    @FunctionalInterface
+    private interface ItemAction {
+        /**
+         * Processes item, and passes it to the next stage.
+         *
+         * @param item item to be processed
+         * @throws ImplerException      if class/interface cannot be implemented, and whole pipeline must stop
+         * @throws InterruptedException if worker is interrupted while waiting
+         */
+        void perform(Item item) throws ImplerException, InterruptedException;
+    }
+
+    /**
+     * Class/interface passing through pipeline, with results of stages, that it passed.
+     * Item is modified only by one stage at a time, and queues between stages ensure visibility of changes.
+     *
+     * @author Aleksandr Eliseev
+     */
+    private static final class Item {
+        /**
+         * Index of class/interface in input, {@code -1} if results are not ordered.
+         */
+        private final int index;
+        /**
+         * Class/interface to be implemented, {@code null} for items, that are not bound to one class/interface.
+         */
+        private final Class<?> token;
+        /**
+         * Generated source code, {@code null} if not generated.
+         */
+        private String source;
+        /**
+         * Mapping from binary names of implementations to their class-files, {@code null} if not generated.
+         */
+        private Map<String, byte[]> classes;
+        /**
+         * Reason why class/interface cannot be implemented, {@code null} if there is none.
+         */
+        private ImplerException failure;
+        /**
+         * Value of {@link System#nanoTime()}, when implementation started.
+         */
+        private long started;
+
+        /**
+         * Constructor, that assign its arguments to class' fields.
+         *
+         * @param index value of {@link #index}
+         * @param token value of {@link #token}
+         */
+        private Item(final int index, final Class<?> token) {
+            this.index = index;
+            this.token = token;
+        }
+
+        /**
+         * Gets time elapsed since implementation started.
+         *
+         * @return elapsed time
+         */
+        private Duration elapsed() {
+            return Duration.ofNanos(System.nanoTime() - started);
+        }
+    }
+}
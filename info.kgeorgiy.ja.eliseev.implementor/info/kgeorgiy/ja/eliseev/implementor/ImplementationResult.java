@@ -0,0 +1,168 @@
+package info.kgeorgiy.ja.eliseev.implementor;
+
+import info.kgeorgiy.java.advanced.implementor.ImplerException;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Represents outcome of implementing one class/interface in a batch.
+ * Outcome is either path to generated file or content of generated class-file, or {@link ImplerException}
+ * that prevented generation. Outcome also includes time spent on implementation.
+ *
+ * @author Aleksandr Eliseev
+ * @see Implementor#implementAll(java.util.Collection, Path, int)
+ * @see ImplementationPipeline#publishAll(Iterable, Path)
+ */
+public final class ImplementationResult {
+    /**
+     * Class/interface that was implemented.
+     */
+    private final Class<?> token;
+    /**
+     * Path to generated file, {@code null} if implementation failed or class-file was generated in memory.
+     */
+    private final Path output;
+    /**
+     * Content of generated class-file, {@code null} if implementation failed or file was generated.
+     */
+    private final byte[] classFile;
+    /**
+     * Exception occurred during implementation, {@code null} if implementation succeeded.
+     */
+    private final ImplerException exception;
+    /**
+     * Time spent on implementation, including failed one.
+     */
+    private final Duration duration;
+
+    /**
+     * Constructor, that assign its arguments to class' fields.
+     *
+     * @param token     value of {@link #token}
+     * @param output    value of {@link #output}
+     * @param classFile value of {@link #classFile}
+     * @param exception value of {@link #exception}
+     * @param duration  value of {@link #duration}
+     */
+    private ImplementationResult(final Class<?> token, final Path output, final byte[] classFile,
+                                 final ImplerException exception, final Duration duration) {
+        this.token = token;
+        this.output = output;
+        this.classFile = classFile;
+        this.exception = exception;
+        this.duration = duration;
+    }
+
+    /**
+     * Creates result of successful implementation, that generated file.
+     *
+     * @param token    class/interface that was implemented
+     * @param output   path to generated file
+     * @param duration time spent on implementation
+     * @return successful result
+     */
+    public static ImplementationResult success(final Class<?> token, final Path output, final Duration duration) {
+        return new ImplementationResult(token, output, null, null, duration);
+    }
+
+    /**
+     * Creates result of successful implementation, that generated class-file in memory.
+     *
+     * @param token     class/interface that was implemented
+     * @param classFile content of generated class-file
+     * @param duration  time spent on implementation
+     * @return successful result
+     */
+    public static ImplementationResult compiled(final Class<?> token, final byte[] classFile,
+                                                final Duration duration) {
+        return new ImplementationResult(token, null, classFile, null, duration);
+    }
+
+    /**
+     * Creates result of failed implementation.
+     *
+     * @param token     class/interface that was not implemented
+     * @param exception exception that prevented implementation
+     * @param duration  time spent before implementation failed
+     * @return failed result
+     */
+    public static ImplementationResult failure(final Class<?> token, final ImplerException exception,
+                                               final Duration duration) {
+        return new ImplementationResult(token, null, null, exception, duration);
+    }
+
+    /**
+     * Gets {@link #token}.
+     *
+     * @return class/interface that was implemented
+     */
+    public Class<?> getToken() {
+        return token;
+    }
+
+    /**
+     * Checks if implementation succeeded.
+     *
+     * @return {@code true} if and only if implementation succeeded
+     */
+    public boolean isSuccessful() {
+        return exception == null;
+    }
+
+    /**
+     * Gets path to generated file.
+     *
+     * @return path to generated file, or {@code null} if class-file was generated in memory
+     * @throws ImplerException exception occurred during implementation, if it failed
+     */
+    public Path getOutput() throws ImplerException {
+        if (exception != null) {
+            throw exception;
+        }
+        return output;
+    }
+
+    /**
+     * Gets content of generated class-file.
+     *
+     * @return content of class-file, or {@code null} if file was generated
+     * @throws ImplerException exception occurred during implementation, if it failed
+     */
+    public byte[] getClassFile() throws ImplerException {
+        if (exception != null) {
+            throw exception;
+        }
+        return classFile == null ? null : classFile.clone();
+    }
+
+    /**
+     * Gets {@link #exception}.
+     *
+     * @return exception occurred during implementation, or {@code null} if implementation succeeded
+     */
+    public ImplerException getException() {
+        return exception;
+    }
+
+    /**
+     * Gets {@link #duration}.
+     *
+     * @return time spent on implementation, or before it failed
+     */
+    public Duration getDuration() {
+        return duration;
+    }
+
+    /**
+     * Gets description of result: name of implemented class/interface, whether implementation succeeded,
+     * time spent on it in milliseconds, and message of exception, if implementation failed.
+     *
+     * @return description of result, such as {@code "java.util.List implemented in 12 ms"}
+     */
+    @Override
+    public String toString() {
+        return token.getName() + (exception == null ? " implemented" : " failed") + " in " + duration.toMillis()
+                + " ms" + (exception == null ? "" : ": " + exception.getMessage());
+    }
+}
@@ -0,0 +1,91 @@
+package info.kgeorgiy.ja.eliseev.implementor;
+
+import info.kgeorgiy.ja.eliseev.implementor.utils.IOUtils;
+import info.kgeorgiy.java.advanced.implementor.ImplerException;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Class loader, that generates implementations of classes/interfaces on demand.
+ * Request to load class named as implementation of class/interface, such as {@code com.example.FooImpl}
+ * for {@code com.example.Foo}, is resolved by loading {@code com.example.Foo} with parent class loader,
+ * analyzing it as {@link Implementor} does, and defining generated class in this class loader.
+ * Other requests are delegated to parent class loader as usual.
+ * <p>
+ * Only top-level classes/interfaces can be found by name of implementation.
+ * As implementations are defined in this class loader, that is in different runtime package than implemented
+ * class/interface, it must be public and exported, and its constructor and abstract methods must be
+ * public or protected. Classes/interfaces from <var>java.*</var> packages cannot be implemented,
+ * because only platform class loaders can define classes in such packages.
+ * <p>
+ * Class loader is parallel capable: implementations of different classes/interfaces are generated concurrently,
+ * and each implementation is generated at most once.
+ *
+ * @author Aleksandr Eliseev
+ */
+public class ImplementingClassLoader extends ClassLoader {
+    static {
+        registerAsParallelCapable();
+    }
+
+    /**
+     * Maps names of implementations, that cannot be generated, to reason why.
+     * Defined implementations are cached by {@link ClassLoader} itself.
+     */
+    private final Map<String, ImplerException> failures = new ConcurrentHashMap<>();
+
+    /**
+     * Creates class loader with system class loader as parent.
+     */
+    public ImplementingClassLoader() {
+        this(ClassLoader.getSystemClassLoader());
+    }
+
+    /**
+     * Creates class loader with given parent.
+     *
+     * @param parent parent class loader, that loads implemented classes/interfaces,
+     *               {@code null} for bootstrap class loader
+     */
+    public ImplementingClassLoader(final ClassLoader parent) {
+        super("implementor", parent);
+    }
+
+    /**
+     * Generates and defines implementation with given name.
+     *
+     * @param name binary name of implementation
+     * @return defined implementation
+     * @throws ClassNotFoundException if {@code name} is not a name of implementation, class/interface to be
+     *                                implemented cannot be found, or cannot be implemented
+     */
+    @Override
+    protected Class<?> findClass(final String name) throws ClassNotFoundException {
+        final ImplerException failure = failures.get(name);
+        if (failure != null) {
+            throw new ClassNotFoundException(name, failure);
+        }
+        if (!name.endsWith(IOUtils.CLASS_NAME_SUFFIX) || name.endsWith("." + IOUtils.CLASS_NAME_SUFFIX)) {
+            throw new ClassNotFoundException(name);
+        }
+
+        final Class<?> token = Class.forName(
+                name.substring(0, name.length() - IOUtils.CLASS_NAME_SUFFIX.length()), false, getParent());
+        if (!IOUtils.getImplementationName(token).equals(name)) {
+            throw new ClassNotFoundException(name);
+        }
+        ImplerException exception;
+        try {
+            final byte[] classFile = RuntimeImplementations.generateExternalImplementation(token, name);
+            return defineClass(name, classFile, 0, classFile.length);
+        } catch (final ImplerException e) {
+            exception = e;
+        } catch (final SecurityException e) {
+            // Classes in java.* packages can be defined only by platform class loaders
+            exception = new ImplerException("Cannot define class in package " + token.getPackageName(), e);
+        }
+        failures.put(name, exception);
+        throw new ClassNotFoundException(name, exception);
+    }
+}
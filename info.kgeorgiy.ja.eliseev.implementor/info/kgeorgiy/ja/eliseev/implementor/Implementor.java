@@ -4,28 +4,173 @@ import info.kgeorgiy.ja.eliseev.implementor.utils.*;
 import info.kgeorgiy.java.advanced.implementor.ImplerException;
 import info.kgeorgiy.java.advanced.implementor.JarImpler;
 
-import java.io.File;
 import java.io.IOException;
+import java.io.PrintStream;
+import java.io.StringWriter;
 import java.io.UncheckedIOException;
 import java.io.Writer;
+import java.lang.invoke.LambdaMetafactory;
 import java.lang.reflect.*;
-import java.nio.file.FileAlreadyExistsException;
 import java.nio.file.Files;
 import java.nio.file.InvalidPathException;
 import java.nio.file.Path;
+import java.time.Duration;
 import java.util.*;
-import java.util.jar.JarOutputStream;
-import java.util.zip.ZipEntry;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.stream.Stream;
 
 /**
  * Implementation of {@link JarImpler} interface.
+ * Instances are immutable, configuration methods return configured copies.
+ * Instances can be shared between threads: concurrent calls, even with the same output files,
+ * don't interfere, and each written file is replaced atomically.
  *
  * @author Aleksandr Eliseev
  */
 public class Implementor implements JarImpler {
+    /**
+     * Command-line option, that starts {@link ImplementorDaemon}.
+     */
+    private static final String DAEMON_OPTION = "-daemon";
+    /**
+     * Command-line option, that forwards other arguments to {@link ImplementorDaemon}.
+     */
+    private static final String CLIENT_OPTION = "-connect";
+    /**
+     * Command-line option, that implements classes/interfaces listed in file with {@link WorkerPool}.
+     */
+    private static final String WORKERS_OPTION = "-workers";
+    /**
+     * Message printed, when command-line arguments are invalid.
+     */
+    private static final String USAGE = "Usage: \"Implementor -jar <jar-name> <class/interface name>\", "
+            + "\"Implementor <class/interface name>\", "
+            + "\"Implementor " + WORKERS_OPTION + " <worker count> <class list file>\", "
+            + "\"Implementor " + DAEMON_OPTION + " <socket-file>\" "
+            + "or \"Implementor " + CLIENT_OPTION + " <socket-file> <arguments of other forms>\"";
+    /**
+     * Way to produce class-files in {@link #implementJar(Class, Path)}.
+     */
+    private final JarBackend jarBackend;
+    /**
+     * Persistent cache of analysis results, or {@code null} if results are not cached.
+     */
+    private final AnalysisCache analysisCache;
+    /**
+     * Way to store class-files in <var>.jar</var> files.
+     */
+    private final JarCompression jarCompression;
+    /**
+     * Whether existing <var>.jar</var> files are updated in place, instead of being rewritten.
+     */
+    private final boolean incrementalJar;
+    /**
+     * Way to implement methods.
+     */
+    private final GenerationMode generationMode;
+
+    /**
+     * Creates implementor with default configuration: class-files are compiled by {@link JarBackend#JAVAC},
+     * stored {@link JarCompression#DEFLATED}, <var>.jar</var> files are rewritten from scratch,
+     * analysis results are not cached, and methods return {@link GenerationMode#DEFAULT_VALUES}.
+     */
+    public Implementor() {
+        this(JarBackend.JAVAC, null, JarCompression.DEFLATED, false, GenerationMode.DEFAULT_VALUES);
+    }
+
+    /**
+     * Constructor, that assign its arguments to class' fields.
+     *
+     * @param jarBackend     value of {@link #jarBackend}
+     * @param analysisCache  value of {@link #analysisCache}
+     * @param jarCompression value of {@link #jarCompression}
+     * @param incrementalJar value of {@link #incrementalJar}
+     * @param generationMode value of {@link #generationMode}
+     */
+    private Implementor(final JarBackend jarBackend, final AnalysisCache analysisCache,
+                        final JarCompression jarCompression, final boolean incrementalJar,
+                        final GenerationMode generationMode) {
+        this.jarBackend = jarBackend;
+        this.analysisCache = analysisCache;
+        this.jarCompression = jarCompression;
+        this.incrementalJar = incrementalJar;
+        this.generationMode = generationMode;
+    }
+
+    /**
+     * Gets copy of this implementor, that produces class-files in {@link #implementJar(Class, Path)}
+     * with given backend.
+     *
+     * @param jarBackend way to produce class-files
+     * @return configured implementor
+     */
+    public Implementor withJarBackend(final JarBackend jarBackend) {
+        return new Implementor(Objects.requireNonNull(jarBackend), analysisCache, jarCompression, incrementalJar,
+                generationMode);
+    }
+
+    /**
+     * Gets copy of this implementor, that caches analysis of implemented classes/interfaces in given file.
+     * Cache file can be shared between runs and processes. Class/interface is analyzed again only if
+     * class-file of it or any of its supertypes changed.
+     *
+     * @param cacheFile cache file, created if it doesn't exist
+     * @return configured implementor
+     */
+    public Implementor withAnalysisCache(final Path cacheFile) {
+        return new Implementor(jarBackend, AnalysisCache.of(Objects.requireNonNull(cacheFile)), jarCompression,
+                incrementalJar, generationMode);
+    }
+
+    /**
+     * Gets copy of this implementor, that stores class-files in <var>.jar</var> files in given way.
+     *
+     * @param jarCompression way to store class-files
+     * @return configured implementor
+     */
+    public Implementor withJarCompression(final JarCompression jarCompression) {
+        return new Implementor(jarBackend, analysisCache, Objects.requireNonNull(jarCompression), incrementalJar,
+                generationMode);
+    }
+
+    /**
+     * Gets copy of this implementor, that updates existing <var>.jar</var> files in place, if
+     * {@code incrementalJar} is {@code true}. Only entries, which content changed, are replaced,
+     * and other entries of existing file are kept, see {@link JarUtils#updateJar}.
+     *
+     * @param incrementalJar whether existing <var>.jar</var> files are updated instead of being rewritten
+     * @return configured implementor
+     */
+    public Implementor withIncrementalJarUpdate(final boolean incrementalJar) {
+        return new Implementor(jarBackend, analysisCache, jarCompression, incrementalJar, generationMode);
+    }
+
+    /**
+     * Gets copy of this implementor, that implements methods in given way.
+     * With modes other than {@link GenerationMode#DEFAULT_VALUES} implementations are always compiled
+     * from source code, whatever {@link JarBackend} is set, and {@link #instantiate(Class)} is not affected.
+     *
+     * @param generationMode way to implement methods
+     * @return configured implementor
+     */
+    public Implementor withGenerationMode(final GenerationMode generationMode) {
+        return new Implementor(jarBackend, analysisCache, jarCompression, incrementalJar,
+                Objects.requireNonNull(generationMode));
+    }
+
     /**
      * Implements given class, creates jar if needed.
      * Usage: java info.kgeorgiy.ja.eliseev.implementor.Implementor [-jar &lt;jar-name&gt;] &lt;class/interface name&gt;
+     * <p>
+     * Implementation can also be performed by long-running {@link ImplementorDaemon}, to avoid startup costs.
+     * Usage: java info.kgeorgiy.ja.eliseev.implementor.Implementor -daemon &lt;socket-file&gt; starts daemon, and
+     * java info.kgeorgiy.ja.eliseev.implementor.Implementor -connect &lt;socket-file&gt; &lt;arguments&gt;
+     * forwards other arguments to it.
+     * <p>
+     * Large number of classes/interfaces can be implemented by pool of worker processes.
+     * Usage: java info.kgeorgiy.ja.eliseev.implementor.Implementor -workers &lt;count&gt; &lt;class-list-file&gt;
+     * implements classes/interfaces, which names are listed in file one per line, with {@link WorkerPool}.
      *
      * @param args command-line arguments.
      */
@@ -34,51 +179,128 @@ public class Implementor implements JarImpler {
             System.err.println("Error: Args array must be non-null");
             return;
         }
+        if (args.length >= 2 && (DAEMON_OPTION.equals(args[0]) || CLIENT_OPTION.equals(args[0]))) {
+            if (args[1] == null) {
+                System.err.println("Error: Socket file name must be non-null");
+                return;
+            }
+            final Path socketFile;
+            try {
+                socketFile = Path.of(args[1]);
+            } catch (final InvalidPathException e) {
+                System.err.println("Error: Socket file name is not a valid path: " + e.getMessage());
+                return;
+            }
+            try {
+                if (DAEMON_OPTION.equals(args[0])) {
+                    if (args.length != 2) {
+                        System.err.println(USAGE);
+                        return;
+                    }
+                    new ImplementorDaemon(new Implementor(), socketFile).serve();
+                } else {
+                    ImplementorDaemon.send(socketFile, Arrays.asList(args).subList(2, args.length))
+                            .forEach(System.err::println);
+                }
+            } catch (final IOException e) {
+                System.err.println("Error: Cannot communicate with daemon: " + e.getMessage());
+            } catch (final IllegalArgumentException e) {
+                System.err.println("Error: " + e.getMessage());
+            }
+            return;
+        }
+        if (args.length == 3 && WORKERS_OPTION.equals(args[0])) {
+            runWorkers(args[1], args[2]);
+            return;
+        }
+        run(new Implementor(), args, Path.of("."), System.err);
+    }
+
+    /**
+     * Implements classes/interfaces listed in file with {@link WorkerPool}, as {@link #main(String[])} does.
+     *
+     * @param workers       number of worker processes
+     * @param classListFile path to file, that contains binary names of classes/interfaces, one per line
+     */
+    private static void runWorkers(final String workers, final String classListFile) {
+        if (workers == null || classListFile == null) {
+            System.err.println("Error: Arguments must be non-null");
+            return;
+        }
+        final WorkerPool pool;
+        try {
+            pool = new WorkerPool(Integer.parseInt(workers));
+        } catch (final IllegalArgumentException e) {
+            System.err.println("Error: Number of workers must be positive integer: " + workers);
+            return;
+        }
+        try (final Stream<String> classNames = Files.lines(Path.of(classListFile))) {
+            pool.implementAll(classNames.map(String::strip).filter(name -> !name.isEmpty())::iterator, Path.of("."),
+                    result -> {
+                        if (!result.isSuccessful()) {
+                            System.err.println("Error: " + result.getClassName() + ": " + result.getError());
+                        }
+                    });
+        } catch (final InvalidPathException e) {
+            System.err.println("Error: Class list file name is not a valid path: " + e.getMessage());
+        } catch (final IOException e) {
+            System.err.println("Error: Cannot read class list file: " + e.getMessage());
+        } catch (final ImplerException e) {
+            System.err.println("Error: " + e.getMessage());
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Performs implementation requested by command-line arguments, as {@link #main(String[])} does.
+     *
+     * @param implementor      implementor to be used
+     * @param args             command-line arguments, without daemon options
+     * @param workingDirectory directory, against which relative paths are resolved
+     * @param err              stream, to which errors are reported
+     */
+    static void run(final Implementor implementor, final String[] args, final Path workingDirectory,
+                    final PrintStream err) {
         try {
             if (args.length == 3) {
                 if ("-jar".equals(args[0])) {
                     if (args[1] == null) {
-                        System.err.println("Error: Jar file name must be non-null");
+                        err.println("Error: Jar file name must be non-null");
                         return;
                     }
                     if (args[2] == null) {
-                        System.err.println("Error: Class/interface name must be non-null");
+                        err.println("Error: Class/interface name must be non-null");
                         return;
                     }
 
                     final Path jarFile;
                     try {
-                        jarFile = Path.of(args[1]);
+                        jarFile = workingDirectory.resolve(args[1]);
                     } catch (final InvalidPathException e) {
-                        System.err.println("Error: Jar file name is not a valid path: " + e.getMessage());
+                        err.println("Error: Jar file name is not a valid path: " + e.getMessage());
                         return;
                     }
-                    final Class<?> token = ClassLoader.getSystemClassLoader().loadClass(args[2]);
-                    new Implementor().implementJar(token, jarFile);
+                    implementor.implementJar(loadToken(args[2]), jarFile);
                 } else {
-                    System.err.println("Usage: \"Implementor -jar <jar-name> <class/interface name>\" " +
-                            "or \"Implementor <class/interface name>\"");
+                    err.println(USAGE);
                 }
             } else if (args.length == 1) {
                 if (args[0] == null) {
-                    System.err.println("Error: Class/interface name must be non-null");
+                    err.println("Error: Class/interface name must be non-null");
                     return;
                 }
-                final Class<?> token = ClassLoader.getSystemClassLoader().loadClass(args[0]);
-                final Path root = Path.of(".");
-                new Implementor().implement(token, root);
+                implementor.implement(loadToken(args[0]), workingDirectory);
             } else {
-                System.err.println("Usage: \"Implementor -jar <jar-name> <class/interface name>\" " +
-                        "or \"Implementor <class/interface name>\"");
+                err.println(USAGE);
             }
         } catch (final ClassNotFoundException e) {
-            System.err.println("Error: Class not found: " + e.getMessage());
+            err.println("Error: Class not found: " + e.getMessage());
         } catch (final ImplerException e) {
-            System.err.println("Error: Cannot generate class: " + e.getMessage());
+            err.println("Error: Cannot generate class: " + e.getMessage());
         }
     }
 
-
     /**
      * @throws ImplerException if
      *                         <ul>
@@ -92,6 +314,62 @@ public class Implementor implements JarImpler {
      */
     @Override
     public void implement(final Class<?> token, final Path root) throws ImplerException {
+        writeSource(token, root, generateSource(token));
+    }
+
+    /**
+     * Writes generated source code of implementation to corresponding file in {@code root}.
+     *
+     * @param token  class/interface, that was implemented
+     * @param root   root directory
+     * @param source source code of implementation
+     * @throws ImplerException if an I/O error occurs
+     * @see #implement(Class, Path)
+     */
+    static void writeSource(final Class<?> token, final Path root, final String source) throws ImplerException {
+        try {
+            IOUtils.createOutputDirectories(token.getPackageName(), root);
+        } catch (final IOException e) {
+            System.err.println("Error: Cannot create output directory: " + e.getMessage()
+                    + IOUtils.LINE_SEPARATOR + "Trying to open output file.");
+        }
+
+        final Path output = IOUtils.getFilePath(token, root, IOUtils.JAVA_EXTENSION);
+        try {
+            IOUtils.writeAtomically(output, file -> {
+                try (final Writer writer = Files.newBufferedWriter(file)) {
+                    writer.write(source);
+                }
+            });
+        } catch (final IOException e) {
+            throw new ImplerException("Cannot write to output file", e);
+        }
+    }
+
+    /**
+     * Loads class/interface to be implemented by system class loader, without initializing it.
+     * Class-file is checked first with {@link ClassFileReader}, so classes/interfaces,
+     * that cannot be implemented, are rejected without being loaded.
+     *
+     * @param className binary name of class/interface
+     * @return loaded class/interface
+     * @throws ClassNotFoundException if class/interface cannot be found
+     * @throws ImplerException        if class-file shows, that class/interface cannot be extended/implemented
+     */
+    static Class<?> loadToken(final String className) throws ClassNotFoundException, ImplerException {
+        ClassFileReader.getInstance().checkImplementable(className);
+        return Class.forName(className, false, ClassLoader.getSystemClassLoader());
+    }
+
+    /**
+     * Checks that given class/interface can be implemented, and gets its constructor to be called by implementation.
+     *
+     * @param token class/interface to be implemented
+     * @return non-private constructor of {@code token}, or {@code null} if {@code token} is interface
+     * @throws ImplerException if {@code token} class cannot be extended/implemented
+     * @see #implement(Class, Path)
+     */
+    static Constructor<?> getSuperConstructor(final Class<?> token) throws ImplerException {
         final int modifiers = token.getModifiers();
         if (Modifier.isPrivate(modifiers)) {
             throw new ImplerException("Cannot implement private interface or extends private class");
@@ -107,51 +385,194 @@ public class Implementor implements JarImpler {
             throw new ImplerException("Cannot implement non-static inner class");
         }
 
-        final Constructor<?> constructor;
         if (!token.isInterface()) {
-            constructor = Arrays.stream(token.getDeclaredConstructors())
+            return Arrays.stream(token.getDeclaredConstructors())
                     .filter(constr -> !Modifier.isPrivate(constr.getModifiers()))
                     .findAny()
                     .orElseThrow(() -> new ImplerException("Cannot implement class with only private constructors"));
         } else {
-            constructor = null;
+            return null;
         }
+    }
 
-        final List<ImplementationMethodSignature> methodSignatures = MethodUtils.getMethodSignatures(token);
+    /**
+     * Generates source code of implementation of given class/interface.
+     *
+     * @param token class/interface to be implemented
+     * @return source code of implementation
+     * @throws ImplerException if {@code token} class cannot be extended/implemented
+     * @see #implement(Class, Path)
+     */
+    String generateSource(final Class<?> token) throws ImplerException {
+        final Constructor<?> constructor = getSuperConstructor(token);
+        final List<ImplementationMethodSignature> methodSignatures =
+                MethodUtils.getMethodSignatures(new HierarchyIndex(token), analysisCache);
 
-        final String packageName = token.getPackageName();
+        final Writer writer = new StringWriter();
         try {
-            IOUtils.createOutputDirectories(packageName, root);
-        } catch (final IOException e) {
-            System.err.println("Error: Cannot create output directory: " + e.getMessage()
-                    + IOUtils.LINE_SEPARATOR + "Trying to open output file.");
-        }
-
-        final Path output = IOUtils.getFilePath(token, root, IOUtils.JAVA_EXTENSION);
-        try (final Writer writer = Files.newBufferedWriter(output)) {
-            IOUtils.writePackage(writer, packageName);
+            IOUtils.writePackage(writer, token.getPackageName());
             IOUtils.writeClassDeclaration(writer, token);
 
-            if (constructor != null) {
-                IOUtils.writeConstructorImplementation(writer, constructor);
+            if (generationMode == GenerationMode.DELEGATE) {
+                IOUtils.writeDelegateField(writer, token);
+                IOUtils.writeDelegatingConstructorImplementation(writer, token, constructor);
+                methodSignatures.forEach(IOConsumer.makeUnchecked(
+                        method -> IOUtils.writeDelegatingMethodImplementation(writer, method)
+                ));
+            } else if (generationMode == GenerationMode.DISPATCH) {
+                IOUtils.writeDispatchFields(writer, token, methodSignatures);
+                IOUtils.writeDispatchingConstructorImplementation(writer, token, constructor);
+                for (int id = 0; id < methodSignatures.size(); id++) {
+                    IOUtils.writeDispatchingMethodImplementation(writer, methodSignatures.get(id), id);
+                }
+            } else if (generationMode == GenerationMode.COUNTING) {
+                if (hidesInstanceMethod(token, IOUtils.CALL_COUNTS_METHOD)) {
+                    throw new ImplerException("Cannot declare static method " + IOUtils.CALL_COUNTS_METHOD
+                            + ", as it is inherited instance method");
+                }
+                IOUtils.writeCallCounters(writer, methodSignatures);
+                if (constructor != null) {
+                    IOUtils.writeConstructorImplementation(writer, constructor);
+                }
+                for (int id = 0; id < methodSignatures.size(); id++) {
+                    IOUtils.writeCountingMethodImplementation(writer, methodSignatures.get(id), id);
+                }
+            } else {
+                if (constructor != null) {
+                    IOUtils.writeConstructorImplementation(writer, constructor);
+                }
+                methodSignatures.forEach(IOConsumer.makeUnchecked(
+                        method -> IOUtils.writeMethodImplementation(writer, method)
+                ));
             }
-            methodSignatures.forEach(IOConsumer.makeUnchecked(
-                    method -> IOUtils.writeMethodImplementation(writer, method)
-            ));
 
             writer.write("}" + IOUtils.LINE_SEPARATOR);
         } catch (final IOException | UncheckedIOException e) {
-            throw new ImplerException("Cannot write to output file", e);
+            throw new ImplerException("Cannot generate source code", e);
+        }
+        return writer.toString();
+    }
+
+    /**
+     * Checks if static method without parameters with given name, declared in implementation,
+     * would hide instance method inherited from {@code token}.
+     *
+     * @param token class/interface to be implemented
+     * @param name  name of static method
+     * @return {@code true} if and only if {@code token} has non-private instance method without parameters
+     * named {@code name}
+     */
+    private static boolean hidesInstanceMethod(final Class<?> token, final String name) {
+        return Stream.concat(Arrays.stream(token.getMethods()),
+                        Stream.<Class<?>>iterate(token, Objects::nonNull, Class::getSuperclass)
+                                .flatMap(clazz -> Arrays.stream(clazz.getDeclaredMethods())))
+                .anyMatch(method -> method.getName().equals(name) && method.getParameterCount() == 0
+                        && !Modifier.isStatic(method.getModifiers()) && !Modifier.isPrivate(method.getModifiers()));
+    }
+
+    /**
+     * Implements all given classes/interfaces, using one thread per available processor.
+     * Behaviour is identical to call to {@link #implementAll(Collection, Path, int)} with
+     * {@link Runtime#availableProcessors()} as parallelism level.
+     *
+     * @param tokens classes/interfaces to be implemented
+     * @param root   root directory
+     * @return results of implementation, in iteration order of {@code tokens}
+     */
+    public List<ImplementationResult> implementAll(final Collection<Class<?>> tokens, final Path root) {
+        return implementAll(tokens, root, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Implements all given classes/interfaces in parallel.
+     * Each class/interface is implemented as with {@link #implement(Class, Path)} call.
+     * Classes/interfaces are scheduled largest-first, as ordered by {@link SchedulingUtils#getLargestFirstOrder(List)}.
+     * Failure of implementing one class/interface doesn't prevent others from being implemented,
+     * {@link ImplerException} is returned as part of corresponding result instead.
+     * Unexpected exceptions, such as {@link LinkageError} caused by missing dependencies, are reported the same way.
+     *
+     * @param tokens      classes/interfaces to be implemented
+     * @param root        root directory
+     * @param parallelism number of threads used for implementation
+     * @return results of implementation, in iteration order of {@code tokens}
+     * @throws IllegalArgumentException if {@code parallelism} is not positive
+     */
+    public List<ImplementationResult> implementAll(final Collection<Class<?>> tokens, final Path root,
+                                                   final int parallelism) {
+        final ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            final List<Class<?>> tokenList = new ArrayList<>(tokens);
+            final List<ForkJoinTask<ImplementationResult>> tasks = new ArrayList<>(
+                    Collections.nCopies(tokenList.size(), null));
+            for (final int index : SchedulingUtils.getLargestFirstOrder(tokenList)) {
+                tasks.set(index, pool.submit(() -> implementToResult(tokenList.get(index), root)));
+            }
+            return tasks.stream().map(ForkJoinTask::join).toList();
+        } finally {
+            pool.shutdown();
         }
     }
 
     /**
+     * Implements given class/interface, and wraps outcome into {@link ImplementationResult}.
+     *
+     * @param token class/interface to be implemented
+     * @param root  root directory
+     * @return result of implementation
+     * @see #implement(Class, Path)
+     */
+    ImplementationResult implementToResult(final Class<?> token, final Path root) {
+        final long start = System.nanoTime();
+        try {
+            implement(token, root);
+            return ImplementationResult.success(token, IOUtils.getFilePath(token, root, IOUtils.JAVA_EXTENSION),
+                    Duration.ofNanos(System.nanoTime() - start));
+        } catch (final ImplerException e) {
+            return ImplementationResult.failure(token, e, Duration.ofNanos(System.nanoTime() - start));
+        } catch (final RuntimeException | LinkageError e) {
+            return ImplementationResult.failure(token, unexpectedFailure(e),
+                    Duration.ofNanos(System.nanoTime() - start));
+        }
+    }
+
+    /**
+     * Generates class-file of implementation of given class/interface in memory,
+     * and wraps outcome into {@link ImplementationResult}.
+     * Class-file is compiled from source code, or generated directly, as in {@link #implementJar(Class, Path)}.
+     *
+     * @param token class/interface to be implemented
+     * @return result of implementation
+     */
+    ImplementationResult compileToResult(final Class<?> token) {
+        final long start = System.nanoTime();
+        try {
+            final byte[] classFile;
+            if (compilesSources()) {
+                final String className = IOUtils.getImplementationName(token);
+                classFile = CompilerService.getInstance()
+                        .compile(Map.of(className, generateSource(token)), getCompilationClassPath(List.of(token)))
+                        .get(className);
+            } else {
+                classFile = generateClassFile(token);
+            }
+            return ImplementationResult.compiled(token, classFile, Duration.ofNanos(System.nanoTime() - start));
+        } catch (final ImplerException e) {
+            return ImplementationResult.failure(token, e, Duration.ofNanos(System.nanoTime() - start));
+        } catch (final RuntimeException | LinkageError e) {
+            return ImplementationResult.failure(token, unexpectedFailure(e),
+                    Duration.ofNanos(System.nanoTime() - start));
+        }
+    }
+
+    /**
+     * Implementation is compiled in memory with {@link CompilerService}, or generated directly if
+     * {@link JarBackend#BYTECODE} backend is used, so no temporary files are created.
+     * Behaviour is identical to call to {@link #implementJar(Collection, Path)} with single class/interface.
+     *
      * @throws ImplerException if
      *                         <ul>
-     *                         <li>error occurs when trying to create temporary directory</li>
      *                         <li>{@code token} class cannot be extended/implemented with
      *                         {@link #implement(Class, Path)} method</li>
-     *                         <li>an I/O error occurs during implementation</li>
      *                         <li>{@code jdk.compiler} module is not available</li>
      *                         <li>error occurs when compiling generated implementation</li>
      *                         <li>an I/O error occurs during <var>.jar</var> file creation</li>
@@ -159,36 +580,159 @@ public class Implementor implements JarImpler {
      */
     @Override
     public void implementJar(final Class<?> token, final Path jarFile) throws ImplerException {
-        final Path compilationDir = jarFile.getParent().resolve("compiled");
+        implementJar(List.of(token), jarFile);
+    }
+
+    /**
+     * Produces one <var>.jar</var> file, that contains implementations of all given classes/interfaces.
+     * All implementations are compiled in one compilation, if {@link JarBackend#JAVAC} backend is used.
+     * Jar file has one manifest and entries for all directories containing implementations.
+     * Entries are compressed in parallel, unless {@link JarCompression#STORED} is used.
+     *
+     * @param tokens  classes/interfaces to be implemented
+     * @param jarFile target <var>.jar</var> file
+     * @throws ImplerException if
+     *                         <ul>
+     *                         <li>any of {@code tokens} cannot be extended/implemented with
+     *                         {@link #implement(Class, Path)} method</li>
+     *                         <li>{@code jdk.compiler} module is not available</li>
+     *                         <li>error occurs when compiling generated implementations</li>
+     *                         <li>an I/O error occurs during <var>.jar</var> file creation</li>
+     *                         </ul>
+     * @see #implementJar(Class, Path)
+     */
+    public void implementJar(final Collection<Class<?>> tokens, final Path jarFile) throws ImplerException {
+        final Set<Class<?>> distinctTokens = new LinkedHashSet<>(tokens);
+        final Map<String, byte[]> classes = new TreeMap<>();
+        if (!compilesSources()) {
+            for (final Class<?> token : distinctTokens) {
+                try {
+                    classes.put(IOUtils.getImplementationName(token), generateClassFile(token));
+                } catch (final ImplerException e) {
+                    throw wrapException(token, e);
+                }
+            }
+        } else {
+            final CompilerService compiler = CompilerService.getInstance();
+            final String classPath = getCompilationClassPath(distinctTokens);
+            compiler.warmUp(classPath);
+            final Map<String, String> sources = new LinkedHashMap<>();
+            for (final Class<?> token : distinctTokens) {
+                try {
+                    sources.put(IOUtils.getImplementationName(token), generateSource(token));
+                } catch (final ImplerException e) {
+                    throw wrapException(token, e);
+                }
+            }
+            classes.putAll(compiler.compile(sources, classPath));
+        }
+
         try {
-            Files.createDirectory(compilationDir);
-        } catch (final FileAlreadyExistsException ignored) {
+            if (incrementalJar) {
+                JarUtils.updateJar(jarFile, IOUtils.MANIFEST, classes, jarCompression);
+            } else {
+                JarUtils.writeJar(jarFile, IOUtils.MANIFEST, classes, jarCompression);
+            }
         } catch (final IOException e) {
-            throw new ImplerException("Cannot create directory for compilation", e);
+            throw new ImplerException("Cannot write jar file", e);
         }
-        try {
-            implement(token, compilationDir);
-
-            IOUtils.compile(IOUtils.getFilePath(token, compilationDir, IOUtils.JAVA_EXTENSION).toString(),
-                    compilationDir + File.pathSeparator + IOUtils.getClassPath(token));
+    }
 
-            final Path classFilePath = IOUtils.getFilePath(token, compilationDir, IOUtils.CLASS_EXTENSION);
+    /**
+     * Checks if class-files are compiled from generated source code, rather than generated directly.
+     *
+     * @return {@code false} if and only if {@link JarBackend#BYTECODE} is used with
+     * {@link GenerationMode#DEFAULT_VALUES}
+     */
+    boolean compilesSources() {
+        return jarBackend != JarBackend.BYTECODE || generationMode != GenerationMode.DEFAULT_VALUES;
+    }
 
-            try (final JarOutputStream jarOutputStream =
-                         new JarOutputStream(Files.newOutputStream(jarFile), IOUtils.MANIFEST)) {
-                jarOutputStream.putNextEntry(
-                        new ZipEntry(IOUtils.convertToJarPath(compilationDir.relativize(classFilePath))));
-                Files.copy(classFilePath, jarOutputStream);
-            } catch (final IOException e) {
-                throw new ImplerException("Cannot write jar file", e);
-            }
+    /**
+     * Generates class-file of implementation directly, as {@link JarBackend#BYTECODE} backend does.
+     *
+     * @param token class/interface to be implemented
+     * @return content of class-file
+     * @throws ImplerException if {@code token} class cannot be extended/implemented, or its implementation
+     *                         would be rejected by java compiler, see {@link BytecodeUtils#generateImplementation}
+     * @see #compilesSources()
+     */
+    byte[] generateClassFile(final Class<?> token) throws ImplerException {
+        final Constructor<?> constructor = getSuperConstructor(token);
+        final HierarchyIndex index = new HierarchyIndex(token);
+        return BytecodeUtils.generateImplementation(index, IOUtils.getImplementationName(token), constructor,
+                MethodUtils.getMethodSignatures(index, analysisCache));
+    }
 
-        } finally {
-            try {
-                IOUtils.clean(compilationDir);
-            } catch (final IOException e) {
-                System.err.println("Cannot clean compilation directory: " + e.getMessage());
-            }
+    /**
+     * Gets classpath used to compile implementations of given classes/interfaces.
+     *
+     * @param tokens implemented classes/interfaces
+     * @return classpath, that contains all {@code tokens}, and this module if implementations refer to it
+     */
+    String getCompilationClassPath(final Collection<Class<?>> tokens) {
+        final List<Class<?>> classPathTokens = new ArrayList<>(tokens);
+        if (generationMode == GenerationMode.DISPATCH) {
+            // Implementations refer to DispatchHandler
+            classPathTokens.add(Implementor.class);
         }
+        return IOUtils.getClassPath(classPathTokens);
+    }
+
+    /**
+     * Gets way to store class-files in <var>.jar</var> files.
+     *
+     * @return value of {@link #jarCompression}
+     */
+    JarCompression getJarCompression() {
+        return jarCompression;
+    }
+
+    /**
+     * Creates instance of implementation of given class/interface, without writing or compiling source code.
+     * Implementation is generated as with {@link JarBackend#BYTECODE} backend, and is defined as hidden class,
+     * if possible. Implementation is defined once per class/interface, so later calls only call its constructor.
+     * <p>
+     * Methods of instance return default values. If {@code token} is a class, its non-private constructor is
+     * called with default values of its parameter types: {@code null}, {@code 0} or {@code false}.
+     * If {@code token} is a public exported functional interface, instance is created by {@link LambdaMetafactory},
+     * as for lambda expression, so no implementation is generated.
+     *
+     * @param token class/interface to be implemented
+     * @param <T>   type of class/interface
+     * @return new instance of implementation
+     * @throws ImplerException if
+     *                         <ul>
+     *                         <li>{@code token} class cannot be extended/implemented with
+     *                         {@link #implement(Class, Path)} method</li>
+     *                         <li>{@code token} cannot be implemented outside its package,
+     *                         and its package is not open to this module</li>
+     *                         <li>constructor of {@code token} throws an exception</li>
+     *                         </ul>
+     */
+    public static <T> T instantiate(final Class<T> token) throws ImplerException {
+        return RuntimeImplementations.instantiate(token);
+    }
+
+    /**
+     * Adds name of class/interface to message of exception, that occurred when implementing it.
+     *
+     * @param token class/interface, that was implemented
+     * @param e     exception, that occurred
+     * @return exception with the same cause, and message, that includes name of {@code token}
+     */
+    static ImplerException wrapException(final Class<?> token, final ImplerException e) {
+        return new ImplerException("Cannot implement " + token.getName() + ": " + e.getMessage(), e.getCause());
+    }
+
+    /**
+     * Wraps unexpected exception, that occurred when implementing class/interface, such as {@link LinkageError}
+     * caused by missing dependency of class/interface, so that it is reported as failure of this class/interface only.
+     *
+     * @param e exception, that occurred
+     * @return exception caused by {@code e}
+     */
+    static ImplerException unexpectedFailure(final Throwable e) {
+        return new ImplerException("Unexpected error: " + e, e);
     }
 }
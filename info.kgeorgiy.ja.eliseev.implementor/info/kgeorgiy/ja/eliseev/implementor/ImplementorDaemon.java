@@ -0,0 +1,312 @@
+package info.kgeorgiy.ja.eliseev.implementor;
+
+import info.kgeorgiy.ja.eliseev.implementor.utils.CompilerService;
+import info.kgeorgiy.ja.eliseev.implementor.utils.IOUtils;
+import info.kgeorgiy.java.advanced.implementor.ImplerException;
+
+import java.io.*;
+import java.net.ConnectException;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.Channels;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.concurrent.*;
+
+/**
+ * Long-running implementor, that accepts requests over Unix domain socket.
+ * Requests are performed by one {@link Implementor} with warm caches and compiled code, so they don't pay for
+ * JVM startup, class loading and JIT compilation. Requests are performed concurrently.
+ * <p>
+ * Protocol is line-delimited UTF-8 text, one request per connection. Request consists of absolute path of
+ * client's working directory, number of arguments, and the arguments themselves, each on its own line.
+ * Arguments are the same as of {@link Implementor#main(String[])}, and relative paths in them are resolved against
+ * client's working directory. Response consists of error messages, that {@link Implementor#main(String[])} would
+ * print, each on its own line, and ends when daemon closes connection. Empty response means success.
+ * <p>
+ * Classes/interfaces are loaded by daemon's class loader, so they must be on daemon's classpath.
+ * Connections, that don't send whole request in limited time, are closed, so that they don't occupy daemon.
+ * <p>
+ * Where file system supports POSIX permissions, socket is bound in directory accessible to its owner only,
+ * and is moved to socket file after it is made readable and writable by its owner only,
+ * so other users can never connect to it.
+ *
+ * @author Aleksandr Eliseev
+ * @see Implementor#main(String[])
+ */
+public final class ImplementorDaemon {
+    /**
+     * Line separator used by protocol.
+     */
+    private static final String LINE_SEPARATOR = "\n";
+    /**
+     * Maximal number of arguments in request.
+     */
+    private static final int MAX_ARGUMENTS = 16;
+    /**
+     * Time in seconds, in which client must send request.
+     */
+    private static final int REQUEST_TIMEOUT_SECONDS = 10;
+    /**
+     * Name of socket file in private directory, where socket is bound.
+     */
+    private static final String BOUND_SOCKET_NAME = "socket";
+
+    /**
+     * Implementor performing requests.
+     */
+    private final Implementor implementor;
+    /**
+     * Path to socket file, on which daemon listens.
+     */
+    private final Path socketFile;
+
+    /**
+     * Constructor, that assign its arguments to class' fields.
+     *
+     * @param implementor value of {@link #implementor}
+     * @param socketFile  value of {@link #socketFile}
+     */
+    public ImplementorDaemon(final Implementor implementor, final Path socketFile) {
+        this.implementor = implementor;
+        this.socketFile = socketFile;
+    }
+
+    /**
+     * Listens on socket file and performs requests, until current thread is interrupted.
+     * Socket file left by stopped daemon is replaced, and socket file is deleted on exit.
+     *
+     * @throws IOException if socket file is used by running daemon, or an I/O error occurs
+     */
+    public void serve() throws IOException {
+        final UnixDomainSocketAddress address = UnixDomainSocketAddress.of(socketFile);
+        removeStaleSocket(address);
+        try {
+            // Starts compiler warm-up in background
+            CompilerService.getInstance();
+        } catch (final ImplerException ignored) {
+            // Requests will report that compiler is not available
+        }
+
+        final Path directory = createPrivateDirectory();
+        final Path boundFile = directory.resolve(BOUND_SOCKET_NAME);
+        final ExecutorService workers = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+        final ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor();
+        final Thread cleanup = new Thread(() -> IOUtils.deleteQuietly(socketFile));
+        try (final ServerSocketChannel server = ServerSocketChannel.open(StandardProtocolFamily.UNIX)) {
+            server.bind(UnixDomainSocketAddress.of(boundFile));
+            restrictPermissions(boundFile);
+            Runtime.getRuntime().addShutdownHook(cleanup);
+            Files.move(boundFile, socketFile, StandardCopyOption.ATOMIC_MOVE);
+            IOUtils.deleteQuietly(directory);
+            while (!Thread.currentThread().isInterrupted()) {
+                final SocketChannel channel = server.accept();
+                workers.execute(() -> handle(channel, timer));
+            }
+        } finally {
+            workers.shutdownNow();
+            timer.shutdownNow();
+            IOUtils.deleteQuietly(boundFile);
+            IOUtils.deleteQuietly(directory);
+            IOUtils.deleteQuietly(socketFile);
+            try {
+                Runtime.getRuntime().removeShutdownHook(cleanup);
+            } catch (final IllegalStateException ignored) {
+                // JVM is already shutting down
+            }
+        }
+    }
+
+    /**
+     * Sends request to daemon, and waits for response.
+     *
+     * @param socketFile path to socket file, on which daemon listens
+     * @param args       command-line arguments, as of {@link Implementor#main(String[])}
+     * @return error messages, empty if request succeeded
+     * @throws IOException              if daemon is not running, or an I/O error occurs
+     * @throws IllegalArgumentException if an argument is {@code null} or contains line separators
+     */
+    public static List<String> send(final Path socketFile, final List<String> args) throws IOException {
+        for (final String arg : args) {
+            if (arg == null || arg.indexOf('\n') >= 0 || arg.indexOf('\r') >= 0) {
+                throw new IllegalArgumentException("Arguments must be non-null and must not contain line separators");
+            }
+        }
+        try (final SocketChannel channel = SocketChannel.open(UnixDomainSocketAddress.of(socketFile));
+             final BufferedReader reader = newReader(channel);
+             final Writer writer = new BufferedWriter(
+                     new OutputStreamWriter(Channels.newOutputStream(channel), StandardCharsets.UTF_8))) {
+            writer.write(Path.of("").toAbsolutePath() + LINE_SEPARATOR);
+            writer.write(args.size() + LINE_SEPARATOR);
+            for (final String arg : args) {
+                writer.write(arg + LINE_SEPARATOR);
+            }
+            writer.flush();
+            return reader.lines().toList();
+        } catch (final UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Reads request from connection, performs it and writes response.
+     * Connection is closed by {@code timer}, if request is not read in time.
+     *
+     * @param channel connection with client
+     * @param timer   executor closing connections, that send requests too slowly
+     */
+    private void handle(final SocketChannel channel, final ScheduledExecutorService timer) {
+        // Reads from Unix domain sockets cannot time out, so slow connection is closed instead
+        final Future<?> timeout = timer.schedule(() -> closeQuietly(channel),
+                REQUEST_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        try (channel;
+             final BufferedReader reader = newReader(channel);
+             final PrintStream err = new PrintStream(Channels.newOutputStream(channel), true, StandardCharsets.UTF_8)) {
+            final String directory = reader.readLine();
+            if (directory == null) {
+                // Connection without request, such as check if daemon is running
+                return;
+            }
+            final Path workingDirectory;
+            final String[] args;
+            try {
+                workingDirectory = Path.of(directory);
+                final int count = Integer.parseInt(readLine(reader));
+                if (!workingDirectory.isAbsolute() || count < 0 || count > MAX_ARGUMENTS) {
+                    err.println("Error: Malformed request");
+                    return;
+                }
+                args = new String[count];
+                for (int i = 0; i < count; i++) {
+                    args[i] = readLine(reader);
+                }
+            } catch (final InvalidPathException | NumberFormatException e) {
+                err.println("Error: Malformed request: " + e.getMessage());
+                return;
+            }
+            if (!timeout.cancel(false)) {
+                // Connection is already closed
+                return;
+            }
+            try {
+                Implementor.run(implementor, args, workingDirectory, err);
+            } catch (final RuntimeException | LinkageError e) {
+                err.println("Error: Unexpected error: " + e);
+                System.err.println("Error: Unexpected error while processing request " + Arrays.toString(args)
+                        + ": " + e);
+            }
+        } catch (final ClosedChannelException e) {
+            System.err.println("Error: Request is not received in " + REQUEST_TIMEOUT_SECONDS + " seconds");
+        } catch (final IOException e) {
+            System.err.println("Error: Cannot process request: " + e.getMessage());
+        } finally {
+            timeout.cancel(false);
+        }
+    }
+
+    /**
+     * Deletes socket file left by stopped daemon.
+     *
+     * @param address address of socket file
+     * @throws IOException if socket file is used by running daemon, is not a socket, or cannot be deleted
+     */
+    private static void removeStaleSocket(final UnixDomainSocketAddress address) throws IOException {
+        if (Files.exists(address.getPath())) {
+            if (!Files.readAttributes(address.getPath(), BasicFileAttributes.class).isOther()) {
+                throw new IOException("Not a socket file: " + address.getPath());
+            }
+            try {
+                SocketChannel.open(address).close();
+            } catch (final ConnectException e) {
+                Files.delete(address.getPath());
+                return;
+            }
+            throw new IOException("Daemon is already listening on " + address.getPath());
+        }
+    }
+
+    /**
+     * Creates directory accessible to its owner only, where socket is bound.
+     * Directory is created next to socket file, so that bound socket can be moved to it atomically.
+     *
+     * @return path to created directory
+     * @throws IOException if directory cannot be created
+     */
+    private Path createPrivateDirectory() throws IOException {
+        final Path parent = socketFile.toAbsolutePath().getParent();
+        try {
+            return Files.createTempDirectory(parent, null, PosixFilePermissions.asFileAttribute(
+                    EnumSet.of(PosixFilePermission.OWNER_READ, PosixFilePermission.OWNER_WRITE,
+                            PosixFilePermission.OWNER_EXECUTE)));
+        } catch (final UnsupportedOperationException e) {
+            // File system is not POSIX-compliant
+            return Files.createTempDirectory(parent, null);
+        }
+    }
+
+    /**
+     * Makes socket file accessible to its owner only, if file system supports POSIX permissions.
+     *
+     * @param file socket file
+     * @throws IOException if an I/O error occurs
+     */
+    private static void restrictPermissions(final Path file) throws IOException {
+        try {
+            Files.setPosixFilePermissions(file,
+                    EnumSet.of(PosixFilePermission.OWNER_READ, PosixFilePermission.OWNER_WRITE));
+        } catch (final UnsupportedOperationException ignored) {
+            // File system is not POSIX-compliant
+        }
+    }
+
+    /**
+     * Closes connection, ignoring errors.
+     *
+     * @param channel connection
+     */
+    private static void closeQuietly(final SocketChannel channel) {
+        try {
+            channel.close();
+        } catch (final IOException ignored) {
+            // Connection is not used anymore
+        }
+    }
+
+    /**
+     * Creates reader of UTF-8 text from connection.
+     *
+     * @param channel connection
+     * @return buffered reader
+     */
+    private static BufferedReader newReader(final SocketChannel channel) {
+        return new BufferedReader(new InputStreamReader(Channels.newInputStream(channel), StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Reads line of request.
+     *
+     * @param reader reader of request
+     * @return line read, without line separator
+     * @throws EOFException if request ends unexpectedly
+     * @throws IOException  if an I/O error occurs
+     */
+    private static String readLine(final BufferedReader reader) throws IOException {
+        final String line = reader.readLine();
+        if (line == null) {
+            throw new EOFException("Request ends unexpectedly");
+        }
+        return line;
+    }
+}
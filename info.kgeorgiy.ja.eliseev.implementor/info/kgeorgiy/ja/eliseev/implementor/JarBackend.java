@@ -0,0 +1,21 @@
+package info.kgeorgiy.ja.eliseev.implementor;
+
+/**
+ * Ways to produce class-files packed by {@link Implementor#implementJar(Class, java.nio.file.Path)}.
+ *
+ * @author Aleksandr Eliseev
+ * @see Implementor#withJarBackend(JarBackend)
+ */
+public enum JarBackend {
+    /**
+     * Source code is generated and compiled by java compiler.
+     * Compiler verifies generated code, so error in it is reported as
+     * {@link info.kgeorgiy.java.advanced.implementor.ImplerException}.
+     */
+    JAVAC,
+    /**
+     * Class-files are generated directly from analyzed method signatures, without java compiler.
+     * It is much faster than {@link #JAVAC}, but errors are reported only when generated class is loaded.
+     */
+    BYTECODE
+}
@@ -0,0 +1,18 @@
+package info.kgeorgiy.ja.eliseev.implementor;
+
+/**
+ * Ways to store class-files in <var>.jar</var> files produced by {@link Implementor}.
+ *
+ * @author Aleksandr Eliseev
+ * @see Implementor#withJarCompression(JarCompression)
+ */
+public enum JarCompression {
+    /**
+     * Entries are compressed with default deflate level. Entries are compressed in parallel.
+     */
+    DEFLATED,
+    /**
+     * Entries are stored without compression, so <var>.jar</var> file is larger, but written faster.
+     */
+    STORED
+}
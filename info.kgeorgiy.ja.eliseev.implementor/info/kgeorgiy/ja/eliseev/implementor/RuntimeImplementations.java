@@ -0,0 +1,341 @@
+package info.kgeorgiy.ja.eliseev.implementor;
+
+import info.kgeorgiy.ja.eliseev.implementor.utils.BytecodeUtils;
+import info.kgeorgiy.ja.eliseev.implementor.utils.HierarchyIndex;
+import info.kgeorgiy.ja.eliseev.implementor.utils.IOUtils;
+import info.kgeorgiy.ja.eliseev.implementor.utils.MethodUtils;
+import info.kgeorgiy.java.advanced.implementor.ImplerException;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaConversionException;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Array;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Modifier;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Implementations of classes/interfaces, that are generated directly as class-files and defined at runtime,
+ * without writing or compiling source code. Implementations are defined as hidden classes for
+ * {@link Implementor#instantiate(Class)}, or as ordinary classes by {@link ImplementingClassLoader}.
+ * Both ways check the same way, whether class/interface can be implemented outside its package.
+ *
+ * @author Aleksandr Eliseev
+ */
+final class RuntimeImplementations {
+    /**
+     * Runtime implementations, defined on first {@link #instantiate(Class)} call for each class/interface.
+     */
+    private static final ClassValue<HiddenImplementation> HIDDEN_IMPLEMENTATIONS = new ClassValue<>() {
+        @Override
+        protected HiddenImplementation computeValue(final Class<?> type) {
+            return HiddenImplementation.define(type);
+        }
+    };
+
+    /**
+     * Private constructor to ensure no instances of utility class would be created.
+     */
+    private RuntimeImplementations() {
+    }
+
+    /**
+     * Creates instance of implementation of given class/interface, defining implementation on first call
+     * for each class/interface, as described in {@link Implementor#instantiate(Class)}.
+     *
+     * @param token class/interface to be implemented
+     * @param <T>   type of class/interface
+     * @return new instance of implementation
+     * @throws ImplerException if implementation cannot be defined, or its constructor throws an exception
+     */
+    static <T> T instantiate(final Class<T> token) throws ImplerException {
+        return token.cast(HIDDEN_IMPLEMENTATIONS.get(token).newInstance());
+    }
+
+    /**
+     * Generates class-file of implementation of given class/interface, that is defined outside package of it,
+     * possibly by another class loader.
+     *
+     * @param token     class/interface to be implemented
+     * @param className binary name of generated class
+     * @return content of class-file
+     * @throws ImplerException if {@code token} class cannot be extended/implemented with
+     *                         {@link Implementor#implement(Class, java.nio.file.Path)} method,
+     *                         or cannot be implemented outside its package
+     * @see ImplementingClassLoader
+     */
+    static byte[] generateExternalImplementation(final Class<?> token, final String className)
+            throws ImplerException {
+        final Constructor<?> constructor = Implementor.getSuperConstructor(token);
+        final HierarchyIndex index = new HierarchyIndex(token);
+        final List<ImplementationMethodSignature> signatures = MethodUtils.getMethodSignatures(index);
+        if (!isImplementableOutsidePackage(token, constructor, signatures, null)) {
+            throw new ImplerException("Cannot implement outside of package " + token.getPackageName()
+                    + ": class/interface or some of its members are package-private");
+        }
+        return BytecodeUtils.generateImplementation(index, className, constructor, signatures);
+    }
+
+    /**
+     * Checks if class/interface can be implemented outside its package:
+     * it is public and exported, and its constructor and all implemented methods are public or protected.
+     *
+     * @param token       class/interface to be implemented
+     * @param constructor constructor of {@code token} to be called, or {@code null} if {@code token} is interface
+     * @param signatures  signatures of implemented methods
+     * @param module      module, that implementation is defined in, or {@code null} for unnamed modules
+     * @return {@code true} if and only if {@code token} can be implemented outside its package
+     */
+    private static boolean isImplementableOutsidePackage(final Class<?> token, final Constructor<?> constructor,
+                                                         final List<ImplementationMethodSignature> signatures,
+                                                         final Module module) {
+        final Module tokenModule = token.getModule();
+        return Modifier.isPublic(token.getModifiers())
+                && (module == null ? tokenModule.isExported(token.getPackageName())
+                : tokenModule.isExported(token.getPackageName(), module))
+                && (constructor == null || isInheritable(constructor.getModifiers()))
+                && signatures.stream().flatMap(signature -> signature.getEquivalentMethods().stream())
+                .allMatch(method -> isInheritable(method.getModifiers()));
+    }
+
+    /**
+     * Checks if member with given modifiers can be accessed from subclass in another package.
+     *
+     * @param modifiers modifiers of member
+     * @return {@code true} if and only if member is public or protected
+     */
+    private static boolean isInheritable(final int modifiers) {
+        return Modifier.isPublic(modifiers) || Modifier.isProtected(modifiers);
+    }
+
+    /**
+     * Implementation of class/interface defined at runtime, or reason why it cannot be defined.
+     *
+     * @author Aleksandr Eliseev
+     * @see #instantiate(Class)
+     */
+    private static final class HiddenImplementation {
+        /**
+         * Number of implementations defined as ordinary classes, used to make their names unique.
+         */
+        private static final AtomicInteger DEFINED_CLASSES = new AtomicInteger();
+        /**
+         * Maximal number of parameters of functional interface's method, which instances are
+         * created by {@link LambdaMetafactory}, see {@link #returnValue(Object)}.
+         */
+        private static final int MAX_LAMBDA_PARAMETERS = 4;
+        /**
+         * Calls implementation's constructor with default arguments, {@code null} if implementation is not defined.
+         */
+        private final MethodHandle factory;
+        /**
+         * Reason why implementation is not defined, {@code null} if it is defined.
+         */
+        private final ImplerException failure;
+
+        /**
+         * Constructor, that assign its arguments to class' fields.
+         *
+         * @param factory value of {@link #factory}
+         * @param failure value of {@link #failure}
+         */
+        private HiddenImplementation(final MethodHandle factory, final ImplerException failure) {
+            this.factory = factory;
+            this.failure = failure;
+        }
+
+        /**
+         * Generates implementation of given class/interface and defines it.
+         * Implementation is defined as hidden class in the package of {@link Implementor}, if {@code token} can be
+         * implemented outside its package: it is public and exported, and its constructor and all implemented
+         * methods are public or protected. Otherwise, implementation is defined in the package of {@code token},
+         * if it is open to this module. As hidden classes can be defined only with full privilege access,
+         * which is not available in other modules, implementation is defined as ordinary class with unique name then.
+         *
+         * @param token class/interface to be implemented
+         * @return defined implementation, or failure
+         */
+        private static HiddenImplementation define(final Class<?> token) {
+            try {
+                final Constructor<?> constructor = Implementor.getSuperConstructor(token);
+                final HierarchyIndex index = new HierarchyIndex(token);
+                final List<ImplementationMethodSignature> signatures = MethodUtils.getMethodSignatures(index);
+
+                final Module module = Implementor.class.getModule();
+                // Module of token may be not read yet
+                module.addReads(token.getModule());
+                if (token.isInterface() && signatures.size() == 1
+                        && isImplementableOutsidePackage(token, null, signatures, module)) {
+                    final MethodHandle factory = defineLambda(token, signatures.get(0));
+                    if (factory != null) {
+                        return new HiddenImplementation(factory, null);
+                    }
+                }
+                final String simpleName = token.getSimpleName() + IOUtils.CLASS_NAME_SUFFIX;
+                final MethodHandles.Lookup lookup;
+                if (isImplementableOutsidePackage(token, constructor, signatures, module)) {
+                    lookup = MethodHandles.lookup().defineHiddenClass(BytecodeUtils.generateImplementation(index,
+                            Implementor.class.getPackageName() + "." + simpleName, constructor, signatures), true);
+                } else {
+                    final MethodHandles.Lookup host = MethodHandles.privateLookupIn(token, MethodHandles.lookup());
+                    final String className = IOUtils.getImplementationName(token);
+                    if (host.hasFullPrivilegeAccess()) {
+                        lookup = host.defineHiddenClass(BytecodeUtils.generateImplementation(index, className,
+                                constructor, signatures), true);
+                    } else {
+                        lookup = MethodHandles.privateLookupIn(host.defineClass(BytecodeUtils.generateImplementation(
+                                index, className + "$" + DEFINED_CLASSES.incrementAndGet(), constructor, signatures)),
+                                MethodHandles.lookup());
+                    }
+                }
+
+                final Class<?>[] parameterTypes = constructor == null ? new Class<?>[0]
+                        : constructor.getParameterTypes();
+                final Object[] arguments = Arrays.stream(parameterTypes)
+                        .map(type -> type.isPrimitive() ? Array.get(Array.newInstance(type, 1), 0) : null)
+                        .toArray();
+                final MethodHandle factory = lookup.findConstructor(lookup.lookupClass(),
+                        MethodType.methodType(void.class, parameterTypes));
+                return new HiddenImplementation(MethodHandles.insertArguments(factory, 0, arguments), null);
+            } catch (final ImplerException e) {
+                return new HiddenImplementation(null, Implementor.wrapException(token, e));
+            } catch (final IllegalAccessException | NoSuchMethodException | LinkageError e) {
+                return new HiddenImplementation(null,
+                        new ImplerException("Cannot define implementation of " + token.getName(), e));
+            }
+        }
+
+        /**
+         * Links lambda expression, that implements functional interface and returns default value.
+         * Lambda's target is {@link #returnValue(Object)} or its overload, that returns captured value,
+         * which is default value of method's return type. Bridges are generated for all erasures of methods,
+         * that the only implemented method overrides, as compiler does for lambda expressions.
+         *
+         * @param token     functional interface to be implemented
+         * @param signature signature of the only method to be implemented
+         * @return factory of lambda instances, or {@code null} if method has too many parameters
+         *         or lambda cannot be linked
+         * @throws IllegalAccessException if target method is not accessible
+         * @throws NoSuchMethodException  if target method is not found
+         */
+        private static MethodHandle defineLambda(final Class<?> token, final ImplementationMethodSignature signature)
+                throws IllegalAccessException, NoSuchMethodException {
+            final MethodType methodType = MethodType.methodType(
+                    signature.getErasedReturnType(), signature.getErasedParameterTypes());
+            if (methodType.parameterCount() > MAX_LAMBDA_PARAMETERS) {
+                return null;
+            }
+            final MethodType[] bridges = signature.getEquivalentMethods().stream()
+                    .map(method -> MethodType.methodType(method.getReturnType(), method.getParameterTypes()))
+                    .filter(bridge -> !bridge.equals(methodType))
+                    .distinct()
+                    .toArray(MethodType[]::new);
+            final Object[] metafactoryArguments = new Object[5 + bridges.length];
+            metafactoryArguments[0] = methodType;
+            metafactoryArguments[1] = MethodHandles.lookup().findStatic(HiddenImplementation.class, "returnValue",
+                    MethodType.genericMethodType(methodType.parameterCount() + 1));
+            metafactoryArguments[2] = methodType;
+            metafactoryArguments[3] = LambdaMetafactory.FLAG_BRIDGES;
+            metafactoryArguments[4] = bridges.length;
+            System.arraycopy(bridges, 0, metafactoryArguments, 5, bridges.length);
+
+            final Class<?> returnType = methodType.returnType();
+            final Object value = returnType.isPrimitive() && returnType != void.class
+                    ? Array.get(Array.newInstance(returnType, 1), 0) : null;
+            try {
+                final CallSite callSite = LambdaMetafactory.altMetafactory(MethodHandles.lookup(),
+                        signature.getName(), MethodType.methodType(token, Object.class), metafactoryArguments);
+                return MethodHandles.insertArguments(callSite.getTarget(), 0, value);
+            } catch (final LambdaConversionException e) {
+                // Implementation is generated instead
+                return null;
+            }
+        }
+
+        /**
+         * Target of lambda expressions implementing methods without parameters.
+         *
+         * @param value captured value to be returned
+         * @return {@code value}
+         */
+        private static Object returnValue(final Object value) {
+            return value;
+        }
+
+        /**
+         * Target of lambda expressions implementing methods with one parameter.
+         *
+         * @param value captured value to be returned
+         * @param arg0  ignored argument
+         * @return {@code value}
+         */
+        private static Object returnValue(final Object value, final Object arg0) {
+            return value;
+        }
+
+        /**
+         * Target of lambda expressions implementing methods with two parameters.
+         *
+         * @param value captured value to be returned
+         * @param arg0  ignored argument
+         * @param arg1  ignored argument
+         * @return {@code value}
+         */
+        private static Object returnValue(final Object value, final Object arg0, final Object arg1) {
+            return value;
+        }
+
+        /**
+         * Target of lambda expressions implementing methods with three parameters.
+         *
+         * @param value captured value to be returned
+         * @param arg0  ignored argument
+         * @param arg1  ignored argument
+         * @param arg2  ignored argument
+         * @return {@code value}
+         */
+        private static Object returnValue(final Object value, final Object arg0, final Object arg1,
+                                          final Object arg2) {
+            return value;
+        }
+
+        /**
+         * Target of lambda expressions implementing methods with four parameters.
+         *
+         * @param value captured value to be returned
+         * @param arg0  ignored argument
+         * @param arg1  ignored argument
+         * @param arg2  ignored argument
+         * @param arg3  ignored argument
+         * @return {@code value}
+         */
+        private static Object returnValue(final Object value, final Object arg0, final Object arg1,
+                                          final Object arg2, final Object arg3) {
+            return value;
+        }
+
+        /**
+         * Creates new instance of implementation.
+         *
+         * @return new instance
+         * @throws ImplerException if implementation is not defined, or constructor throws an exception
+         */
+        private Object newInstance() throws ImplerException {
+            if (failure != null) {
+                throw new ImplerException(failure.getMessage(), failure);
+            }
+            try {
+                return factory.invoke();
+            } catch (final Error e) {
+                throw e;
+            } catch (final Throwable e) {
+                throw new ImplerException("Constructor threw exception", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,469 @@
+package info.kgeorgiy.ja.eliseev.implementor;
+
+import info.kgeorgiy.java.advanced.implementor.ImplerException;
+
+import java.io.*;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.function.Consumer;
+
+/**
+ * Supervisor, that implements classes/interfaces in pool of child JVMs.
+ * Every loaded class/interface and every analyzed hierarchy stays in metaspace of JVM, that implemented it,
+ * so long sweeps over large classpaths slow down one JVM. Instead, each worker process is recycled, that is,
+ * replaced by fresh one, after it implemented given number of classes/interfaces or its metaspace usage exceeded
+ * given limit, so throughput doesn't degrade over time.
+ * <p>
+ * Classes/interfaces are passed to workers by name, and are never loaded by supervisor. Workers are started with
+ * the same Java runtime, module path and classpath as supervisor, and implement classes/interfaces as
+ * {@link Implementor#implement(Class, Path)} does. Results are passed back to supervisor as soon as each of them
+ * is ready. Failure of worker process fails only the class/interface it was implementing, and worker is replaced.
+ * <p>
+ * Worker reads binary names of classes/interfaces from standard input, one per line, and writes results to
+ * standard output in binary form, see {@link #main(String[])}.
+ *
+ * @author Aleksandr Eliseev
+ * @see Implementor#implementAll(java.util.Collection, Path)
+ */
+public final class WorkerPool {
+    /**
+     * Default number of classes/interfaces implemented by one worker process.
+     */
+    private static final int DEFAULT_MAX_TOKENS = 10_000;
+    /**
+     * Default metaspace usage in bytes, after which worker process is recycled.
+     */
+    private static final long DEFAULT_MAX_METASPACE = 256L << 20;
+    /**
+     * Name of memory pool of class metadata.
+     */
+    private static final String METASPACE_POOL = "Metaspace";
+    /**
+     * Time to wait for worker process to exit, after its input is closed.
+     */
+    private static final long EXIT_TIMEOUT_MILLIS = 5_000;
+
+    /**
+     * Number of worker processes running at once.
+     */
+    private final int workers;
+    /**
+     * Number of classes/interfaces, after which worker process is recycled.
+     */
+    private final int maxTokens;
+    /**
+     * Metaspace usage in bytes, after which worker process is recycled.
+     */
+    private final long maxMetaspace;
+
+    /**
+     * Creates pool with given number of worker processes, and default recycling limits.
+     *
+     * @param workers number of worker processes running at once
+     * @throws IllegalArgumentException if {@code workers} is not positive
+     */
+    public WorkerPool(final int workers) {
+        this(workers, DEFAULT_MAX_TOKENS, DEFAULT_MAX_METASPACE);
+    }
+
+    /**
+     * Creates pool with given number of worker processes and recycling limits.
+     *
+     * @param workers      number of worker processes running at once
+     * @param maxTokens    number of classes/interfaces, after which worker process is recycled
+     * @param maxMetaspace metaspace usage in bytes, after which worker process is recycled
+     * @throws IllegalArgumentException if any of arguments is not positive
+     */
+    public WorkerPool(final int workers, final int maxTokens, final long maxMetaspace) {
+        if (workers <= 0 || maxTokens <= 0 || maxMetaspace <= 0) {
+            throw new IllegalArgumentException("Number of workers and recycling limits must be positive");
+        }
+        this.workers = workers;
+        this.maxTokens = maxTokens;
+        this.maxMetaspace = maxMetaspace;
+    }
+
+    /**
+     * Implements all given classes/interfaces in worker processes, writing source code of implementations
+     * to {@code root}. Results are passed to {@code consumer} in order of completion, one at a time.
+     *
+     * @param classNames binary names of classes/interfaces to be implemented
+     * @param root       root directory
+     * @param consumer   consumer of results, called once per element of {@code classNames}
+     * @throws ImplerException      if worker process cannot be started
+     * @throws InterruptedException if current thread is interrupted while waiting for workers
+     */
+    public void implementAll(final Iterable<String> classNames, final Path root,
+                             final Consumer<? super Result> consumer) throws ImplerException, InterruptedException {
+        final Iterator<String> iterator = classNames.iterator();
+        final ExecutorService supervisors = Executors.newFixedThreadPool(workers);
+        try {
+            final List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < workers; i++) {
+                futures.add(supervisors.submit(() -> {
+                    supervise(iterator, root.toAbsolutePath(), result -> {
+                        synchronized (consumer) {
+                            consumer.accept(result);
+                        }
+                    });
+                    return null;
+                }));
+            }
+            for (final Future<?> future : futures) {
+                try {
+                    future.get();
+                } catch (final ExecutionException e) {
+                    if (e.getCause() instanceof final ImplerException cause) {
+                        throw cause;
+                    }
+                    throw new ImplerException("Worker supervisor failed", e.getCause());
+                }
+            }
+        } finally {
+            supervisors.shutdownNow();
+        }
+    }
+
+    /**
+     * Implements classes/interfaces from shared iterator in one worker process at a time,
+     * recycling worker process when it reaches limits.
+     *
+     * @param classNames shared iterator of binary names of classes/interfaces
+     * @param root       absolute path of root directory
+     * @param consumer   consumer of results
+     * @throws ImplerException      if worker process cannot be started
+     * @throws InterruptedException if current thread is interrupted
+     */
+    private void supervise(final Iterator<String> classNames, final Path root, final Consumer<Result> consumer)
+            throws ImplerException, InterruptedException {
+        Worker worker = null;
+        try {
+            while (true) {
+                if (Thread.currentThread().isInterrupted()) {
+                    throw new InterruptedException();
+                }
+                final String className;
+                synchronized (classNames) {
+                    if (!classNames.hasNext()) {
+                        return;
+                    }
+                    className = classNames.next();
+                }
+                if (worker == null) {
+                    worker = new Worker(root);
+                }
+                try {
+                    consumer.accept(worker.implement(className));
+                } catch (final IOException e) {
+                    consumer.accept(new Result(className, null,
+                            "Worker process failed: " + e.getMessage(), Duration.ZERO));
+                    worker.destroy();
+                    worker = null;
+                    continue;
+                }
+                if (worker.tokens >= maxTokens || worker.metaspace >= maxMetaspace) {
+                    worker.close();
+                    worker = null;
+                }
+            }
+        } finally {
+            if (worker != null) {
+                if (Thread.currentThread().isInterrupted()) {
+                    worker.destroy();
+                } else {
+                    worker.close();
+                }
+            }
+        }
+    }
+
+    /**
+     * Runs worker process. Worker implements classes/interfaces, which binary names are read from standard input,
+     * one per line, until end of input. For each class/interface result is written to standard output, as
+     * success flag, duration in nanoseconds, path to generated file or error message, and metaspace usage in
+     * bytes, as written by {@link DataOutputStream}. Anything else printed to standard output is redirected to
+     * standard error.
+     * Usage: java info.kgeorgiy.ja.eliseev.implementor.WorkerPool &lt;root directory&gt;
+     *
+     * @param args command-line arguments
+     */
+    public static void main(final String[] args) {
+        if (args == null || args.length != 1 || args[0] == null) {
+            System.err.println("Usage: \"WorkerPool <root directory>\"");
+            return;
+        }
+        final PrintStream stdout = System.out;
+        System.setOut(System.err);
+        final Path root = Path.of(args[0]);
+        final Implementor implementor = new Implementor();
+        final MemoryPoolMXBean metaspace = ManagementFactory.getMemoryPoolMXBeans().stream()
+                .filter(pool -> METASPACE_POOL.equals(pool.getName()))
+                .findAny().orElse(null);
+        try (final BufferedReader in = new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8));
+             final DataOutputStream out = new DataOutputStream(new BufferedOutputStream(stdout))) {
+            for (String className = in.readLine(); className != null; className = in.readLine()) {
+                final long start = System.nanoTime();
+                String output = null;
+                String error = null;
+                try {
+                    final Class<?> token = Implementor.loadToken(className);
+                    output = implementor.implementToResult(token, root).getOutput().toString();
+                } catch (final ClassNotFoundException e) {
+                    error = "Class not found: " + e.getMessage();
+                } catch (final ImplerException e) {
+                    error = "Cannot generate class: " + e.getMessage();
+                } catch (final LinkageError e) {
+                    error = "Cannot load class: " + e;
+                }
+                out.writeBoolean(error == null);
+                out.writeLong(System.nanoTime() - start);
+                writeString(out, error == null ? output : error);
+                out.writeLong(metaspace == null ? 0 : metaspace.getUsage().getUsed());
+                out.flush();
+            }
+        } catch (final IOException e) {
+            System.err.println("Error: Cannot communicate with supervisor: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Writes string of arbitrary length.
+     *
+     * @param out    output
+     * @param string string to be written
+     * @throws IOException if an I/O error occurs
+     */
+    private static void writeString(final DataOutputStream out, final String string) throws IOException {
+        final byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    /**
+     * Reads string written by {@link #writeString(DataOutputStream, String)}.
+     *
+     * @param in input
+     * @return string read
+     * @throws IOException if an I/O error occurs, or input ends
+     */
+    private static String readString(final DataInputStream in) throws IOException {
+        final byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Gets command, that starts worker process.
+     *
+     * @param root absolute path of root directory
+     * @return command with arguments
+     */
+    private static List<String> getWorkerCommand(final Path root) {
+        final List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        final String modulePath = System.getProperty("jdk.module.path");
+        if (modulePath != null && !modulePath.isEmpty()) {
+            command.add("--module-path");
+            command.add(modulePath);
+        }
+        final String classPath = System.getProperty("java.class.path");
+        if (classPath != null && !classPath.isEmpty()) {
+            command.add("--class-path");
+            command.add(classPath);
+        }
+        final Module module = WorkerPool.class.getModule();
+        if (module.isNamed()) {
+            command.add("--module");
+            command.add(module.getName() + "/" + WorkerPool.class.getName());
+        } else {
+            command.add(WorkerPool.class.getName());
+        }
+        command.add(root.toString());
+        return command;
+    }
+
+    /**
+     * Outcome of implementing one class/interface in worker process.
+     *
+     * @author Aleksandr Eliseev
+     */
+    public static final class Result {
+        /**
+         * Binary name of class/interface, that was implemented.
+         */
+        private final String className;
+        /**
+         * Path to generated file, {@code null} if implementation failed.
+         */
+        private final Path output;
+        /**
+         * Message of error occurred during implementation, {@code null} if implementation succeeded.
+         */
+        private final String error;
+        /**
+         * Time spent on implementation in worker process.
+         */
+        private final Duration duration;
+
+        /**
+         * Constructor, that assign its arguments to class' fields.
+         *
+         * @param className value of {@link #className}
+         * @param output    value of {@link #output}
+         * @param error     value of {@link #error}
+         * @param duration  value of {@link #duration}
+         */
+        private Result(final String className, final Path output, final String error, final Duration duration) {
+            this.className = className;
+            this.output = output;
+            this.error = error;
+            this.duration = duration;
+        }
+
+        /**
+         * Gets {@link #className}.
+         *
+         * @return binary name of class/interface, that was implemented
+         */
+        public String getClassName() {
+            return className;
+        }
+
+        /**
+         * Checks if implementation succeeded.
+         *
+         * @return {@code true} if and only if implementation succeeded
+         */
+        public boolean isSuccessful() {
+            return error == null;
+        }
+
+        /**
+         * Gets path to generated file.
+         *
+         * @return path to generated file
+         * @throws ImplerException with error message from worker process, if implementation failed
+         */
+        public Path getOutput() throws ImplerException {
+            if (error != null) {
+                throw new ImplerException(error);
+            }
+            return output;
+        }
+
+        /**
+         * Gets {@link #error}.
+         *
+         * @return message of error occurred during implementation, or {@code null} if implementation succeeded
+         */
+        public String getError() {
+            return error;
+        }
+
+        /**
+         * Gets {@link #duration}.
+         *
+         * @return time spent on implementation in worker process
+         */
+        public Duration getDuration() {
+            return duration;
+        }
+    }
+
+    /**
+     * Running worker process.
+     *
+     * @author Aleksandr Eliseev
+     */
+    private static final class Worker {
+        /**
+         * Worker process.
+         */
+        private final Process process;
+        /**
+         * Standard input of worker process.
+         */
+        private final Writer in;
+        /**
+         * Standard output of worker process.
+         */
+        private final DataInputStream out;
+        /**
+         * Number of classes/interfaces implemented by worker process.
+         */
+        private int tokens;
+        /**
+         * Metaspace usage of worker process in bytes, as of last implementation.
+         */
+        private long metaspace;
+
+        /**
+         * Starts worker process.
+         *
+         * @param root absolute path of root directory
+         * @throws ImplerException if worker process cannot be started
+         */
+        private Worker(final Path root) throws ImplerException {
+            try {
+                process = new ProcessBuilder(getWorkerCommand(root))
+                        .redirectError(ProcessBuilder.Redirect.INHERIT)
+                        .start();
+            } catch (final IOException e) {
+                throw new ImplerException("Cannot start worker process", e);
+            }
+            in = new BufferedWriter(new OutputStreamWriter(process.getOutputStream(), StandardCharsets.UTF_8));
+            out = new DataInputStream(new BufferedInputStream(process.getInputStream()));
+        }
+
+        /**
+         * Implements class/interface in worker process, and waits for result.
+         *
+         * @param className binary name of class/interface
+         * @return result of implementation
+         * @throws IOException if worker process exits, or an I/O error occurs
+         */
+        private Result implement(final String className) throws IOException {
+            in.write(className + "\n");
+            in.flush();
+            final boolean successful = out.readBoolean();
+            final Duration duration = Duration.ofNanos(out.readLong());
+            final String payload = readString(out);
+            metaspace = out.readLong();
+            tokens++;
+            return successful
+                    ? new Result(className, Path.of(payload), null, duration)
+                    : new Result(className, null, payload, duration);
+        }
+
+        /**
+         * Closes input of worker process, so that it exits, and waits for it.
+         * Worker process is killed, if it doesn't exit in time.
+         *
+         * @throws InterruptedException if current thread is interrupted while waiting
+         */
+        private void close() throws InterruptedException {
+            try {
+                in.close();
+            } catch (final IOException ignored) {
+                // Worker process has already exited
+            }
+            if (!process.waitFor(EXIT_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+                destroy();
+            }
+        }
+
+        /**
+         * Kills worker process.
+         */
+        private void destroy() {
+            process.destroyForcibly();
+        }
+    }
+}
@@ -0,0 +1,365 @@
+package info.kgeorgiy.ja.eliseev.implementor.utils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Persistent cache of analysis results, stored in a file shared between runs and processes.
+ * Results are keyed by SHA-256 fingerprint of class-files of all types in the hierarchy,
+ * so cached result is used only if none of the types changed.
+ * <p>
+ * File is memory-mapped, and lookups read only the entry they need:
+ * file starts with a header and an open-addressing table of fixed size, which slots point to appended entries.
+ * Entries are never removed or replaced. When table is filled by three quarters, new entries are not stored.
+ * <p>
+ * Cache is best-effort: any I/O error is treated as a cache miss, and result is just not stored.
+ * Instance is thread-safe, and different processes can share the same file.
+ * Writers are serialized by lock on separate <var>.lock</var> file next to the cache file. File is never truncated:
+ * file, that is not a cache file yet, is replaced by new one atomically, so that readers, that mapped it,
+ * still see consistent content. Instances within one process should be obtained by {@link #of(Path)},
+ * so that they share the same file lock.
+ *
+ * @author Aleksandr Eliseev
+ * @see MethodUtils#getMethodSignatures(HierarchyIndex, AnalysisCache)
+ */
+public final class AnalysisCache {
+    /**
+     * Magic number identifying cache file.
+     */
+    private static final int MAGIC = 0x494D504C;
+    /**
+     * Version of file layout and entries' content.
+     * Changing analysis, so that its results change, requires changing version.
+     */
+    private static final int VERSION = 1;
+    /**
+     * Size of file header: magic, version, number of slots, number of entries, end of data.
+     */
+    private static final int HEADER_SIZE = 4 + 4 + 4 + 4 + 8;
+    /**
+     * Position of number of entries in header.
+     */
+    private static final int ENTRIES_POSITION = 12;
+    /**
+     * Position of end of data in header.
+     */
+    private static final int DATA_END_POSITION = 16;
+    /**
+     * Size of slot: prefix of key and position of entry.
+     */
+    private static final int SLOT_SIZE = 8 + 8;
+    /**
+     * Size of key in bytes.
+     */
+    private static final int KEY_SIZE = 32;
+    /**
+     * Default number of slots.
+     */
+    private static final int DEFAULT_SLOTS = 1 << 16;
+    /**
+     * Suffix of name of lock file.
+     */
+    private static final String LOCK_SUFFIX = ".lock";
+    /**
+     * Maps absolute paths of cache files to instances, shared by this process.
+     */
+    private static final Map<Path, AnalysisCache> INSTANCES = new ConcurrentHashMap<>();
+
+    /**
+     * Cache file.
+     */
+    private final Path file;
+    /**
+     * File, that is locked while cache file is being written.
+     */
+    private final Path lockFile;
+    /**
+     * Number of slots in newly created file.
+     */
+    private final int slots;
+    /**
+     * Read-only mapping of the file, {@code null} if file was not mapped yet.
+     */
+    private volatile MappedByteBuffer mapping;
+
+    /**
+     * Creates cache stored in given file. File is created on first store, if it doesn't exist.
+     *
+     * @param file cache file
+     */
+    public AnalysisCache(final Path file) {
+        this(file, DEFAULT_SLOTS);
+    }
+
+    /**
+     * Creates cache stored in given file with given capacity of newly created file.
+     *
+     * @param file  cache file
+     * @param slots number of slots in table, cache would store up to three quarters of it entries
+     * @throws IllegalArgumentException if {@code slots} is not positive
+     */
+    public AnalysisCache(final Path file, final int slots) {
+        if (slots <= 0) {
+            throw new IllegalArgumentException("Number of slots must be positive");
+        }
+        this.file = file;
+        this.lockFile = file.resolveSibling(file.getFileName() + LOCK_SUFFIX);
+        this.slots = slots;
+    }
+
+    /**
+     * Gets cache stored in given file, shared by all users of the same file in this process.
+     *
+     * @param file cache file
+     * @return cache with default capacity of newly created file
+     */
+    public static AnalysisCache of(final Path file) {
+        Path key = file.toAbsolutePath().normalize();
+        try {
+            key = key.getParent().toRealPath().resolve(key.getFileName());
+        } catch (final IOException | NullPointerException e) {
+            // Directory doesn't exist yet, absolute path is used
+        }
+        return INSTANCES.computeIfAbsent(key, AnalysisCache::new);
+    }
+
+    /**
+     * Gets fingerprint of given types: SHA-256 digest of their names and class-files.
+     *
+     * @param types types to get fingerprint of
+     * @return 32-byte fingerprint, or {@code null} if class-file of any type is not available
+     */
+    public static byte[] fingerprint(final List<Class<?>> types) {
+        final MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (final NoSuchAlgorithmException e) {
+            return null;
+        }
+        digest.update(ByteBuffer.allocate(4).putInt(VERSION).array());
+        for (final Class<?> type : types) {
+            final String name = type.getName();
+            try (final InputStream input = type.getResourceAsStream(
+                    name.substring(name.lastIndexOf('.') + 1) + IOUtils.CLASS_EXTENSION)) {
+                if (input == null) {
+                    return null;
+                }
+                final byte[] bytes = input.readAllBytes();
+                digest.update(name.getBytes(StandardCharsets.UTF_8));
+                digest.update(ByteBuffer.allocate(4).putInt(bytes.length).array());
+                digest.update(bytes);
+            } catch (final IOException e) {
+                return null;
+            }
+        }
+        return digest.digest();
+    }
+
+    /**
+     * Gets entry with given key.
+     *
+     * @param key fingerprint of analyzed types
+     * @return stored entry, or {@code null} if there is no such entry
+     * @see #fingerprint(List)
+     */
+    public String get(final byte[] key) {
+        try {
+            MappedByteBuffer buffer = mapping;
+            if (buffer == null) {
+                buffer = remap();
+                if (buffer == null) {
+                    return null;
+                }
+            }
+            final String result = find(buffer, key);
+            if (result != null || buffer.capacity() == Files.size(file)) {
+                return result;
+            }
+            // File was appended by another instance or process
+            buffer = remap();
+            return buffer == null ? null : find(buffer, key);
+        } catch (final IOException | IndexOutOfBoundsException | ArithmeticException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Stores entry with given key, if there is no entry with such key yet.
+     *
+     * @param key   fingerprint of analyzed types
+     * @param value entry to be stored
+     * @see #fingerprint(List)
+     */
+    public void put(final byte[] key, final String value) {
+        final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        synchronized (this) {
+            try (final FileChannel lock = FileChannel.open(lockFile, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE)) {
+                // Lock is released when channel is closed
+                lock.lock();
+                final ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+                try (final FileChannel channel = openInitialized(header)) {
+                    store(channel, header, key, bytes);
+                }
+            } catch (final IOException | OverlappingFileLockException e) {
+                // Entry is not stored. Lock overlaps, if another instance for the same file is used in this process
+            }
+        }
+    }
+
+    /**
+     * Stores entry with given key to locked cache file, if there is no entry with such key yet.
+     *
+     * @param channel channel of cache file
+     * @param header  header of cache file
+     * @param key     fingerprint of analyzed types
+     * @param bytes   entry to be stored, encoded as UTF-8
+     * @throws IOException if an I/O error occurs
+     */
+    private static void store(final FileChannel channel, final ByteBuffer header, final byte[] key,
+                              final byte[] bytes) throws IOException {
+        final int slotCount = header.getInt(8);
+        final int entries = header.getInt(ENTRIES_POSITION);
+        if (4L * entries >= 3L * slotCount) {
+            return;
+        }
+        final long prefix = ByteBuffer.wrap(key).getLong();
+        final ByteBuffer slot = ByteBuffer.allocate(SLOT_SIZE);
+        int index = Math.floorMod(prefix, slotCount);
+        while (true) {
+            slot.clear();
+            channel.read(slot, slotPosition(index));
+            final long position = slot.getLong(8);
+            if (position == 0) {
+                break;
+            }
+            if (slot.getLong(0) == prefix) {
+                final ByteBuffer existing = ByteBuffer.allocate(KEY_SIZE);
+                channel.read(existing, position);
+                if (Arrays.equals(existing.array(), key)) {
+                    return;
+                }
+            }
+            index = (index + 1) % slotCount;
+        }
+
+        final long position = header.getLong(DATA_END_POSITION);
+        channel.write(ByteBuffer.allocate(KEY_SIZE + 4 + bytes.length)
+                .put(key).putInt(bytes.length).put(bytes).flip(), position);
+        // Slot is written after entry, so readers never see incomplete entry
+        channel.write(ByteBuffer.allocate(SLOT_SIZE).putLong(prefix).putLong(position).flip(),
+                slotPosition(index));
+        channel.write(ByteBuffer.allocate(4).putInt(entries + 1).flip(), ENTRIES_POSITION);
+        channel.write(ByteBuffer.allocate(8).putLong(position + KEY_SIZE + 4 + bytes.length).flip(),
+                DATA_END_POSITION);
+    }
+
+    /**
+     * Opens cache file for writing, and reads its header.
+     * If file doesn't exist or is not a cache file, it is replaced by new file with empty table.
+     *
+     * @param header buffer to read header to
+     * @return channel of cache file
+     * @throws IOException if an I/O error occurs
+     */
+    private FileChannel openInitialized(final ByteBuffer header) throws IOException {
+        try {
+            final FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            if (channel.read(header, 0) == HEADER_SIZE && header.getInt(0) == MAGIC && header.getInt(4) == VERSION) {
+                return channel;
+            }
+            channel.close();
+        } catch (final NoSuchFileException e) {
+            // File is created below
+        }
+        header.clear();
+        header.putInt(MAGIC).putInt(VERSION).putInt(slots).putInt(0).putLong(slotPosition(slots)).flip();
+        IOUtils.writeAtomically(file, temporary -> {
+            try (final FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE_NEW,
+                    StandardOpenOption.WRITE)) {
+                channel.write(header.duplicate(), 0);
+                // Table is filled with zeros, that mean empty slots
+                channel.write(ByteBuffer.allocate(1), slotPosition(slots) - 1);
+            }
+        });
+        return FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    }
+
+    /**
+     * Maps current content of the file.
+     *
+     * @return mapping of file, or {@code null} if file doesn't exist or is not a cache file
+     * @throws IOException if an I/O error occurs
+     */
+    private synchronized MappedByteBuffer remap() throws IOException {
+        try (final FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            final MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+                return null;
+            }
+            mapping = buffer;
+            return buffer;
+        } catch (final NoSuchFileException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Finds entry in mapped file.
+     *
+     * @param buffer mapping of file
+     * @param key    key of entry
+     * @return entry, or {@code null} if there is no entry with such key in mapped part of file
+     * @throws IndexOutOfBoundsException if file is corrupted
+     * @throws ArithmeticException       if file is too large to be read
+     */
+    private static String find(final ByteBuffer buffer, final byte[] key) {
+        final int slotCount = buffer.getInt(8);
+        final long prefix = ByteBuffer.wrap(key).getLong();
+        int index = Math.floorMod(prefix, slotCount);
+        for (int i = 0; i < slotCount; i++) {
+            final int slot = Math.toIntExact(slotPosition(index));
+            final long position = buffer.getLong(slot + 8);
+            if (position == 0 || position + KEY_SIZE + 4 > buffer.capacity()) {
+                return null;
+            }
+            if (buffer.getLong(slot) == prefix) {
+                final int entry = Math.toIntExact(position);
+                final byte[] entryKey = new byte[KEY_SIZE];
+                buffer.get(entry, entryKey);
+                if (Arrays.equals(entryKey, key)) {
+                    final byte[] value = new byte[buffer.getInt(entry + KEY_SIZE)];
+                    buffer.get(entry + KEY_SIZE + 4, value);
+                    return new String(value, StandardCharsets.UTF_8);
+                }
+            }
+            index = (index + 1) % slotCount;
+        }
+        return null;
+    }
+
+    /**
+     * Gets position of slot in file.
+     *
+     * @param index index of slot
+     * @return position of slot
+     */
+    private static long slotPosition(final int index) {
+        return HEADER_SIZE + (long) index * SLOT_SIZE;
+    }
+}
@@ -0,0 +1,273 @@
+package info.kgeorgiy.ja.eliseev.implementor.utils;
+
+import info.kgeorgiy.ja.eliseev.implementor.ImplementationMethodSignature;
+import info.kgeorgiy.java.advanced.implementor.ImplerException;
+
+import java.lang.reflect.*;
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Utility class for generating implementation class-files directly, without generating and compiling source code.
+ * Generated classes are equivalent to compiled output of {@link IOUtils} generated sources.
+ *
+ * @author Aleksandr Eliseev
+ */
+public final class BytecodeUtils {
+    /**
+     * Access flags of implementation class: {@code public} and {@code ACC_SUPER}.
+     */
+    private static final int CLASS_ACCESS = Modifier.PUBLIC | 0x0020;
+    /**
+     * {@code ACC_BRIDGE} method access flag.
+     */
+    private static final int BRIDGE = 0x0040;
+    /**
+     * {@code ACC_VARARGS} method access flag.
+     */
+    private static final int VARARGS = 0x0080;
+    /**
+     * {@code ACC_SYNTHETIC} method access flag.
+     */
+    private static final int SYNTHETIC = 0x1000;
+    /**
+     * Name of instance initialization methods.
+     */
+    private static final String CONSTRUCTOR_NAME = "<init>";
+
+    /**
+     * Private constructor to ensure no instances of utility class would be created.
+     */
+    private BytecodeUtils() {
+    }
+
+    /**
+     * Generates class-file of implementation of {@code token}.
+     * Generated class has constructor matching {@code constructor}, that calls {@code super} constructor,
+     * methods with given signatures, that return default values, and bridge methods for all overridden methods
+     * with different erasure.
+     * <p>
+     * Before anything is generated, types and type variables, that generated class refers to, are checked
+     * the same way, as java compiler checks generated source code, so that classes/interfaces, which generated
+     * source code doesn't compile, are rejected by both ways of generating class-files.
+     *
+     * @param index       index of hierarchy of class/interface to be implemented
+     * @param className   binary name of generated class
+     * @param constructor {@code token}'s constructor to be called, or {@code null} if {@code token} is interface
+     * @param signatures  signatures of implementation methods
+     * @return content of class-file
+     * @throws ImplerException if generated class would refer to class, that is not accessible from its package,
+     *                         or to type variable, that is not declared by it or by its method
+     * @see MethodUtils#getMethodSignatures(HierarchyIndex)
+     */
+    public static byte[] generateImplementation(final HierarchyIndex index, final String className,
+                                                final Constructor<?> constructor,
+                                                final List<ImplementationMethodSignature> signatures)
+            throws ImplerException {
+        final Class<?> token = index.getRoot();
+        final String packageName = className.lastIndexOf('.') < 0 ? ""
+                : className.substring(0, className.lastIndexOf('.'));
+        final Set<String> classTypeParameters = Arrays.stream(token.getTypeParameters())
+                .map(TypeVariable::getName)
+                .collect(Collectors.toSet());
+        final Map<ImplementationMethodSignature, String> genericSignatures = new HashMap<>();
+        for (final ImplementationMethodSignature signature : signatures) {
+            final String genericSignature = signature.isGeneric() ? signature.getGenericSignature() : null;
+            genericSignatures.put(signature, genericSignature);
+            checkReferences(token, packageName, classTypeParameters, signature.getName(), genericSignature,
+                    Stream.concat(Stream.concat(Stream.of(signature.getErasedReturnType()),
+                                    Arrays.stream(signature.getErasedParameterTypes())),
+                            signature.getCommonExceptionTypes().stream()).toList());
+        }
+
+        final ClassFileWriter classFile = new ClassFileWriter();
+        final String thisClass = className.replace('.', '/');
+        final String superClass = ClassFileWriter.internalName(token.isInterface() ? Object.class : token);
+
+        if (constructor == null) {
+            classFile.addMethod(Modifier.PUBLIC, CONSTRUCTOR_NAME, ClassFileWriter.methodDescriptor(void.class),
+                    null, List.of(), new ClassFileWriter.Code(classFile, false)
+                            .loadThis()
+                            .invokeSpecial(superClass, CONSTRUCTOR_NAME, void.class)
+                            .returnValue(void.class));
+        } else {
+            addConstructor(classFile, superClass, constructor, packageName, classTypeParameters);
+        }
+
+        final Set<String> methodKeys = new HashSet<>();
+        for (final ImplementationMethodSignature signature : signatures) {
+            final Class<?> returnType = signature.getErasedReturnType();
+            final Class<?>[] parameterTypes = signature.getErasedParameterTypes();
+            final String descriptor = ClassFileWriter.methodDescriptor(returnType, parameterTypes);
+            methodKeys.add(signature.getName() + descriptor);
+            classFile.addMethod(signature.getAccessModifier(), signature.getName(), descriptor,
+                    genericSignatures.get(signature), List.of(),
+                    new ClassFileWriter.Code(classFile, false, parameterTypes)
+                            .loadDefault(returnType)
+                            .returnValue(returnType));
+        }
+
+        final Map<ImplementationMethodSignature, Set<Method>> overridden =
+                MethodUtils.getOverriddenMethods(index, signatures);
+        for (final ImplementationMethodSignature signature : signatures) {
+            final Class<?> returnType = signature.getErasedReturnType();
+            final Class<?>[] parameterTypes = signature.getErasedParameterTypes();
+            for (final Method method : overridden.get(signature)) {
+                final Class<?>[] bridgeParameterTypes = method.getParameterTypes();
+                final String descriptor = ClassFileWriter.methodDescriptor(
+                        method.getReturnType(), bridgeParameterTypes);
+                if (methodKeys.add(signature.getName() + descriptor)) {
+                    classFile.addMethod(signature.getAccessModifier() | BRIDGE | SYNTHETIC, signature.getName(),
+                            descriptor, null, List.of(),
+                            new ClassFileWriter.Code(classFile, false, bridgeParameterTypes)
+                                    .loadThis()
+                                    .loadParameters(false, bridgeParameterTypes, parameterTypes)
+                                    .invokeVirtual(thisClass, signature.getName(), returnType, parameterTypes)
+                                    .returnValue(method.getReturnType()));
+                }
+            }
+        }
+
+        final TypeVariable<?>[] typeParameters = token.getTypeParameters();
+        final String classSignature;
+        if (typeParameters.length == 0) {
+            classSignature = null;
+        } else {
+            final String tokenSignature = token.descriptorString();
+            classSignature = GenericUtils.typeParametersToSignature(List.of(typeParameters), Map.of())
+                    + (token.isInterface() ? Object.class.descriptorString() : "")
+                    + tokenSignature.substring(0, tokenSignature.length() - 1) + Arrays.stream(typeParameters)
+                    .map(typeParameter -> "T" + typeParameter.getName() + ";")
+                    .collect(Collectors.joining("", "<", ">;"));
+        }
+        return classFile.toByteArray(CLASS_ACCESS, thisClass, superClass,
+                token.isInterface() ? List.of(ClassFileWriter.internalName(token)) : List.of(), classSignature);
+    }
+
+    /**
+     * Adds constructor matching given {@code constructor}, that calls {@code super} constructor with its arguments.
+     * Constructor has same access modifier, throws clause and type parameters as {@code constructor}.
+     *
+     * @param classFile           class-file writer
+     * @param superClass          internal name of superclass
+     * @param constructor         superclass' constructor to be called
+     * @param packageName         package of generated class
+     * @param classTypeParameters names of type parameters of generated class
+     * @throws ImplerException if constructor would refer to inaccessible class or undeclared type variable
+     * @see IOUtils#writeConstructorImplementation(java.io.Writer, Constructor)
+     */
+    private static void addConstructor(final ClassFileWriter classFile, final String superClass,
+                                       final Constructor<?> constructor, final String packageName,
+                                       final Set<String> classTypeParameters) throws ImplerException {
+        final Class<?>[] parameterTypes = constructor.getParameterTypes();
+        final Type[] genericParameterTypes = constructor.getGenericParameterTypes();
+        final Type[] genericExceptionTypes = constructor.getGenericExceptionTypes();
+        final TypeVariable<?>[] typeParameters = constructor.getTypeParameters();
+
+        final String signature;
+        // Generic parameter types are not available for synthetic parameters, such as enclosing instance
+        if (genericParameterTypes.length == parameterTypes.length && (typeParameters.length != 0
+                || Arrays.stream(genericParameterTypes).anyMatch(type -> !(type instanceof Class<?>))
+                || Arrays.stream(genericExceptionTypes).anyMatch(type -> !(type instanceof Class<?>)))) {
+            final Set<String> ignore = Arrays.stream(typeParameters)
+                    .map(TypeVariable::getName)
+                    .collect(Collectors.toSet());
+            final String exceptions = Arrays.stream(genericExceptionTypes).anyMatch(TypeVariable.class::isInstance)
+                    ? Arrays.stream(genericExceptionTypes)
+                    .map(type -> "^" + GenericUtils.typeToSignatureInContext(Map.of(), type, ignore))
+                    .collect(Collectors.joining())
+                    : "";
+            signature = GenericUtils.typeParametersToSignature(List.of(typeParameters), Map.of())
+                    + Arrays.stream(genericParameterTypes)
+                    .map(type -> GenericUtils.typeToSignatureInContext(Map.of(), type, ignore))
+                    .collect(Collectors.joining("", "(", ")V"))
+                    + exceptions;
+        } else {
+            signature = null;
+        }
+        checkReferences(constructor.getDeclaringClass(), packageName, classTypeParameters, "constructor", signature,
+                Stream.concat(Arrays.stream(parameterTypes), Arrays.stream(constructor.getExceptionTypes())).toList());
+
+        final int modifiers = constructor.getModifiers();
+        classFile.addMethod((modifiers & Modifier.constructorModifiers()) | (constructor.isVarArgs() ? VARARGS : 0),
+                CONSTRUCTOR_NAME, ClassFileWriter.methodDescriptor(void.class, parameterTypes), signature,
+                Arrays.stream(constructor.getExceptionTypes()).map(ClassFileWriter::internalName).toList(),
+                new ClassFileWriter.Code(classFile, false, parameterTypes)
+                        .loadThis()
+                        .loadParameters(false, parameterTypes, parameterTypes)
+                        .invokeSpecial(superClass, CONSTRUCTOR_NAME, void.class, parameterTypes)
+                        .returnValue(void.class));
+    }
+
+    /**
+     * Checks that method or constructor of generated class refers only to accessible classes and
+     * to type variables in scope, as java compiler does.
+     *
+     * @param token               class/interface to be implemented
+     * @param packageName         package of generated class
+     * @param classTypeParameters names of type parameters of generated class
+     * @param member              name of checked method, used in error messages
+     * @param signature           JVM signature of checked method, or {@code null} if it is not generic
+     * @param erasedTypes         erased types of parameters, result and exceptions of checked method
+     * @throws ImplerException if some class is not accessible, or some type variable is not declared
+     *                         by generated class or checked method
+     */
+    private static void checkReferences(final Class<?> token, final String packageName,
+                                        final Set<String> classTypeParameters, final String member,
+                                        final String signature, final List<Class<?>> erasedTypes)
+            throws ImplerException {
+        for (final Class<?> type : erasedTypes) {
+            checkAccessible(token, packageName, type);
+        }
+        if (signature == null) {
+            return;
+        }
+        final SignatureReader reader = SignatureReader.read(signature);
+        for (final String typeVariable : reader.getTypeVariables()) {
+            if (!classTypeParameters.contains(typeVariable) && !reader.getTypeParameters().contains(typeVariable)) {
+                throw new ImplerException("Type variable " + typeVariable + " is not in scope of " + member);
+            }
+        }
+        for (final String name : reader.getClassNames()) {
+            try {
+                checkAccessible(token, packageName, Class.forName(name, false, token.getClassLoader()));
+            } catch (final ClassNotFoundException e) {
+                throw new ImplerException("Cannot find class " + name + " referenced by " + member, e);
+            }
+        }
+    }
+
+    /**
+     * Checks that class can be referred to by subclass of {@code token} in given package.
+     * Class and all classes it is nested in must be public, or be protected members of {@code token}'s
+     * supertypes, or be in the same package and not private. Class in another package must be exported.
+     *
+     * @param token       class/interface to be implemented
+     * @param packageName package of generated class
+     * @param type        class to be checked, array types are checked by their element types
+     * @throws ImplerException if class is not accessible
+     */
+    private static void checkAccessible(final Class<?> token, final String packageName, final Class<?> type)
+            throws ImplerException {
+        Class<?> element = type;
+        while (element.isArray()) {
+            element = element.getComponentType();
+        }
+        if (element.isPrimitive()) {
+            return;
+        }
+        final boolean samePackage = element.getPackageName().equals(packageName);
+        for (Class<?> clazz = element; clazz != null; clazz = clazz.getDeclaringClass()) {
+            final int modifiers = clazz.getModifiers();
+            if (!Modifier.isPublic(modifiers) && (Modifier.isPrivate(modifiers) || !samePackage
+                    && !(Modifier.isProtected(modifiers) && clazz.getDeclaringClass().isAssignableFrom(token)))) {
+                throw new ImplerException("Class " + clazz.getName() + " is not accessible from package "
+                        + packageName);
+            }
+        }
+        if (!samePackage && !element.getModule().isExported(element.getPackageName())) {
+            throw new ImplerException("Class " + element.getName() + " is not exported by " + element.getModule());
+        }
+    }
+}
@@ -0,0 +1,246 @@
+package info.kgeorgiy.ja.eliseev.implementor.utils;
+
+import java.lang.reflect.Modifier;
+import java.util.List;
+
+/**
+ * Declaration of class/interface, as read from its class-file by {@link ClassFileReader}:
+ * its modifiers, supertypes, generic signature and declared methods.
+ * Member types are represented by their binary names, so nothing is loaded.
+ *
+ * @author Aleksandr Eliseev
+ * @see ClassFileReader
+ */
+final class ClassFileInfo {
+    /**
+     * Binary name of class.
+     */
+    private final String name;
+    /**
+     * Modifiers of class, as returned by {@link Class#getModifiers()}.
+     */
+    private final int modifiers;
+    /**
+     * Whether class is a member class.
+     */
+    private final boolean member;
+    /**
+     * Binary name of superclass, {@code null} for {@link Object}.
+     */
+    private final String superclass;
+    /**
+     * Binary names of direct superinterfaces.
+     */
+    private final List<String> interfaces;
+    /**
+     * JVM signature of class, {@code null} if class is not generic.
+     */
+    private final String signature;
+    /**
+     * Declared methods and constructors.
+     */
+    private final List<MethodInfo> methods;
+
+    /**
+     * Constructor, that assign its arguments to class' fields.
+     *
+     * @param name       value of {@link #name}
+     * @param modifiers  value of {@link #modifiers}
+     * @param member     value of {@link #member}
+     * @param superclass value of {@link #superclass}
+     * @param interfaces value of {@link #interfaces}
+     * @param signature  value of {@link #signature}
+     * @param methods    value of {@link #methods}
+     */
+    ClassFileInfo(final String name, final int modifiers, final boolean member, final String superclass,
+                  final List<String> interfaces, final String signature, final List<MethodInfo> methods) {
+        this.name = name;
+        this.modifiers = modifiers;
+        this.member = member;
+        this.superclass = superclass;
+        this.interfaces = interfaces;
+        this.signature = signature;
+        this.methods = methods;
+    }
+
+    /**
+     * Gets binary name of class.
+     *
+     * @return binary name, as returned by {@link Class#getName()}
+     */
+    String getName() {
+        return name;
+    }
+
+    /**
+     * Gets modifiers of class. For member classes modifiers are taken from <var>InnerClasses</var> attribute,
+     * as done by {@link Class#getModifiers()}.
+     *
+     * @return modifiers of class, that can be decoded with {@link Modifier}
+     */
+    int getModifiers() {
+        return modifiers;
+    }
+
+    /**
+     * Checks if class is a member class.
+     *
+     * @return {@code true} if and only if class is declared in another class
+     */
+    boolean isMember() {
+        return member;
+    }
+
+    /**
+     * Gets superclass of class.
+     *
+     * @return binary name of superclass, or {@code null} for {@link Object}
+     */
+    String getSuperclass() {
+        return superclass;
+    }
+
+    /**
+     * Gets direct superinterfaces of class.
+     *
+     * @return unmodifiable list of binary names of superinterfaces, in order of declaration
+     */
+    List<String> getInterfaces() {
+        return interfaces;
+    }
+
+    /**
+     * Gets generic signature of class, as stored in <var>Signature</var> attribute.
+     *
+     * @return JVM signature of class, or {@code null} if class is not generic
+     * @see SignatureReader
+     */
+    String getSignature() {
+        return signature;
+    }
+
+    /**
+     * Gets methods and constructors declared by class.
+     *
+     * @return unmodifiable list of methods, in order of class-file
+     */
+    List<MethodInfo> getMethods() {
+        return methods;
+    }
+
+    /**
+     * Checks if class declares constructor, that can be called by its subclass.
+     *
+     * @return {@code true} if and only if class declares at least one non-private constructor
+     */
+    boolean hasNonPrivateConstructor() {
+        return methods.stream()
+                .anyMatch(method -> method.isConstructor() && !Modifier.isPrivate(method.getModifiers()));
+    }
+
+    /**
+     * Declaration of method or constructor, as read from class-file.
+     *
+     * @author Aleksandr Eliseev
+     */
+    static final class MethodInfo {
+        /**
+         * Name of constructors in class-files.
+         */
+        private static final String CONSTRUCTOR_NAME = "<init>";
+
+        /**
+         * Access flags of method.
+         */
+        private final int modifiers;
+        /**
+         * Name of method.
+         */
+        private final String name;
+        /**
+         * Descriptor of method.
+         */
+        private final String descriptor;
+        /**
+         * JVM signature of method, {@code null} if method is not generic.
+         */
+        private final String signature;
+        /**
+         * Binary names of exception types, declared in {@code throws} clause.
+         */
+        private final List<String> exceptions;
+
+        /**
+         * Constructor, that assign its arguments to class' fields.
+         *
+         * @param modifiers  value of {@link #modifiers}
+         * @param name       value of {@link #name}
+         * @param descriptor value of {@link #descriptor}
+         * @param signature  value of {@link #signature}
+         * @param exceptions value of {@link #exceptions}
+         */
+        MethodInfo(final int modifiers, final String name, final String descriptor, final String signature,
+                   final List<String> exceptions) {
+            this.modifiers = modifiers;
+            this.name = name;
+            this.descriptor = descriptor;
+            this.signature = signature;
+            this.exceptions = exceptions;
+        }
+
+        /**
+         * Gets access flags of method.
+         *
+         * @return access flags, that can be decoded with {@link Modifier}
+         */
+        int getModifiers() {
+            return modifiers;
+        }
+
+        /**
+         * Gets name of method.
+         *
+         * @return name of method, or <var>&lt;init&gt;</var> for constructors
+         */
+        String getName() {
+            return name;
+        }
+
+        /**
+         * Checks if method is a constructor.
+         *
+         * @return {@code true} if and only if method is instance initialization method
+         */
+        boolean isConstructor() {
+            return CONSTRUCTOR_NAME.equals(name);
+        }
+
+        /**
+         * Gets descriptor of method.
+         *
+         * @return erased parameter types and return type, in JVM descriptor form
+         */
+        String getDescriptor() {
+            return descriptor;
+        }
+
+        /**
+         * Gets generic signature of method, as stored in <var>Signature</var> attribute.
+         *
+         * @return JVM signature of method, or {@code null} if method is not generic
+         * @see SignatureReader
+         */
+        String getSignature() {
+            return signature;
+        }
+
+        /**
+         * Gets exception types, declared in {@code throws} clause of method.
+         *
+         * @return unmodifiable list of binary names of exception types
+         */
+        List<String> getExceptions() {
+            return exceptions;
+        }
+    }
+}
@@ -0,0 +1,553 @@
+package info.kgeorgiy.ja.eliseev.implementor.utils;
+
+import info.kgeorgiy.java.advanced.implementor.ImplerException;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.module.ModuleReader;
+import java.lang.module.ModuleReference;
+import java.lang.module.ResolvedModule;
+import java.lang.reflect.Modifier;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Checks declarations of classes/interfaces directly in their class-files, without loading them.
+ * Class-files are searched where system class loader searches classes: in modules of boot layer,
+ * that includes platform modules and modules on module path, and then in directories and <var>.jar</var> files
+ * of classpath, in order.
+ * Class-files in directories are memory-mapped, class-files in <var>.jar</var> files and modules are read fully.
+ * <p>
+ * There is a single instance, so <var>.jar</var> files and modules are opened once per JVM and stay open,
+ * as they do for class loaders. Instance is thread-safe.
+ *
+ * @author Aleksandr Eliseev
+ * @see <a href="https://docs.oracle.com/javase/specs/jvms/se17/html/jvms-4.html">The class File Format</a>
+ */
+public final class ClassFileReader {
+    /**
+     * Magic number of class-files.
+     */
+    private static final int MAGIC = 0xCAFEBABE;
+    /**
+     * Tag of <var>CONSTANT_Utf8</var> constant pool entry.
+     */
+    private static final int CONSTANT_UTF8 = 1;
+    /**
+     * Tag of <var>CONSTANT_Long</var> constant pool entry.
+     */
+    private static final int CONSTANT_LONG = 5;
+    /**
+     * Tag of <var>CONSTANT_Double</var> constant pool entry.
+     */
+    private static final int CONSTANT_DOUBLE = 6;
+    /**
+     * Tag of <var>CONSTANT_MethodHandle</var> constant pool entry.
+     */
+    private static final int CONSTANT_METHOD_HANDLE = 15;
+    /**
+     * Access flag of classes, that are not modifier. Cleared when converting flags to modifiers.
+     */
+    private static final int ACC_SUPER = 0x0020;
+    /**
+     * Access flags of module-info class-files.
+     */
+    private static final int ACC_MODULE = 0x8000;
+    /**
+     * Name of attribute, that stores generic signature of class or method.
+     */
+    private static final String SIGNATURE = "Signature";
+
+    /**
+     * Maps package names to modules of boot layer, that contain them.
+     */
+    private final Map<String, ModuleReference> modules;
+    /**
+     * Readers of modules, opened on first use.
+     */
+    private final Map<ModuleReference, ModuleReader> moduleReaders = new ConcurrentHashMap<>();
+    /**
+     * Root directories of classpath entries.
+     */
+    private final List<Path> roots;
+
+    /**
+     * Constructor, that assign its arguments to class' fields.
+     *
+     * @param modules value of {@link #modules}
+     * @param roots   value of {@link #roots}
+     */
+    private ClassFileReader(final Map<String, ModuleReference> modules, final List<Path> roots) {
+        this.modules = modules;
+        this.roots = roots;
+    }
+
+    /**
+     * Gets reader searching class-files in boot layer and classpath of this JVM.
+     *
+     * @return the reader
+     */
+    public static ClassFileReader getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    /**
+     * Creates reader searching class-files in boot layer and given classpath.
+     * Classpath entries, that are neither directories nor valid <var>.jar</var> files, are ignored.
+     *
+     * @param classPath classpath, which entries are separated by {@link File#pathSeparator}
+     * @return the reader
+     */
+    private static ClassFileReader create(final String classPath) {
+        final Map<String, ModuleReference> modules = new HashMap<>();
+        for (final ResolvedModule module : ModuleLayer.boot().configuration().modules()) {
+            for (final String packageName : module.reference().descriptor().packages()) {
+                modules.putIfAbsent(packageName, module.reference());
+            }
+        }
+
+        final List<Path> roots = new ArrayList<>();
+        for (final String entry : classPath.split(File.pathSeparator)) {
+            if (entry.isEmpty()) {
+                continue;
+            }
+            try {
+                final Path path = Path.of(entry);
+                if (Files.isDirectory(path)) {
+                    roots.add(path);
+                } else if (Files.isRegularFile(path)) {
+                    roots.add(FileSystems.newFileSystem(path).getPath("/"));
+                }
+            } catch (final InvalidPathException | ProviderNotFoundException | IOException e) {
+                // Entry is not searched, as done by class loaders
+            }
+        }
+        return new ClassFileReader(Map.copyOf(modules), List.copyOf(roots));
+    }
+
+    /**
+     * Checks that class/interface with given name can be implemented, using only its class-file.
+     * Checks of modifiers and constructors are the same as done by
+     * {@link info.kgeorgiy.ja.eliseev.implementor.Implementor} for loaded classes. Class-files of supertypes
+     * are read too, to check that all classes needed for analysis of methods can be found.
+     * Nothing is checked, if class-file cannot be found or read.
+     *
+     * @param className binary name of class/interface
+     * @throws ImplerException if class/interface cannot be extended/implemented
+     */
+    public void checkImplementable(final String className) throws ImplerException {
+        final ClassFileInfo classFile;
+        try {
+            classFile = read(className);
+        } catch (final IOException e) {
+            // Checks are done again after loading
+            return;
+        }
+        if (classFile == null) {
+            return;
+        }
+
+        final int modifiers = classFile.getModifiers();
+        if (Modifier.isPrivate(modifiers)) {
+            throw new ImplerException("Cannot implement private interface or extends private class");
+        }
+        if (Modifier.isFinal(modifiers)) {
+            throw new ImplerException("Cannot extend final class");
+        }
+        if (Enum.class.getName().equals(classFile.getName())) {
+            throw new ImplerException("Cannot extend java.lang.Enum");
+        }
+        if (classFile.isMember() && !Modifier.isStatic(modifiers)) {
+            throw new ImplerException("Cannot implement non-static inner class");
+        }
+        if (!Modifier.isInterface(modifiers) && !classFile.hasNonPrivateConstructor()) {
+            throw new ImplerException("Cannot implement class with only private constructors");
+        }
+        checkDependencies(classFile);
+    }
+
+    /**
+     * Checks that classes, which declarations of class/interface and its supertypes refer to, can be found.
+     * Methods of all these types are analyzed to implement class/interface, so missing class, that is referred to by
+     * supertype, signature, parameter, return or exception type of some method, makes analysis fail with
+     * {@link NoClassDefFoundError} or {@link TypeNotPresentException} after class/interface is loaded.
+     * <p>
+     * Supertypes are read from their class-files. Other classes are searched as resources of system class loader,
+     * so nothing is loaded. Checking stops, if some class-file cannot be read, as then checks are done again
+     * after loading.
+     *
+     * @param classFile declaration of class/interface to be implemented
+     * @throws ImplerException if some referred class cannot be found
+     */
+    private void checkDependencies(final ClassFileInfo classFile) throws ImplerException {
+        final Set<String> readTypes = new HashSet<>(Set.of(classFile.getName()));
+        final Set<String> foundClasses = new HashSet<>(readTypes);
+        final Deque<ClassFileInfo> queue = new ArrayDeque<>(List.of(classFile));
+        while (!queue.isEmpty()) {
+            final ClassFileInfo type = queue.poll();
+            final List<String> supertypes = new ArrayList<>(type.getInterfaces());
+            if (type.getSuperclass() != null) {
+                supertypes.add(type.getSuperclass());
+            }
+            for (final String supertype : supertypes) {
+                if (readTypes.add(supertype)) {
+                    final ClassFileInfo supertypeFile;
+                    try {
+                        supertypeFile = read(supertype);
+                    } catch (final IOException e) {
+                        return;
+                    }
+                    if (supertypeFile == null) {
+                        if (isFound(supertype)) {
+                            // Class-file is available only to class loader, e.g. by Class-Path of jar manifest
+                            return;
+                        }
+                        throw new ImplerException("Cannot find class " + supertype + ", that is supertype of "
+                                + type.getName());
+                    }
+                    foundClasses.add(supertype);
+                    queue.add(supertypeFile);
+                }
+            }
+
+            final Set<String> referenced;
+            try {
+                referenced = getReferencedClasses(type);
+            } catch (final IllegalArgumentException e) {
+                return;
+            }
+            for (final String className : referenced) {
+                if (foundClasses.add(className) && !isFound(className)) {
+                    throw new ImplerException("Cannot find class " + className + ", that " + type.getName()
+                            + " refers to");
+                }
+            }
+        }
+    }
+
+    /**
+     * Gets classes, that are referred to by signature of class/interface, and by descriptors, signatures
+     * and {@code throws} clauses of its methods.
+     *
+     * @param classFile declaration of class/interface
+     * @return binary names of referred classes
+     * @throws IllegalArgumentException if some signature is malformed
+     */
+    private static Set<String> getReferencedClasses(final ClassFileInfo classFile) {
+        final Set<String> referenced = new LinkedHashSet<>();
+        if (classFile.getSignature() != null) {
+            referenced.addAll(SignatureReader.read(classFile.getSignature()).getClassNames());
+        }
+        for (final ClassFileInfo.MethodInfo method : classFile.getMethods()) {
+            referenced.addAll(SignatureReader.read(method.getDescriptor()).getClassNames());
+            if (method.getSignature() != null) {
+                referenced.addAll(SignatureReader.read(method.getSignature()).getClassNames());
+            }
+            referenced.addAll(method.getExceptions());
+        }
+        return referenced;
+    }
+
+    /**
+     * Checks if class-file of class/interface can be found by system class loader, without loading it.
+     *
+     * @param className binary name of class/interface
+     * @return {@code true} if and only if system class loader has resource of class-file
+     */
+    private static boolean isFound(final String className) {
+        return ClassLoader.getSystemResource(className.replace('.', '/') + IOUtils.CLASS_EXTENSION) != null;
+    }
+
+    /**
+     * Finds and reads class-file of class/interface with given name.
+     *
+     * @param className binary name of class/interface
+     * @return declaration of class/interface, or {@code null} if there is no class-file for it
+     * @throws IOException if an I/O error occurs, or class-file is malformed
+     */
+    ClassFileInfo read(final String className) throws IOException {
+        final String path = className.replace('.', '/') + IOUtils.CLASS_EXTENSION;
+        final int packageEnd = className.lastIndexOf('.');
+        final ModuleReference module = packageEnd < 0 ? null : modules.get(className.substring(0, packageEnd));
+        if (module != null) {
+            // Packages of boot layer are not searched on classpath, as done by system class loader
+            final ModuleReader reader = getModuleReader(module);
+            final Optional<ByteBuffer> buffer = reader.read(path);
+            if (buffer.isEmpty()) {
+                return null;
+            }
+            try {
+                return parse(buffer.get());
+            } finally {
+                reader.release(buffer.get());
+            }
+        }
+        for (final Path root : roots) {
+            final Path file = root.resolve(path);
+            if (Files.isRegularFile(file)) {
+                return parse(map(file));
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Gets reader of module, opening it if needed.
+     *
+     * @param module module of boot layer
+     * @return reader of module
+     * @throws IOException if module cannot be opened
+     */
+    private ModuleReader getModuleReader(final ModuleReference module) throws IOException {
+        try {
+            return moduleReaders.computeIfAbsent(module, reference -> {
+                try {
+                    return reference.open();
+                } catch (final IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (final UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Reads content of class-file. Files of default file system are memory-mapped.
+     *
+     * @param file class-file
+     * @return buffer with content of class-file
+     * @throws IOException if an I/O error occurs
+     */
+    private static ByteBuffer map(final Path file) throws IOException {
+        if (file.getFileSystem() != FileSystems.getDefault()) {
+            return ByteBuffer.wrap(Files.readAllBytes(file));
+        }
+        try (final FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+    }
+
+    /**
+     * Parses class-file.
+     *
+     * @param buffer content of class-file
+     * @return declaration of class/interface
+     * @throws IOException if class-file is malformed
+     */
+    static ClassFileInfo parse(final ByteBuffer buffer) throws IOException {
+        try {
+            if (buffer.getInt() != MAGIC) {
+                throw new IOException("Not a class-file");
+            }
+            // Minor and major versions
+            buffer.getInt();
+
+            final ConstantPool constantPool = new ConstantPool(buffer);
+            final int accessFlags = buffer.getShort() & 0xFFFF;
+            if ((accessFlags & ACC_MODULE) != 0) {
+                throw new IOException("Module descriptor is not a class");
+            }
+            final String name = constantPool.className(buffer.getShort() & 0xFFFF);
+            final int superclassIndex = buffer.getShort() & 0xFFFF;
+            final String superclass = superclassIndex == 0 ? null : constantPool.className(superclassIndex);
+            final int interfaceCount = buffer.getShort() & 0xFFFF;
+            final List<String> interfaces = new ArrayList<>(interfaceCount);
+            for (int i = 0; i < interfaceCount; i++) {
+                interfaces.add(constantPool.className(buffer.getShort() & 0xFFFF));
+            }
+
+            final int fieldCount = buffer.getShort() & 0xFFFF;
+            for (int i = 0; i < fieldCount; i++) {
+                // Access flags, name and descriptor
+                buffer.position(buffer.position() + 6);
+                skipAttributes(buffer);
+            }
+
+            final int methodCount = buffer.getShort() & 0xFFFF;
+            final List<ClassFileInfo.MethodInfo> methods = new ArrayList<>(methodCount);
+            for (int i = 0; i < methodCount; i++) {
+                final int methodAccessFlags = buffer.getShort() & 0xFFFF;
+                final String methodName = constantPool.utf8(buffer.getShort() & 0xFFFF);
+                final String descriptor = constantPool.utf8(buffer.getShort() & 0xFFFF);
+                String signature = null;
+                List<String> exceptions = List.of();
+                final int attributeCount = buffer.getShort() & 0xFFFF;
+                for (int j = 0; j < attributeCount; j++) {
+                    final String attributeName = constantPool.utf8(buffer.getShort() & 0xFFFF);
+                    final int length = buffer.getInt();
+                    final int end = buffer.position() + length;
+                    if (SIGNATURE.equals(attributeName)) {
+                        signature = constantPool.utf8(buffer.getShort() & 0xFFFF);
+                    } else if ("Exceptions".equals(attributeName)) {
+                        final String[] exceptionNames = new String[buffer.getShort() & 0xFFFF];
+                        for (int k = 0; k < exceptionNames.length; k++) {
+                            exceptionNames[k] = constantPool.className(buffer.getShort() & 0xFFFF);
+                        }
+                        exceptions = List.of(exceptionNames);
+                    }
+                    buffer.position(end);
+                }
+                methods.add(new ClassFileInfo.MethodInfo(methodAccessFlags, methodName, descriptor, signature,
+                        exceptions));
+            }
+
+            int modifiers = accessFlags & ~ACC_SUPER;
+            boolean member = false;
+            String signature = null;
+            final int attributeCount = buffer.getShort() & 0xFFFF;
+            for (int i = 0; i < attributeCount; i++) {
+                final String attributeName = constantPool.utf8(buffer.getShort() & 0xFFFF);
+                final int length = buffer.getInt();
+                final int end = buffer.position() + length;
+                if (SIGNATURE.equals(attributeName)) {
+                    signature = constantPool.utf8(buffer.getShort() & 0xFFFF);
+                } else if ("InnerClasses".equals(attributeName)) {
+                    final int classCount = buffer.getShort() & 0xFFFF;
+                    for (int j = 0; j < classCount; j++) {
+                        final int innerIndex = buffer.getShort() & 0xFFFF;
+                        final int outerIndex = buffer.getShort() & 0xFFFF;
+                        // Inner name
+                        buffer.getShort();
+                        final int innerFlags = buffer.getShort() & 0xFFFF;
+                        if (name.equals(constantPool.className(innerIndex))) {
+                            // Same as Class.getModifiers for member, local and anonymous classes
+                            modifiers = innerFlags & ~ACC_SUPER;
+                            member = outerIndex != 0;
+                        }
+                    }
+                }
+                buffer.position(end);
+            }
+            return new ClassFileInfo(name, modifiers & (Modifier.classModifiers() | Modifier.INTERFACE
+                    | Modifier.interfaceModifiers()), member, superclass, List.copyOf(interfaces), signature,
+                    List.copyOf(methods));
+        } catch (final BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException e) {
+            throw new IOException("Malformed class-file", e);
+        }
+    }
+
+    /**
+     * Skips attributes table.
+     *
+     * @param buffer buffer positioned at start of attributes table
+     */
+    private static void skipAttributes(final ByteBuffer buffer) {
+        final int attributeCount = buffer.getShort() & 0xFFFF;
+        for (int i = 0; i < attributeCount; i++) {
+            // Attribute name
+            buffer.getShort();
+            final int length = buffer.getInt();
+            buffer.position(buffer.position() + length);
+        }
+    }
+
+    /**
+     * Lazy holder of the {@link ClassFileReader} instance.
+     *
+     * @author Aleksandr Eliseev
+     */
+    private static final class Holder {
+        /**
+         * The instance.
+         */
+        private static final ClassFileReader INSTANCE = create(System.getProperty("java.class.path", ""));
+    }
+
+    /**
+     * Constant pool of class-file. Only positions of entries are stored, strings are decoded on demand.
+     *
+     * @author Aleksandr Eliseev
+     */
+    private static final class ConstantPool {
+        /**
+         * Content of class-file.
+         */
+        private final ByteBuffer buffer;
+        /**
+         * Positions of entries' tags in {@link #buffer}, indexed by entry index.
+         */
+        private final int[] positions;
+
+        /**
+         * Reads constant pool, and moves buffer position after it.
+         *
+         * @param buffer buffer positioned at constant pool count
+         * @throws IOException if constant pool contains unknown tag
+         */
+        private ConstantPool(final ByteBuffer buffer) throws IOException {
+            this.buffer = buffer;
+            positions = new int[buffer.getShort() & 0xFFFF];
+            for (int i = 1; i < positions.length; i++) {
+                positions[i] = buffer.position();
+                final int tag = buffer.get();
+                final int size = switch (tag) {
+                    case CONSTANT_UTF8 -> 2 + (buffer.getShort(buffer.position()) & 0xFFFF);
+                    case 7, 8, 16, 19, 20 -> 2;
+                    case CONSTANT_METHOD_HANDLE -> 3;
+                    case 3, 4, 9, 10, 11, 12, 17, 18 -> 4;
+                    case CONSTANT_LONG, CONSTANT_DOUBLE -> 8;
+                    default -> throw new IOException("Unknown constant pool tag " + tag);
+                };
+                buffer.position(buffer.position() + size);
+                if (tag == CONSTANT_LONG || tag == CONSTANT_DOUBLE) {
+                    // Such entries take two indices
+                    i++;
+                }
+            }
+        }
+
+        /**
+         * Decodes <var>CONSTANT_Utf8</var> entry, which uses modified UTF-8 encoding.
+         *
+         * @param index index of entry
+         * @return decoded string
+         */
+        private String utf8(final int index) {
+            final int position = positions[index];
+            if (buffer.get(position) != CONSTANT_UTF8) {
+                throw new IllegalArgumentException("Not a CONSTANT_Utf8 entry: " + index);
+            }
+            final int length = buffer.getShort(position + 1) & 0xFFFF;
+            final StringBuilder result = new StringBuilder(length);
+            int i = position + 3;
+            final int end = i + length;
+            while (i < end) {
+                final int b = buffer.get(i++) & 0xFF;
+                if (b < 0x80) {
+                    result.append((char) b);
+                } else if ((b & 0xE0) == 0xC0) {
+                    result.append((char) ((b & 0x1F) << 6 | buffer.get(i++) & 0x3F));
+                } else {
+                    result.append((char) ((b & 0x0F) << 12 | (buffer.get(i++) & 0x3F) << 6
+                            | buffer.get(i++) & 0x3F));
+                }
+            }
+            return result.toString();
+        }
+
+        /**
+         * Gets binary name of class referenced by <var>CONSTANT_Class</var> entry.
+         *
+         * @param index index of entry
+         * @return binary name of class
+         */
+        private String className(final int index) {
+            return utf8(buffer.getShort(positions[index] + 1) & 0xFFFF).replace('/', '.');
+        }
+    }
+}
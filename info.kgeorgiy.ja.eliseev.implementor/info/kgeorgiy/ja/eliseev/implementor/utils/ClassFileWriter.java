@@ -0,0 +1,514 @@
+package info.kgeorgiy.ja.eliseev.implementor.utils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Minimal writer of class-files.
+ * Supports only what is needed for classes without fields and branches: constant pool, methods with
+ * <var>Code</var>, <var>Exceptions</var> and <var>Signature</var> attributes, and class <var>Signature</var>.
+ *
+ * @author Aleksandr Eliseev
+ * @see <a href="https://docs.oracle.com/javase/specs/jvms/se17/html/jvms-4.html">The class File Format</a>
+ */
+final class ClassFileWriter {
+    /**
+     * Magic number of class-files.
+     */
+    private static final int MAGIC = 0xCAFEBABE;
+    /**
+     * Major version of written class-files. Same as version of class-files produced by compiler of current runtime.
+     */
+    private static final int MAJOR_VERSION = 44 + Runtime.version().feature();
+    /**
+     * Tag of <var>CONSTANT_Utf8</var> constant pool entry.
+     */
+    private static final int CONSTANT_UTF8 = 1;
+    /**
+     * Tag of <var>CONSTANT_Class</var> constant pool entry.
+     */
+    private static final int CONSTANT_CLASS = 7;
+    /**
+     * Tag of <var>CONSTANT_Methodref</var> constant pool entry.
+     */
+    private static final int CONSTANT_METHODREF = 10;
+    /**
+     * Tag of <var>CONSTANT_NameAndType</var> constant pool entry.
+     */
+    private static final int CONSTANT_NAME_AND_TYPE = 12;
+
+    /**
+     * Content of constant pool.
+     */
+    private final ByteArrayOutputStream constantPool = new ByteArrayOutputStream();
+    /**
+     * Maps constant pool entries to their indices, to avoid duplicates.
+     */
+    private final Map<String, Integer> constants = new HashMap<>();
+    /**
+     * Content of methods table.
+     */
+    private final ByteArrayOutputStream methods = new ByteArrayOutputStream();
+    /**
+     * Number of methods in methods table.
+     */
+    private int methodCount;
+
+    /**
+     * Converts binary name of class to internal form.
+     *
+     * @param clazz class to get internal name of
+     * @return internal name of class, or descriptor if it is array class
+     */
+    static String internalName(final Class<?> clazz) {
+        return clazz.isArray() ? clazz.descriptorString() : clazz.getName().replace('.', '/');
+    }
+
+    /**
+     * Gets method descriptor.
+     *
+     * @param returnType     method's return type
+     * @param parameterTypes method's parameter types
+     * @return method descriptor
+     */
+    static String methodDescriptor(final Class<?> returnType, final Class<?>... parameterTypes) {
+        final StringBuilder result = new StringBuilder("(");
+        for (final Class<?> parameterType : parameterTypes) {
+            result.append(parameterType.descriptorString());
+        }
+        return result.append(")").append(returnType.descriptorString()).toString();
+    }
+
+    /**
+     * Gets constant pool entry, adding it if needed.
+     *
+     * @param key   unique key of entry
+     * @param entry writes entry to given stream
+     * @return index of entry
+     */
+    private int constant(final String key, final DataWriter entry) {
+        final Integer index = constants.get(key);
+        if (index != null) {
+            return index;
+        }
+        write(constantPool, entry);
+        final int result = constants.size() + 1;
+        constants.put(key, result);
+        return result;
+    }
+
+    /**
+     * Gets <var>CONSTANT_Utf8</var> constant pool entry.
+     *
+     * @param value string value
+     * @return index of entry
+     */
+    int utf8(final String value) {
+        return constant("U" + value, out -> {
+            out.writeByte(CONSTANT_UTF8);
+            out.writeUTF(value);
+        });
+    }
+
+    /**
+     * Gets <var>CONSTANT_Class</var> constant pool entry.
+     *
+     * @param internalName internal name of class
+     * @return index of entry
+     */
+    int classConstant(final String internalName) {
+        final int name = utf8(internalName);
+        return constant("C" + internalName, out -> {
+            out.writeByte(CONSTANT_CLASS);
+            out.writeShort(name);
+        });
+    }
+
+    /**
+     * Gets <var>CONSTANT_Methodref</var> constant pool entry.
+     *
+     * @param owner      internal name of class declaring method
+     * @param name       method's name
+     * @param descriptor method's descriptor
+     * @return index of entry
+     */
+    int methodRef(final String owner, final String name, final String descriptor) {
+        final int ownerIndex = classConstant(owner);
+        final int nameIndex = utf8(name);
+        final int descriptorIndex = utf8(descriptor);
+        final int nameAndType = constant("N" + name + " " + descriptor, out -> {
+            out.writeByte(CONSTANT_NAME_AND_TYPE);
+            out.writeShort(nameIndex);
+            out.writeShort(descriptorIndex);
+        });
+        return constant("M" + owner + "." + name + descriptor, out -> {
+            out.writeByte(CONSTANT_METHODREF);
+            out.writeShort(ownerIndex);
+            out.writeShort(nameAndType);
+        });
+    }
+
+    /**
+     * Adds method to methods table.
+     *
+     * @param access     method's access flags
+     * @param name       method's name
+     * @param descriptor method's descriptor
+     * @param signature  method's JVM signature, or {@code null} if not needed
+     * @param exceptions internal names of exceptions declared in throws clause
+     * @param code       method's code
+     */
+    void addMethod(final int access, final String name, final String descriptor, final String signature,
+                   final List<String> exceptions, final Code code) {
+        final int nameIndex = utf8(name);
+        final int descriptorIndex = utf8(descriptor);
+        final int codeName = utf8("Code");
+        final int[] exceptionIndices = exceptions.stream().mapToInt(this::classConstant).toArray();
+        final int exceptionsName = exceptions.isEmpty() ? 0 : utf8("Exceptions");
+        final int signatureIndex = signature == null ? 0 : utf8(signature);
+        final int signatureName = signature == null ? 0 : utf8("Signature");
+        final byte[] bytecode = code.bytecode.toByteArray();
+        write(methods, out -> {
+            out.writeShort(access);
+            out.writeShort(nameIndex);
+            out.writeShort(descriptorIndex);
+            out.writeShort(1 + (exceptions.isEmpty() ? 0 : 1) + (signature == null ? 0 : 1));
+
+            out.writeShort(codeName);
+            out.writeInt(12 + bytecode.length);
+            out.writeShort(code.maxStack);
+            out.writeShort(code.maxLocals);
+            out.writeInt(bytecode.length);
+            out.write(bytecode);
+            // no exception table and no attributes
+            out.writeShort(0);
+            out.writeShort(0);
+
+            if (!exceptions.isEmpty()) {
+                out.writeShort(exceptionsName);
+                out.writeInt(2 + 2 * exceptionIndices.length);
+                out.writeShort(exceptionIndices.length);
+                for (final int exception : exceptionIndices) {
+                    out.writeShort(exception);
+                }
+            }
+            if (signature != null) {
+                out.writeShort(signatureName);
+                out.writeInt(2);
+                out.writeShort(signatureIndex);
+            }
+        });
+        methodCount++;
+    }
+
+    /**
+     * Gets content of class-file.
+     *
+     * @param access     class' access flags
+     * @param thisClass  internal name of class
+     * @param superClass internal name of class' superclass
+     * @param interfaces internal names of class' direct superinterfaces
+     * @param signature  class' JVM signature, or {@code null} if not needed
+     * @return content of class-file
+     */
+    byte[] toByteArray(final int access, final String thisClass, final String superClass,
+                       final List<String> interfaces, final String signature) {
+        final int thisIndex = classConstant(thisClass);
+        final int superIndex = classConstant(superClass);
+        final int[] interfaceIndices = interfaces.stream().mapToInt(this::classConstant).toArray();
+        final int signatureIndex = signature == null ? 0 : utf8(signature);
+        final int signatureName = signature == null ? 0 : utf8("Signature");
+        final ByteArrayOutputStream result = new ByteArrayOutputStream();
+        write(result, out -> {
+            out.writeInt(MAGIC);
+            out.writeShort(0);
+            out.writeShort(MAJOR_VERSION);
+            out.writeShort(constants.size() + 1);
+            constantPool.writeTo(out);
+            out.writeShort(access);
+            out.writeShort(thisIndex);
+            out.writeShort(superIndex);
+            out.writeShort(interfaceIndices.length);
+            for (final int index : interfaceIndices) {
+                out.writeShort(index);
+            }
+            // no fields
+            out.writeShort(0);
+            out.writeShort(methodCount);
+            methods.writeTo(out);
+            if (signature == null) {
+                out.writeShort(0);
+            } else {
+                out.writeShort(1);
+                out.writeShort(signatureName);
+                out.writeInt(2);
+                out.writeShort(signatureIndex);
+            }
+        });
+        return result.toByteArray();
+    }
+
+    /**
+     * Writes data to byte array stream.
+     *
+     * @param stream stream to write to
+     * @param writer writes data
+     */
+    private static void write(final ByteArrayOutputStream stream, final DataWriter writer) {
+        try {
+            writer.write(new DataOutputStream(stream));
+        } catch (final IOException e) {
+            // ByteArrayOutputStream doesn't throw IOException
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Writes data to {@link DataOutputStream}.
+     *
+     * @author Aleksandr Eliseev
+     */
+    @FunctionalInterface
+    private interface DataWriter {
+        /**
+         * Writes data.
+         *
+         * @param out stream to write to
+         * @throws IOException if an I/O error occurs
+         */
+        void write(DataOutputStream out) throws IOException;
+    }
+
+    /**
+     * Bytecode of one method, without branches.
+     * Tracks maximum stack size and number of local variables.
+     *
+     * @author Aleksandr Eliseev
+     */
+    static final class Code {
+        /**
+         * Bytecode written so far.
+         */
+        private final ByteArrayOutputStream bytecode = new ByteArrayOutputStream();
+        /**
+         * Constant pool of class containing the method.
+         */
+        private final ClassFileWriter classFile;
+        /**
+         * Current stack size, in slots.
+         */
+        private int stack;
+        /**
+         * Maximum stack size, in slots.
+         */
+        private int maxStack;
+        /**
+         * Number of local variables, in slots.
+         */
+        private int maxLocals;
+
+        /**
+         * Creates empty code of the method with given parameters.
+         *
+         * @param classFile      class-file writer, that would contain the method
+         * @param isStatic       whether method is static
+         * @param parameterTypes method's parameter types
+         */
+        Code(final ClassFileWriter classFile, final boolean isStatic, final Class<?>... parameterTypes) {
+            this.classFile = classFile;
+            this.maxLocals = isStatic ? 0 : 1;
+            for (final Class<?> parameterType : parameterTypes) {
+                maxLocals += slots(parameterType);
+            }
+        }
+
+        /**
+         * Gets number of slots, occupied by value of given type.
+         *
+         * @param type type of value
+         * @return number of slots
+         */
+        static int slots(final Class<?> type) {
+            return type == void.class ? 0 : type == long.class || type == double.class ? 2 : 1;
+        }
+
+        /**
+         * Writes instruction and updates stack size.
+         *
+         * @param stackChange change of stack size, in slots
+         * @param bytes       instruction bytes
+         * @return this
+         */
+        private Code emit(final int stackChange, final int... bytes) {
+            for (final int b : bytes) {
+                bytecode.write(b);
+            }
+            stack += stackChange;
+            maxStack = Math.max(maxStack, stack);
+            return this;
+        }
+
+        /**
+         * Loads {@code this} reference.
+         *
+         * @return this
+         */
+        Code loadThis() {
+            return emit(1, 0x2a);
+        }
+
+        /**
+         * Loads local variable to stack.
+         *
+         * @param type  type of variable
+         * @param index index of variable's first slot
+         * @return this
+         */
+        Code load(final Class<?> type, final int index) {
+            final int opcode;
+            if (!type.isPrimitive()) {
+                opcode = 0x19;
+            } else if (type == long.class) {
+                opcode = 0x16;
+            } else if (type == float.class) {
+                opcode = 0x17;
+            } else if (type == double.class) {
+                opcode = 0x18;
+            } else {
+                opcode = 0x15;
+            }
+            return emit(slots(type), opcode, index);
+        }
+
+        /**
+         * Loads all parameters of the method to stack, converting them to given types.
+         *
+         * @param isStatic       whether method is static
+         * @param parameterTypes method's parameter types
+         * @param targetTypes    types parameters should be converted to
+         * @return this
+         */
+        Code loadParameters(final boolean isStatic, final Class<?>[] parameterTypes, final Class<?>[] targetTypes) {
+            int index = isStatic ? 0 : 1;
+            for (int i = 0; i < parameterTypes.length; i++) {
+                load(parameterTypes[i], index);
+                if (parameterTypes[i] != targetTypes[i]) {
+                    checkCast(targetTypes[i]);
+                }
+                index += slots(parameterTypes[i]);
+            }
+            return this;
+        }
+
+        /**
+         * Loads default value of given type to stack: {@code null}, {@code 0} or {@code false}.
+         * Does nothing for {@code void}.
+         *
+         * @param type type of value
+         * @return this
+         */
+        Code loadDefault(final Class<?> type) {
+            if (type == void.class) {
+                return this;
+            } else if (!type.isPrimitive()) {
+                return emit(1, 0x01);
+            } else if (type == long.class) {
+                return emit(2, 0x09);
+            } else if (type == float.class) {
+                return emit(1, 0x0b);
+            } else if (type == double.class) {
+                return emit(2, 0x0e);
+            } else {
+                return emit(1, 0x03);
+            }
+        }
+
+        /**
+         * Checks that reference on top of the stack has given type.
+         *
+         * @param type type to be checked
+         * @return this
+         */
+        Code checkCast(final Class<?> type) {
+            final int index = classFile.classConstant(internalName(type));
+            return emit(0, 0xc0, index >> 8, index & 0xff);
+        }
+
+        /**
+         * Invokes method.
+         *
+         * @param opcode         invocation instruction
+         * @param owner          internal name of class declaring method
+         * @param name           method's name
+         * @param returnType     method's return type
+         * @param parameterTypes method's parameter types
+         * @return this
+         */
+        private Code invoke(final int opcode, final String owner, final String name,
+                            final Class<?> returnType, final Class<?>... parameterTypes) {
+            int argumentSlots = 1;
+            for (final Class<?> parameterType : parameterTypes) {
+                argumentSlots += slots(parameterType);
+            }
+            final int index = classFile.methodRef(owner, name, methodDescriptor(returnType, parameterTypes));
+            return emit(slots(returnType) - argumentSlots, opcode, index >> 8, index & 0xff);
+        }
+
+        /**
+         * Invokes instance initialization method or private method.
+         *
+         * @param owner          internal name of class declaring method
+         * @param name           method's name
+         * @param returnType     method's return type
+         * @param parameterTypes method's parameter types
+         * @return this
+         */
+        Code invokeSpecial(final String owner, final String name,
+                           final Class<?> returnType, final Class<?>... parameterTypes) {
+            return invoke(0xb7, owner, name, returnType, parameterTypes);
+        }
+
+        /**
+         * Invokes virtual method.
+         *
+         * @param owner          internal name of class declaring method
+         * @param name           method's name
+         * @param returnType     method's return type
+         * @param parameterTypes method's parameter types
+         * @return this
+         */
+        Code invokeVirtual(final String owner, final String name,
+                           final Class<?> returnType, final Class<?>... parameterTypes) {
+            return invoke(0xb6, owner, name, returnType, parameterTypes);
+        }
+
+        /**
+         * Returns value of given type from the method.
+         *
+         * @param type type of value
+         * @return this
+         */
+        Code returnValue(final Class<?> type) {
+            final int opcode;
+            if (type == void.class) {
+                opcode = 0xb1;
+            } else if (!type.isPrimitive()) {
+                opcode = 0xb0;
+            } else if (type == long.class) {
+                opcode = 0xad;
+            } else if (type == float.class) {
+                opcode = 0xae;
+            } else if (type == double.class) {
+                opcode = 0xaf;
+            } else {
+                opcode = 0xac;
+            }
+            return emit(-slots(type), opcode);
+        }
+    }
+}
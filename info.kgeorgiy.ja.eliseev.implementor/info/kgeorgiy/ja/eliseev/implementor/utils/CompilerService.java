@@ -0,0 +1,354 @@
+package info.kgeorgiy.ja.eliseev.implementor.utils;
+
+import com.sun.source.util.JavacTask;
+import info.kgeorgiy.java.advanced.implementor.ImplerException;
+
+import javax.tools.*;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+/**
+ * Long-lived in-process compiler, that compiles generated sources in memory.
+ * Unlike one-shot {@link JavaCompiler#run} calls, file managers are shared between compilations,
+ * so classpath and platform classes are indexed once per classpath, not once per compilation.
+ * Symbol tables are still built per compilation, because {@link JavacTask} cannot be reused.
+ * <p>
+ * Instance is thread-safe: each concurrent compilation uses its own file manager.
+ * <p>
+ * File managers are kept for a bounded number of recently used classpaths, and file managers for other classpaths
+ * are closed. File managers are also replaced, when a file on their classpath, such as <var>.jar</var> file,
+ * is modified, so that compilation doesn't use stale index of rebuilt file.
+ *
+ * @author Aleksandr Eliseev
+ */
+public final class CompilerService {
+    /**
+     * Options used for all compilations. Generated sources need neither annotation processing,
+     * nor compilation of sources found on classpath.
+     */
+    private static final List<String> OPTIONS = List.of("-proc:none", "-implicit:none", "-Xlint:none");
+    /**
+     * Source code compiled to load compiler classes and index platform classes in advance.
+     */
+    private static final String WARM_UP_SOURCE = "class CompilerServiceWarmUp extends java.lang.Object {}";
+    /**
+     * Maximal number of classpaths, for which file managers are kept.
+     */
+    private static final int MAX_POOLS = 16;
+
+    /**
+     * System java compiler.
+     */
+    private final JavaCompiler compiler;
+    /**
+     * Maps classpath to pool of file managers, that use this classpath, in order of access.
+     * Guarded by itself.
+     */
+    private final Map<String, FileManagerPool> pools = new LinkedHashMap<>(MAX_POOLS, 0.75f, true);
+
+    /**
+     * Creates service using given compiler.
+     *
+     * @param compiler compiler to be used
+     */
+    private CompilerService(final JavaCompiler compiler) {
+        this.compiler = compiler;
+    }
+
+    /**
+     * Gets the compiler service.
+     * First call starts warming up compiler in background.
+     *
+     * @return compiler service
+     * @throws ImplerException if {@code jdk.compiler} module is not available
+     */
+    public static CompilerService getInstance() throws ImplerException {
+        if (Holder.INSTANCE == null) {
+            throw new ImplerException("Cannot compile generated file: java compiler is not available");
+        }
+        return Holder.INSTANCE;
+    }
+
+    /**
+     * Starts preparing file manager for given classpath in background, if there is no one yet.
+     * Call this before analysis, so that compilation of its result doesn't wait for classpath indexing.
+     *
+     * @param classPath classpath to be used in later compilation
+     */
+    public void warmUp(final String classPath) {
+        getPool(classPath).warmUp();
+    }
+
+    /**
+     * Compiles java sources in memory.
+     * Neither source code nor compiled classes are written to file system.
+     *
+     * @param sources   mapping from binary names of classes to source code declaring them
+     * @param classPath classpath to be used in compilation
+     * @return mapping from binary names of compiled classes to their class-files' content
+     * @throws ImplerException if compilation error occurs
+     * @see InMemoryFileManager
+     */
+    public Map<String, byte[]> compile(final Map<String, String> sources, final String classPath)
+            throws ImplerException {
+        final List<JavaFileObject> files = sources.entrySet().stream()
+                .map(entry -> InMemoryFileManager.sourceFile(entry.getKey(), entry.getValue()))
+                .toList();
+        final FileManagerPool pool = getPool(classPath);
+        final StandardJavaFileManager fileManager = pool.borrow();
+        try {
+            // InMemoryFileManager is not closed, because that would close shared file manager
+            final InMemoryFileManager inMemoryFileManager = new InMemoryFileManager(fileManager);
+            final DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+            final JavacTask task = (JavacTask) compiler.getTask(
+                    null, inMemoryFileManager, diagnostics, OPTIONS, null, files);
+            task.generate();
+            final String errors = diagnostics.getDiagnostics().stream()
+                    .filter(diagnostic -> diagnostic.getKind() == Diagnostic.Kind.ERROR)
+                    .map(Object::toString)
+                    .collect(Collectors.joining(IOUtils.LINE_SEPARATOR));
+            if (!errors.isEmpty()) {
+                throw new ImplerException("Cannot compile generated file:" + IOUtils.LINE_SEPARATOR + errors);
+            }
+            return inMemoryFileManager.getClasses();
+        } catch (final IOException e) {
+            throw new ImplerException("Cannot compile generated file", e);
+        } finally {
+            pool.release(fileManager);
+        }
+    }
+
+    /**
+     * Gets pool of file managers for given classpath, creating it if needed.
+     * Pool is replaced, if files on classpath were modified since it was created.
+     * Least recently used pool is closed, if there are too many pools.
+     *
+     * @param classPath classpath of file managers
+     * @return pool of file managers
+     */
+    private FileManagerPool getPool(final String classPath) {
+        final List<Long> stamp = getStamp(classPath);
+        synchronized (pools) {
+            final FileManagerPool pool = pools.get(classPath);
+            if (pool != null && pool.stamp.equals(stamp)) {
+                return pool;
+            }
+            if (pool != null) {
+                pool.close();
+            }
+            final FileManagerPool created = new FileManagerPool(classPath, stamp);
+            pools.put(classPath, created);
+            if (pools.size() > MAX_POOLS) {
+                final Iterator<FileManagerPool> eldest = pools.values().iterator();
+                eldest.next().close();
+                eldest.remove();
+            }
+            return created;
+        }
+    }
+
+    /**
+     * Gets entries of classpath.
+     *
+     * @param classPath classpath
+     * @return paths of non-empty entries
+     */
+    private static List<Path> getEntries(final String classPath) {
+        return Arrays.stream(classPath.split(File.pathSeparator))
+                .filter(entry -> !entry.isEmpty())
+                .map(Path::of)
+                .toList();
+    }
+
+    /**
+     * Gets modification times and sizes of regular files, such as <var>.jar</var> files, on classpath.
+     * Directories are not included, as file managers don't cache their content.
+     *
+     * @param classPath classpath
+     * @return modification time and size of each regular file, or {@code -1} if they cannot be read
+     */
+    private static List<Long> getStamp(final String classPath) {
+        final List<Long> stamp = new ArrayList<>();
+        for (final Path entry : getEntries(classPath)) {
+            try {
+                final BasicFileAttributes attributes = Files.readAttributes(entry, BasicFileAttributes.class);
+                if (attributes.isRegularFile()) {
+                    stamp.add(attributes.lastModifiedTime().toMillis());
+                    stamp.add(attributes.size());
+                }
+            } catch (final IOException e) {
+                stamp.add(-1L);
+            }
+        }
+        return stamp;
+    }
+
+    /**
+     * Lazy holder of the {@link CompilerService} instance.
+     *
+     * @author Aleksandr Eliseev
+     */
+    private static final class Holder {
+        /**
+         * The instance, {@code null} if {@code jdk.compiler} module is not available.
+         */
+        private static final CompilerService INSTANCE;
+
+        static {
+            final JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+            INSTANCE = compiler == null ? null : new CompilerService(compiler);
+            if (INSTANCE != null) {
+                INSTANCE.warmUp("");
+            }
+        }
+    }
+
+    /**
+     * Pool of idle file managers, that use the same classpath.
+     *
+     * @author Aleksandr Eliseev
+     */
+    private final class FileManagerPool {
+        /**
+         * Classpath of file managers.
+         */
+        private final String classPath;
+        /**
+         * Modification times and sizes of files on {@link #classPath}, when pool was created.
+         */
+        private final List<Long> stamp;
+        /**
+         * File managers, that are not used by any compilation now.
+         */
+        private final Deque<StandardJavaFileManager> idle = new ConcurrentLinkedDeque<>();
+        /**
+         * Whether warm up of this pool was already started.
+         */
+        private final AtomicBoolean warmedUp = new AtomicBoolean();
+        /**
+         * Whether pool was evicted, so that file managers are closed instead of being returned to the pool.
+         */
+        private volatile boolean closed;
+
+        /**
+         * Constructor, that assign its arguments to class' fields.
+         *
+         * @param classPath value of {@link #classPath}
+         * @param stamp     value of {@link #stamp}
+         */
+        private FileManagerPool(final String classPath, final List<Long> stamp) {
+            this.classPath = classPath;
+            this.stamp = stamp;
+        }
+
+        /**
+         * Starts creating file manager and compiling trivial source with it in background, if not started yet.
+         * File manager is returned to the pool, if compilation succeeds, and closed otherwise.
+         * Failures are ignored, as the same failures are reported by compilations, that borrow file managers.
+         */
+        private void warmUp() {
+            if (warmedUp.compareAndSet(false, true)) {
+                CompletableFuture.runAsync(() -> {
+                    final StandardJavaFileManager fileManager;
+                    try {
+                        fileManager = create();
+                    } catch (final IOException e) {
+                        return;
+                    }
+                    boolean compiled = false;
+                    try {
+                        compiler.getTask(null, new InMemoryFileManager(fileManager), diagnostic -> {
+                        }, OPTIONS, null, List.of(InMemoryFileManager.sourceFile(
+                                "CompilerServiceWarmUp", WARM_UP_SOURCE))).call();
+                        compiled = true;
+                    } finally {
+                        if (compiled) {
+                            release(fileManager);
+                        } else {
+                            closeQuietly(fileManager);
+                        }
+                    }
+                });
+            }
+        }
+
+        /**
+         * Takes idle file manager, or creates new one, if there are no idle file managers.
+         *
+         * @return file manager, that is not used by any other compilation
+         * @throws ImplerException if file manager cannot be created
+         */
+        private StandardJavaFileManager borrow() throws ImplerException {
+            warmedUp.set(true);
+            final StandardJavaFileManager fileManager = idle.pollFirst();
+            if (fileManager != null) {
+                return fileManager;
+            }
+            try {
+                return create();
+            } catch (final IOException e) {
+                throw new ImplerException("Cannot create compiler file manager", e);
+            }
+        }
+
+        /**
+         * Returns file manager, that was taken by {@link #borrow()}, to the pool.
+         *
+         * @param fileManager file manager to be returned
+         */
+        private void release(final StandardJavaFileManager fileManager) {
+            idle.offerFirst(fileManager);
+            // Pool might be closed concurrently, after file manager was checked to be idle
+            if (closed && idle.remove(fileManager)) {
+                closeQuietly(fileManager);
+            }
+        }
+
+        /**
+         * Closes idle file managers, and makes file managers, that are in use, be closed when released.
+         */
+        private void close() {
+            closed = true;
+            for (StandardJavaFileManager fileManager = idle.pollFirst(); fileManager != null;
+                 fileManager = idle.pollFirst()) {
+                closeQuietly(fileManager);
+            }
+        }
+
+        /**
+         * Closes file manager, ignoring errors.
+         *
+         * @param fileManager file manager to be closed
+         */
+        private void closeQuietly(final StandardJavaFileManager fileManager) {
+            try {
+                fileManager.close();
+            } catch (final IOException ignored) {
+                // File manager is not used anymore
+            }
+        }
+
+        /**
+         * Creates new file manager, that uses classpath of this pool and doesn't search for sources.
+         *
+         * @return new file manager
+         * @throws IOException if classpath cannot be set
+         */
+        private StandardJavaFileManager create() throws IOException {
+            final StandardJavaFileManager fileManager = compiler.getStandardFileManager(
+                    null, null, StandardCharsets.UTF_8);
+            fileManager.setLocationFromPaths(StandardLocation.CLASS_PATH, getEntries(classPath));
+            fileManager.setLocationFromPaths(StandardLocation.SOURCE_PATH, List.of());
+            return fileManager;
+        }
+    }
+}
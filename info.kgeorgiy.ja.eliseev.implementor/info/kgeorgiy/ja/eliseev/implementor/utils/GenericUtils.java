@@ -55,7 +55,9 @@ public final class GenericUtils {
                 if (replacement instanceof final TypeVariable<?> variable) {
                     return variable.getName();
                 }
-                return recursiveCall.apply(replacement);
+                // Replacement is a type of implemented class, so its type variables are not substituted,
+                // even if method's type parameters have the same names
+                return typeToStringInContext(Map.of(), replacement, Set.of());
             }
             return typeVariable.getName();
         } else if (type instanceof final WildcardType wildcard) {
@@ -81,6 +83,109 @@ public final class GenericUtils {
         }
     }
 
+    /**
+     * Converts {@code type} to its JVM signature, using {@code context} to substitute types.
+     * Substitution rules are the same as in {@link #typeToStringInContext(Map, Type, Set)}.
+     *
+     * @param context context used to substitute types
+     * @param type    type to be converted
+     * @param ignore  names of type variables that should not be converted using {@code context}, but left as is
+     * @return JVM signature of {@code type} in {@code context}
+     * @see <a href="https://docs.oracle.com/javase/specs/jvms/se17/html/jvms-4.html#jvms-4.7.9.1">
+     * Signatures</a>
+     */
+    public static String typeToSignatureInContext(
+            final Map<String, Type> context, final Type type, final Set<String> ignore) {
+        final Function<Type, String> recursiveCall = type_ -> typeToSignatureInContext(context, type_, ignore);
+
+        if (type instanceof final ParameterizedType parameterizedType) {
+            final String rawType = typeToSignatureInContext(context, parameterizedType.getRawType(), ignore);
+            final Type[] arguments = parameterizedType.getActualTypeArguments();
+            if (arguments.length == 0) {
+                return rawType;
+            }
+            return rawType.substring(0, rawType.length() - 1) + Arrays.stream(arguments)
+                    .map(recursiveCall)
+                    .collect(Collectors.joining("", "<", ">;"));
+        } else if (type instanceof final TypeVariable<?> typeVariable) {
+            if (!ignore.contains(typeVariable.getName()) && context.containsKey(typeVariable.getName())) {
+                final Type replacement = context.get(typeVariable.getName());
+                // Same as in typeToStringInContext
+                if (replacement instanceof final TypeVariable<?> variable) {
+                    return "T" + variable.getName() + ";";
+                }
+                return typeToSignatureInContext(Map.of(), replacement, Set.of());
+            }
+            return "T" + typeVariable.getName() + ";";
+        } else if (type instanceof final WildcardType wildcard) {
+            final Type[] lowerBounds = wildcard.getLowerBounds();
+            final Type[] upperBounds = wildcard.getUpperBounds();
+            if (lowerBounds.length != 0) {
+                return "-" + recursiveCall.apply(lowerBounds[0]);
+            } else if (upperBounds.length != 0 && !(upperBounds.length == 1 && upperBounds[0] == Object.class)) {
+                return "+" + recursiveCall.apply(upperBounds[0]);
+            }
+            return "*";
+        } else if (type instanceof final GenericArrayType arrayType) {
+            return "[" + recursiveCall.apply(arrayType.getGenericComponentType());
+        } else if (type instanceof final Class<?> clazz) {
+            return clazz.descriptorString();
+        } else {
+            throw new AssertionError("Unreachable");
+        }
+    }
+
+    /**
+     * Gets JVM signature of the list of type parameters.
+     * If there are no type parameters, result would be empty string.
+     *
+     * @param typeParameters type parameters to get signature of
+     * @param context        context used to substitute types
+     * @param <T>            type of type variables in {@code typeParameters} {@link List}
+     * @return JVM signature of {@code typeParameters}
+     * @see #typeParametersToString(List, Map)
+     */
+    public static <T extends TypeVariable<?>> String typeParametersToSignature(
+            final List<T> typeParameters, final Map<String, Type> context) {
+        if (typeParameters.isEmpty()) {
+            return "";
+        }
+        final Set<String> ignore = typeParameters.stream().map(TypeVariable::getName).collect(Collectors.toSet());
+        final StringBuilder result = new StringBuilder("<");
+        for (final T typeParameter : typeParameters) {
+            result.append(typeParameter.getName());
+            final Type[] bounds = typeParameter.getBounds();
+            for (int i = 0; i < bounds.length; i++) {
+                // First bound is class bound, unless it is an interface
+                if (i == 0 && isInterfaceBound(bounds[0], context, ignore)) {
+                    result.append(":");
+                }
+                result.append(":").append(typeToSignatureInContext(context, bounds[i], ignore));
+            }
+        }
+        return result.append(">").toString();
+    }
+
+    /**
+     * Checks if type variable bound is an interface type, after substitution with {@code context}.
+     *
+     * @param bound   bound of type variable
+     * @param context context used to substitute types
+     * @param ignore  names of type variables that should not be converted using {@code context}
+     * @return {@code true} if and only if {@code bound} is an interface type
+     */
+    private static boolean isInterfaceBound(final Type bound, final Map<String, Type> context,
+                                            final Set<String> ignore) {
+        Type type = bound;
+        if (type instanceof final TypeVariable<?> typeVariable && !ignore.contains(typeVariable.getName())) {
+            type = context.getOrDefault(typeVariable.getName(), type);
+        }
+        if (type instanceof final ParameterizedType parameterizedType) {
+            type = parameterizedType.getRawType();
+        }
+        return type instanceof final Class<?> clazz && clazz.isInterface();
+    }
+
     /**
      * Gets <a href="https://docs.oracle.com/javase/specs/jls/se19/html/jls-4.html#jls-4.6">type erasure</a>
      * of given {@code type} using {@code context} to substitute type variables.
@@ -171,76 +276,23 @@ public final class GenericUtils {
 
     /**
      * Checks if {@code method1} and {@code method2} have the
-     * <a href="https://docs.oracle.com/javase/specs/jls/se19/html/jls-8.html#jls-8.4.2">same signature</a>
+     * <a href="https://docs.oracle.com/javase/specs/jls/se19/html/jls-8.html#jls-8.4.2">same signature</a>.
+     * Signatures are compared by their hash-consed models, so no types are compared structurally.
      *
-     * @param method1  first method
-     * @param method2  second method
-     * @param contexts {@link GenericContexts} from which we can get contexts for methods
+     * @param method1 first method
+     * @param method2 second method
+     * @param index   index of hierarchy, that contains declaring classes of methods
      * @return true if and only if methods have the same signature
+     * @see TypeInterner#getSignature(Method)
      */
-    private static boolean isSameSignature(final Method method1, final Method method2, final GenericContexts contexts) {
-        if (!method1.getName().equals(method2.getName())) {
+    private static boolean isSameSignature(final Method method1, final Method method2, final HierarchyIndex index) {
+        if (!method1.getName().equals(method2.getName())
+                || method1.getParameterCount() != method2.getParameterCount()
+                || method1.getTypeParameters().length != method2.getTypeParameters().length) {
             return false;
         }
-        final Type[] method1ParametersTypes = method1.getGenericParameterTypes();
-        final Type[] method2ParametersTypes = method2.getGenericParameterTypes();
-        if (method1ParametersTypes.length != method2ParametersTypes.length) {
-            return false;
-        }
-
-        final TypeVariable<?>[] method1TypeParameters = method1.getTypeParameters();
-        final TypeVariable<?>[] method2TypeParameters = method2.getTypeParameters();
-        if (method1TypeParameters.length != method2TypeParameters.length) {
-            return false;
-        }
-
-        final Map<String, Type> method1Context = contexts.getContext(method1.getDeclaringClass());
-        // need copy because map would be changed
-        final Map<String, Type> method2Context = new HashMap<>(contexts.getContext(method2.getDeclaringClass()));
-
-        final Set<String> method1Ignore = Arrays.stream(method1TypeParameters)
-                .map(TypeVariable::getName)
-                .collect(Collectors.toSet());
-
-        for (int i = 0; i < method1TypeParameters.length; i++) {
-            method2Context.put(method2TypeParameters[i].getName(), method1TypeParameters[i]);
-        }
-
-        for (int i = 0; i < method1TypeParameters.length; i++) {
-            final TypeVariable<?> method1TypeParameter = method1TypeParameters[i];
-            final TypeVariable<?> method2TypeParameter = method2TypeParameters[i];
-            final Type[] method1TypeParameterBounds = method1TypeParameter.getBounds();
-            final Type[] method2TypeParameterBounds = method2TypeParameter.getBounds();
-
-            if (method1TypeParameterBounds.length != method2TypeParameterBounds.length) {
-                return false;
-            }
-
-            for (int j = 0; j < method1TypeParameterBounds.length; j++) {
-                final String method1TypeBound = typeToStringInContext(method1Context, method1TypeParameterBounds[j],
-                        method1Ignore);
-                final String method2TypeBound = typeToStringInContext(method2Context, method2TypeParameterBounds[j],
-                        Set.of());
-
-                if (!method1TypeBound.equals(method2TypeBound)) {
-                    return false;
-                }
-            }
-        }
-
-        for (int i = 0; i < method1ParametersTypes.length; i++) {
-            final Type method1Parameter = method1ParametersTypes[i];
-            final Type method2Parameter = method2ParametersTypes[i];
-
-            final String method1ParameterName = typeToStringInContext(method1Context, method1Parameter, method1Ignore);
-            final String method2ParameterName = typeToStringInContext(method2Context, method2Parameter, Set.of());
-
-            if (!method1ParameterName.equals(method2ParameterName)) {
-                return false;
-            }
-        }
-
-        return true;
+        final TypeInterner interner = index.getTypeInterner();
+        return interner.getSignature(method1).isIdentical(interner.getSignature(method2));
     }
 
     /**
@@ -248,17 +300,17 @@ public final class GenericUtils {
      * <a href="https://docs.oracle.com/javase/specs/jls/se8/html/jls-8.html#jls-8.4.2">subsignature</a>
      * of {@code method2}'s signature.
      *
-     * @param method1  first method
-     * @param method2  second method
-     * @param contexts {@link GenericContexts} from which we can get contexts for methods
+     * @param method1 first method
+     * @param method2 second method
+     * @param index   index of hierarchy, that contains declaring classes of methods
      * @return {@code true} is and only if method1's signature is subsignature of method2's signature
-     * @see #isSameSignature(Method, Method, GenericContexts)
+     * @see #isSameSignature(Method, Method, HierarchyIndex)
      */
-    public static boolean isSubSignature(final Method method1, final Method method2, final GenericContexts contexts) {
+    public static boolean isSubSignature(final Method method1, final Method method2, final HierarchyIndex index) {
         if (!method1.getName().equals(method2.getName())) {
             return false;
         }
-        if (isSameSignature(method1, method2, contexts)) {
+        if (isSameSignature(method1, method2, index)) {
             return true;
         }
         final Type[] method1ParameterTypes = method1.getGenericParameterTypes();
@@ -271,17 +323,17 @@ public final class GenericUtils {
      * Checks if {@code method1} and {@code method2} are
      * <a href=https://docs.oracle.com/javase/specs/jls/se19/html/jls-8.html#jls-8.4.2>override-equivalent</a>.
      *
-     * @param method1  first method
-     * @param method2  second method
-     * @param contexts {@link GenericContexts} from which we can get contexts for methods
+     * @param method1 first method
+     * @param method2 second method
+     * @param index   index of hierarchy, that contains declaring classes of methods
      * @return {@code true} if and only if methods are override-equivalent
-     * @see #isSameSignature(Method, Method, GenericContexts)
-     * @see #isSubSignature(Method, Method, GenericContexts)
+     * @see #isSameSignature(Method, Method, HierarchyIndex)
+     * @see #isSubSignature(Method, Method, HierarchyIndex)
      */
     public static boolean isOverrideEquivalent(
-            final Method method1, final Method method2, final GenericContexts contexts) {
-        return isSubSignature(method1, method2, contexts) ||
-                isSubSignature(method2, method1, contexts);
+            final Method method1, final Method method2, final HierarchyIndex index) {
+        return isSubSignature(method1, method2, index) ||
+                isSubSignature(method2, method1, index);
     }
 
     /**
@@ -313,54 +365,51 @@ public final class GenericUtils {
     }
 
     /**
-     * Gets {@link GenericContexts} of given class and all of its superinterfaces and superclasses.
+     * Gets {@link GenericContexts} of given types.
+     * Each type is visited once: its context is computed from context of any of its subtypes,
+     * which are visited earlier.
      *
-     * @param root root to get contexts from
-     * @return contexts of given class and all of its superinterfaces and superclasses
-     * @see #fillContexts(Class, GenericContexts, Map)
+     * @param types class/interface and all of its superinterfaces and superclasses, in topological order,
+     *              so each type follows all of its supertypes
+     * @return contexts of given types
+     * @see HierarchyIndex#getTypes()
      */
-    public static GenericContexts getContexts(final Class<?> root) {
+    static GenericContexts getContexts(final List<Class<?>> types) {
         final GenericContexts contexts = new GenericContexts();
-        fillContexts(root, contexts, Map.of());
-        return contexts;
-    }
-
-    /**
-     * Adds contexts of given class and all of its superinterfaces and superclasses to {@code contexts}
-     *
-     * @param root          root to get contexts from
-     * @param contexts      map to add new contexts
-     * @param parentContext context used to substitute types' names.
-     * @see #getContexts(Class)
-     */
-    private static void fillContexts(
-            final Class<?> root, final GenericContexts contexts, final Map<String, Type> parentContext) {
-        Stream.concat(
-                Arrays.stream(root.getGenericInterfaces()),
-                Stream.of(root.getGenericSuperclass())
-        ).forEach(extendedType -> {
-            if (extendedType instanceof final ParameterizedType type) {
-                final Map<String, Type> typeParameterToActualType = new HashMap<>();
-                // getRawType is always instanceof Class, so cast is safe
-                final Class<?> rawType = (Class<?>) type.getRawType();
-                final TypeVariable<?>[] parameters = rawType.getTypeParameters();
-                final Type[] arguments = type.getActualTypeArguments();
-
-                for (int i = 0; i < parameters.length; i++) {
-                    typeParameterToActualType.put(
-                            parameters[i].getName(),
-                            parentContext.getOrDefault(
-                                    arguments[i].getTypeName(), arguments[i]
-                            )
-                    );
+        final Set<Class<?>> rawExtended = new HashSet<>();
+        for (int idx = types.size() - 1; idx >= 0; idx--) {
+            final Class<?> type = types.get(idx);
+            // Root and types extended without type arguments don't substitute names of their supertypes' arguments
+            final Map<String, Type> parentContext = idx == types.size() - 1 || rawExtended.contains(type)
+                    ? Map.of() : contexts.getContext(type);
+            Stream.concat(
+                    Arrays.stream(type.getGenericInterfaces()),
+                    Stream.of(type.getGenericSuperclass())
+            ).forEach(extendedType -> {
+                if (extendedType instanceof final ParameterizedType parameterizedType) {
+                    final Map<String, Type> typeParameterToActualType = new HashMap<>();
+                    // getRawType is always instanceof Class, so cast is safe
+                    final Class<?> rawType = (Class<?>) parameterizedType.getRawType();
+                    final TypeVariable<?>[] parameters = rawType.getTypeParameters();
+                    final Type[] arguments = parameterizedType.getActualTypeArguments();
+
+                    for (int i = 0; i < parameters.length; i++) {
+                        typeParameterToActualType.put(
+                                parameters[i].getName(),
+                                parentContext.getOrDefault(
+                                        arguments[i].getTypeName(), arguments[i]
+                                )
+                        );
+                    }
+                    contexts.addContext(rawType, typeParameterToActualType);
+                } else if (extendedType instanceof final Class<?> clazz) {
+                    rawExtended.add(clazz);
                 }
-                contexts.addContext(rawType, typeParameterToActualType);
-                fillContexts(rawType, contexts, typeParameterToActualType);
-            } else if (extendedType instanceof final Class<?> clazz) {
-                fillContexts(clazz, contexts, Map.of());
-            }
-            // nothing except ParameterizedType and Class can be, because it's extended type
-        });
+                // nothing except ParameterizedType and Class can be (or null for superclass of interface),
+                // because it's extended type
+            });
+        }
+        return contexts;
     }
 
     /**
@@ -0,0 +1,240 @@
+package info.kgeorgiy.ja.eliseev.implementor.utils;
+
+import info.kgeorgiy.ja.eliseev.implementor.GenericContexts;
+
+import java.lang.reflect.Method;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Precomputed view of class/interface and all of its supertypes, used by analysis of methods to be implemented.
+ * Supertype graph is traversed once, and each type is visited once, no matter how many paths lead to it,
+ * so diamond-shaped hierarchies don't make analysis exponential.
+ * Declared, inherited and member methods are computed once per type, in topological order of the hierarchy.
+ * Inherited and member methods are computed on first request.
+ * Instance is not thread-safe.
+ * Results of overriding checks are memorized, so each of them is computed once per analysis.
+ *
+ * @author Aleksandr Eliseev
+ */
+public final class HierarchyIndex {
+    /**
+     * Class/interface, which hierarchy is indexed.
+     */
+    private final Class<?> root;
+    /**
+     * {@link #root} and all of its supertypes, each type follows all of its supertypes.
+     */
+    private final List<Class<?>> types;
+    /**
+     * Maps types in hierarchy to methods declared in them.
+     */
+    private final Map<Class<?>, List<Method>> declaredMethods = new HashMap<>();
+    /**
+     * All methods declared in {@link #root} and its supertypes.
+     */
+    private final Set<Method> allMethods;
+    /**
+     * Maps names to methods from {@link #allMethods} with such name.
+     */
+    private final Map<String, List<Method>> methodsByName;
+    /**
+     * Generic contexts of all types in hierarchy.
+     */
+    private final GenericContexts contexts;
+    /**
+     * Interner of models of types in hierarchy.
+     */
+    private final TypeInterner typeInterner;
+    /**
+     * Maps types in hierarchy to methods inherited by them.
+     */
+    private final Map<Class<?>, Set<Method>> inheritedMethods = new HashMap<>();
+    /**
+     * Maps types in hierarchy to their member methods, i.e. declared or inherited ones.
+     */
+    private final Map<Class<?>, Set<Method>> memberMethods = new HashMap<>();
+    /**
+     * Whether computation of {@link #inheritedMethods} and {@link #memberMethods} was started.
+     */
+    private boolean membersComputed;
+    /**
+     * Memorized results of {@link MethodUtils} overriding checks.
+     * Keys are lists of overriding method, overridden method and class/interface, where overriding is checked.
+     */
+    private final Map<List<Object>, Boolean> overriding = new HashMap<>();
+
+    /**
+     * Indexes hierarchy of given class/interface.
+     *
+     * @param root class/interface to index hierarchy of
+     */
+    public HierarchyIndex(final Class<?> root) {
+        this.root = root;
+        final List<Class<?>> types = new ArrayList<>();
+        collectTypes(root, new HashSet<>(), types);
+        this.types = Collections.unmodifiableList(types);
+
+        final Set<Method> allMethods = new HashSet<>();
+        for (final Class<?> type : types) {
+            final List<Method> methods = List.of(type.getDeclaredMethods());
+            declaredMethods.put(type, methods);
+            allMethods.addAll(methods);
+        }
+        this.allMethods = Collections.unmodifiableSet(allMethods);
+        methodsByName = allMethods.stream().collect(Collectors.groupingBy(Method::getName));
+        contexts = GenericUtils.getContexts(types);
+        typeInterner = new TypeInterner(contexts);
+    }
+
+    /**
+     * Computes inherited and member methods of all types in hierarchy, if not computed yet.
+     * Computation is postponed until first request, because analysis results may be taken from cache.
+     */
+    private void computeMemberMethods() {
+        if (membersComputed) {
+            return;
+        }
+        membersComputed = true;
+        // Supertypes precede subtypes, so their member methods are known when inherited methods are computed
+        for (final Class<?> type : types) {
+            final Set<Method> inherited = MethodUtils.getInheritedMethods(type, this);
+            inheritedMethods.put(type, Collections.unmodifiableSet(inherited));
+            final Set<Method> members = new HashSet<>(declaredMethods.get(type));
+            members.addAll(inherited);
+            memberMethods.put(type, Collections.unmodifiableSet(members));
+        }
+    }
+
+    /**
+     * Adds {@code type} and all its supertypes, that are not visited yet, to {@code types} in post-order.
+     *
+     * @param type    type to start traversal from
+     * @param visited types, that were already visited
+     * @param types   list to add types to
+     */
+    private static void collectTypes(final Class<?> type, final Set<Class<?>> visited, final List<Class<?>> types) {
+        if (type == null || !visited.add(type)) {
+            return;
+        }
+        collectTypes(type.getSuperclass(), visited, types);
+        for (final Class<?> iface : type.getInterfaces()) {
+            collectTypes(iface, visited, types);
+        }
+        types.add(type);
+    }
+
+    /**
+     * Gets class/interface, which hierarchy is indexed.
+     *
+     * @return root of hierarchy
+     */
+    public Class<?> getRoot() {
+        return root;
+    }
+
+    /**
+     * Gets root and all of its supertypes in topological order: each type follows all of its supertypes,
+     * so root is the last one.
+     *
+     * @return unmodifiable list of types in hierarchy
+     */
+    public List<Class<?>> getTypes() {
+        return types;
+    }
+
+    /**
+     * Gets methods declared in given type.
+     *
+     * @param type type in hierarchy
+     * @return unmodifiable list of methods declared in {@code type}
+     */
+    public List<Method> getDeclaredMethods(final Class<?> type) {
+        return declaredMethods.get(type);
+    }
+
+    /**
+     * Gets all methods declared in root and all of its supertypes.
+     *
+     * @return unmodifiable set of methods
+     */
+    public Set<Method> getAllMethods() {
+        return allMethods;
+    }
+
+    /**
+     * Gets all methods with given name declared in root and all of its supertypes.
+     *
+     * @param name name of methods
+     * @return list of methods
+     * @see #getAllMethods()
+     */
+    public List<Method> getAllMethods(final String name) {
+        return Collections.unmodifiableList(methodsByName.getOrDefault(name, List.of()));
+    }
+
+    /**
+     * Gets generic contexts of all types in hierarchy.
+     *
+     * @return generic contexts
+     */
+    public GenericContexts getContexts() {
+        return contexts;
+    }
+
+    /**
+     * Gets methods inherited by given type.
+     *
+     * @param type type in hierarchy
+     * @return unmodifiable set of methods inherited by {@code type}
+     */
+    public Set<Method> getInheritedMethods(final Class<?> type) {
+        computeMemberMethods();
+        return inheritedMethods.get(type);
+    }
+
+    /**
+     * Gets member methods of given type. Member methods are either methods inherited or declared in type.
+     *
+     * @param type type in hierarchy
+     * @return unmodifiable set of member methods of {@code type}
+     */
+    public Set<Method> getMemberMethods(final Class<?> type) {
+        computeMemberMethods();
+        return memberMethods.get(type);
+    }
+
+    /**
+     * Gets interner of models of types in hierarchy.
+     *
+     * @return type interner
+     */
+    TypeInterner getTypeInterner() {
+        return typeInterner;
+    }
+
+    /**
+     * Gets memorized result of check, whether {@code overriding} overrides {@code overridden} from {@code from}.
+     *
+     * @param overriding method to check if overrides
+     * @param overridden method to check if overridden
+     * @param from       class/interface to check point of overriding
+     * @return memorized result, or {@code null} if check was not performed yet
+     */
+    Boolean getOverriding(final Method overriding, final Method overridden, final Class<?> from) {
+        return this.overriding.get(List.of(overriding, overridden, from));
+    }
+
+    /**
+     * Memorizes result of check, whether {@code overriding} overrides {@code overridden} from {@code from}.
+     *
+     * @param overriding method to check if overrides
+     * @param overridden method to check if overridden
+     * @param from       class/interface to check point of overriding
+     * @param result     result of check
+     */
+    void putOverriding(final Method overriding, final Method overridden, final Class<?> from,
+                       final boolean result) {
+        this.overriding.put(List.of(overriding, overridden, from), result);
+    }
+}
@@ -1,19 +1,22 @@
 package info.kgeorgiy.ja.eliseev.implementor.utils;
 
+import info.kgeorgiy.ja.eliseev.implementor.DispatchHandler;
+import info.kgeorgiy.ja.eliseev.implementor.GenerationMode;
+import info.kgeorgiy.ja.eliseev.implementor.IOConsumer;
 import info.kgeorgiy.ja.eliseev.implementor.ImplementationMethodSignature;
 import info.kgeorgiy.ja.eliseev.implementor.Implementor;
-import info.kgeorgiy.java.advanced.implementor.ImplerException;
 
-import javax.tools.JavaCompiler;
-import javax.tools.ToolProvider;
+import java.io.File;
 import java.io.IOException;
 import java.io.Writer;
 import java.lang.reflect.*;
 import java.net.URISyntaxException;
-import java.nio.charset.StandardCharsets;
-import java.nio.file.*;
-import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.util.*;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.jar.Attributes;
 import java.util.jar.Manifest;
 import java.util.stream.Collectors;
@@ -26,25 +29,6 @@ import java.util.stream.Stream;
  * @author Aleksandr Eliseev
  */
 public final class IOUtils {
-    /**
-     * {@link FileVisitor} implementation that recursively deletes directory.
-     * Copy of {@code info.kgeorgiy.java.advanced.implementor.BaseImplementorTest.DELETE_VISITOR}.
-     */
-    public static final FileVisitor<Path> DELETE_VISITOR = new SimpleFileVisitor<>() {
-        @Override
-        public FileVisitResult visitFile(final Path file, final BasicFileAttributes attrs) throws IOException {
-            Files.delete(file);
-            return FileVisitResult.CONTINUE;
-        }
-
-        @Override
-        public FileVisitResult postVisitDirectory(final Path dir, final IOException exc) throws IOException {
-            Files.delete(dir);
-            return FileVisitResult.CONTINUE;
-        }
-    };
-    // @code instead of @link,
-    // because info.kgeorgiy.java.advanced.implementor.BaseImplementorTest.DELETE_VISITOR is private
     /**
      * Platform-independent path separator used in <var>.jar</var>-files.
      */
@@ -65,6 +49,34 @@ public final class IOUtils {
      * Java compiled class-files extension.
      */
     public static final String CLASS_EXTENSION = ".class";
+    /**
+     * Name of field, that holds delegate in implementations generated with {@link GenerationMode#DELEGATE}.
+     */
+    public static final String DELEGATE_FIELD = "delegate";
+    /**
+     * Name of field, that holds handler in implementations generated with {@link GenerationMode#DISPATCH}.
+     */
+    public static final String HANDLER_FIELD = "handler";
+    /**
+     * Prefix of names of static fields, that hold implemented methods in implementations generated with
+     * {@link GenerationMode#DISPATCH}. Name of field is prefix followed by id of method.
+     */
+    public static final String METHOD_FIELD_PREFIX = "METHOD_";
+    /**
+     * Name of static method, that gets numbers of calls of implemented methods in implementations
+     * generated with {@link GenerationMode#COUNTING}.
+     */
+    public static final String CALL_COUNTS_METHOD = "getCallCounts";
+    /**
+     * Name of static field, that holds call counters in implementations generated with
+     * {@link GenerationMode#COUNTING}. Counter of method with id {@code i} is {@code i}-th element of array.
+     */
+    private static final String CALL_COUNTERS_FIELD = "CALL_COUNTERS";
+    /**
+     * Name of static field, that holds names of counted methods in implementations generated with
+     * {@link GenerationMode#COUNTING}, in the same order as {@value CALL_COUNTERS_FIELD}.
+     */
+    private static final String COUNTED_METHODS_FIELD = "COUNTED_METHODS";
     /**
      * Simple manifest used in {@link Implementor#implementJar(Class, Path)} to create <var>.jar</var>-file.
      */
@@ -83,16 +95,27 @@ public final class IOUtils {
     }
 
     /**
-     * Replaces path delimiters with {@value JAR_PATH_SEPARATOR}.
+     * Gets binary name of implementation of {@code token}.
+     * Implementation is in the same package as {@code token}, and its name is {@code token.getSimpleName()} with
+     * {@value CLASS_NAME_SUFFIX} suffix.
      *
-     * @param path path to be converted
-     * @return {@link String} representation of converted path
+     * @param token class/interface to be implemented
+     * @return binary name of implementation class
      */
-    public static String convertToJarPath(final Path path) {
-        final List<String> result = new ArrayList<>();
-        path.iterator()
-                .forEachRemaining(pathSegment -> result.add(pathSegment.toString()));
-        return String.join(JAR_PATH_SEPARATOR, result);
+    public static String getImplementationName(final Class<?> token) {
+        final String simpleName = token.getSimpleName() + CLASS_NAME_SUFFIX;
+        final String packageName = token.getPackageName();
+        return packageName.isEmpty() ? simpleName : packageName + "." + simpleName;
+    }
+
+    /**
+     * Gets path of class-file of class with given binary name inside <var>.jar</var>-file.
+     *
+     * @param className binary name of class
+     * @return path to class-file, with {@value JAR_PATH_SEPARATOR} as path delimiter
+     */
+    public static String getClassFileJarPath(final String className) {
+        return className.replace(".", JAR_PATH_SEPARATOR) + CLASS_EXTENSION;
     }
 
     /**
@@ -110,6 +133,8 @@ public final class IOUtils {
     /**
      * Creates a directory for package {@code packageName} in directory {@code root}
      * by creating all nonexistent parent directories first.
+     * Concurrent calls for the same or nested packages are safe: directories created by another call
+     * are not reported as errors.
      *
      * @param packageName name of the package
      * @param root        root directory
@@ -119,6 +144,67 @@ public final class IOUtils {
         Files.createDirectories(getDirectory(packageName, root));
     }
 
+    /**
+     * Writes file, so that other threads and processes see either its previous content, or complete new content.
+     * Content is written to a unique temporary file in the same directory, which then replaces {@code target}
+     * with atomic move, if file system supports it. Temporary file is removed if writing fails.
+     * When several calls write the same file concurrently, content of one of them is kept.
+     *
+     * @param target file to be written
+     * @param writer action, that writes content to given temporary file, which doesn't exist yet
+     * @throws IOException if an I/O error occurs
+     */
+    public static void writeAtomically(final Path target, final IOConsumer<Path> writer) throws IOException {
+        final Path temporary = getTemporarySibling(target);
+        try {
+            writer.accept(temporary);
+            replaceAtomically(temporary, target);
+        } finally {
+            deleteQuietly(temporary);
+        }
+    }
+
+    /**
+     * Gets path of unique temporary file in the same directory as {@code target}.
+     * Temporary file is hidden on Unix-like systems, and is not created by this method.
+     *
+     * @param target file to be replaced with temporary file, once it is written
+     * @return path of temporary file
+     * @see #replaceAtomically(Path, Path)
+     */
+    public static Path getTemporarySibling(final Path target) {
+        return target.resolveSibling("." + target.getFileName() + "." + UUID.randomUUID() + ".tmp");
+    }
+
+    /**
+     * Moves completely written temporary file over {@code target}, atomically if file system supports it.
+     *
+     * @param temporary written temporary file in the same directory as {@code target}
+     * @param target    file to be replaced
+     * @throws IOException if an I/O error occurs
+     * @see #getTemporarySibling(Path)
+     */
+    public static void replaceAtomically(final Path temporary, final Path target) throws IOException {
+        try {
+            Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (final AtomicMoveNotSupportedException e) {
+            Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Deletes temporary file, if it exists, ignoring errors.
+     *
+     * @param temporary file to be deleted
+     */
+    public static void deleteQuietly(final Path temporary) {
+        try {
+            Files.deleteIfExists(temporary);
+        } catch (final IOException ignored) {
+            // Temporary file is left, but target is already written or error is reported
+        }
+    }
+
     /**
      * Gets path to file, that is in the directory corresponds to {@code token} package in directory {@code root},
      * has same name as {@code token} class and given extension.
@@ -152,37 +238,38 @@ public final class IOUtils {
     }
 
     /**
-     * Compiles java source file.
-     * Almost a copy of {@link info.kgeorgiy.java.advanced.implementor.BaseImplementorTest#compileFiles(Path, List)}.
+     * Gets classpath, that contains all given classes, which are not loaded by bootstrap or platform class loaders.
      *
-     * @param file      path to source file
-     * @param classPath classpath to be used in compilation
-     * @throws ImplerException if {@code jdk.compiler} module is not available, or compilation error occurs
-     */
-    public static void compile(final String file, final String classPath) throws ImplerException {
-        final String[] args = Stream.concat(Stream.of(file), Stream.of(
-                "-encoding",
-                StandardCharsets.UTF_8.toString(),
-                "-cp",
-                classPath)
-        ).toArray(String[]::new);
-        final JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
-        if (compiler == null || compiler.run(null, null, null, args) != 0) {
-            throw new ImplerException("Cannot compile generated file");
-        }
+     * @param tokens class tokens to get classpath of
+     * @return classpath, that consists of distinct classpaths of {@code tokens}
+     * @see #getClassPath(Class)
+     */
+    public static String getClassPath(final Collection<Class<?>> tokens) {
+        return tokens.stream()
+                .filter(token -> token.getProtectionDomain().getCodeSource() != null)
+                .map(IOUtils::getClassPath)
+                .distinct()
+                .collect(Collectors.joining(File.pathSeparator));
     }
 
     /**
-     * Recursively deletes directory with all subdirectories.
-     * Copy of {@link info.kgeorgiy.java.advanced.implementor.BaseImplementorTest#clean(Path)}
+     * Gets paths of all directories inside <var>.jar</var>-file, that contain class-files of given classes.
      *
-     * @param root directory to be deleted
-     * @throws IOException if an I/O error occurs
+     * @param classNames binary names of classes
+     * @return sorted set of directories' paths, each ending with {@value JAR_PATH_SEPARATOR}
+     * @see #getClassFileJarPath(String)
      */
-    public static void clean(final Path root) throws IOException {
-        if (Files.exists(root)) {
-            Files.walkFileTree(root, DELETE_VISITOR);
+    public static SortedSet<String> getJarDirectories(final Collection<String> classNames) {
+        final SortedSet<String> result = new TreeSet<>();
+        for (final String className : classNames) {
+            final String path = getClassFileJarPath(className);
+            int end = path.indexOf(JAR_PATH_SEPARATOR);
+            while (end >= 0) {
+                result.add(path.substring(0, end + 1));
+                end = path.indexOf(JAR_PATH_SEPARATOR, end + 1);
+            }
         }
+        return result;
     }
 
     /**
@@ -209,7 +296,6 @@ public final class IOUtils {
      * @throws IOException if an I/O error occurs
      */
     public static void writeClassDeclaration(final Writer writer, final Class<?> token) throws IOException {
-        final TypeVariable<?>[] typeParameters = token.getTypeParameters();
         writer.write("public class " +
                 token.getSimpleName() +
                 CLASS_NAME_SUFFIX +
@@ -218,15 +304,41 @@ public final class IOUtils {
                 " " +
                 (token.isInterface() ? "implements" : "extends") +
                 " " +
-                token.getCanonicalName() +
-                (typeParameters.length == 0 ? " " : Arrays.stream(typeParameters)
-                        .map(TypeVariable::getName)
-                        .collect(Collectors.joining(", ", "<", "> "))) +
-                "{" +
+                getParameterizedName(token) +
+                " {" +
                 LINE_SEPARATOR
         );
     }
 
+    /**
+     * Gets name of {@code token} parameterized by its own type parameters, as used inside implementation.
+     *
+     * @param token class/interface to be implemented
+     * @return canonical name of {@code token}, followed by names of its type parameters in angle brackets, if any
+     */
+    private static String getParameterizedName(final Class<?> token) {
+        final TypeVariable<?>[] typeParameters = token.getTypeParameters();
+        return token.getCanonicalName() + (typeParameters.length == 0 ? "" : Arrays.stream(typeParameters)
+                .map(TypeVariable::getName)
+                .collect(Collectors.joining(", ", "<", ">")));
+    }
+
+    /**
+     * Writes declaration of field {@value DELEGATE_FIELD}, which type is {@code token}.
+     * Field is protected, so that subclasses of implementation can use it.
+     * Code would be indented for 4 whitespaces from the lines' start and properly formatted.
+     *
+     * @param writer used to write output text
+     * @param token  class/interface to be implemented
+     * @throws IOException if an I/O error occurs
+     * @see #writeDelegatingMethodImplementation(Writer, ImplementationMethodSignature)
+     */
+    public static void writeDelegateField(final Writer writer, final Class<?> token) throws IOException {
+        indent(writer);
+        writer.write("protected final " + getParameterizedName(token) + " " + DELEGATE_FIELD + ";"
+                + LINE_SEPARATOR.repeat(2));
+    }
+
     /**
      * Writes implementation of constructor matching given {@code constructor}.
      * Implemented constructor arguments would have names var0, var1, var2 and so on.
@@ -240,19 +352,113 @@ public final class IOUtils {
      */
     public static void writeConstructorImplementation(final Writer writer, final Constructor<?> constructor)
             throws IOException {
+        writeConstructorImplementation(writer, constructor.getDeclaringClass(), constructor, null, null);
+    }
+
+    /**
+     * Writes implementation of constructor, that initializes field {@value DELEGATE_FIELD}.
+     * Constructor takes delegate as first argument, followed by arguments of {@code constructor},
+     * as written by {@link #writeConstructorImplementation(Writer, Constructor)}.
+     * If {@code token} is interface, constructor is public and takes only delegate.
+     *
+     * @param writer      used to write output text
+     * @param token       class/interface to be implemented
+     * @param constructor the constructor implementation would match, or {@code null} if {@code token} is interface
+     * @throws IOException if an I/O error occurs
+     * @see #writeDelegateField(Writer, Class)
+     */
+    public static void writeDelegatingConstructorImplementation(final Writer writer, final Class<?> token,
+                                                                final Constructor<?> constructor)
+            throws IOException {
+        writeConstructorImplementation(writer, token, constructor, getParameterizedName(token), DELEGATE_FIELD);
+    }
+
+    /**
+     * Writes declarations of field {@value HANDLER_FIELD} and of static fields, that hold implemented methods.
+     * Static field of method with id {@code i} is named {@value METHOD_FIELD_PREFIX}{@code i},
+     * and is initialized with {@link DispatchHandler#findMethod(Class, String, Class[])}, so methods are resolved
+     * once, when implementation is initialized.
+     * Code would be indented for 4 whitespaces from the lines' start and properly formatted.
+     *
+     * @param writer           used to write output text
+     * @param token            class/interface to be implemented
+     * @param methodSignatures signatures of methods to be implemented, ids of methods are their indices
+     * @throws IOException if an I/O error occurs
+     * @see #writeDispatchingMethodImplementation(Writer, ImplementationMethodSignature, int)
+     */
+    public static void writeDispatchFields(final Writer writer, final Class<?> token,
+                                           final List<ImplementationMethodSignature> methodSignatures)
+            throws IOException {
+        for (int id = 0; id < methodSignatures.size(); id++) {
+            final Method method = methodSignatures.get(id).getReferenceMethod();
+            indent(writer);
+            writer.write("private static final " + Method.class.getName() + " " + METHOD_FIELD_PREFIX + id + " = "
+                    + Stream.concat(
+                            Stream.of(token.getCanonicalName() + ".class", "\"" + method.getName() + "\""),
+                            Arrays.stream(method.getParameterTypes()).map(type -> type.getCanonicalName() + ".class"))
+                    .collect(Collectors.joining(", ", DispatchHandler.class.getName() + ".findMethod(",
+                            ");" + LINE_SEPARATOR))
+            );
+        }
+        indent(writer);
+        writer.write("private final " + DispatchHandler.class.getName() + " " + HANDLER_FIELD + ";"
+                + LINE_SEPARATOR.repeat(2));
+    }
+
+    /**
+     * Writes implementation of constructor, that initializes field {@value HANDLER_FIELD}.
+     * Constructor takes handler as first argument, followed by arguments of {@code constructor},
+     * as written by {@link #writeConstructorImplementation(Writer, Constructor)}.
+     * If {@code token} is interface, constructor is public and takes only handler.
+     *
+     * @param writer      used to write output text
+     * @param token       class/interface to be implemented
+     * @param constructor the constructor implementation would match, or {@code null} if {@code token} is interface
+     * @throws IOException if an I/O error occurs
+     * @see #writeDispatchFields(Writer, Class, List)
+     */
+    public static void writeDispatchingConstructorImplementation(final Writer writer, final Class<?> token,
+                                                                 final Constructor<?> constructor)
+            throws IOException {
+        writeConstructorImplementation(writer, token, constructor, DispatchHandler.class.getName(), HANDLER_FIELD);
+    }
+
+    /**
+     * Writes implementation of constructor, optionally initializing field with its first argument.
+     *
+     * @param writer      used to write output text
+     * @param token       class/interface to be implemented
+     * @param constructor the constructor implementation would match, or {@code null} if {@code token} is interface
+     * @param fieldType   type of initialized field, or {@code null} if no field is initialized
+     * @param fieldName   name of initialized field, or {@code null} if no field is initialized
+     * @throws IOException if an I/O error occurs
+     * @see #writeConstructorImplementation(Writer, Constructor)
+     * @see #writeDelegatingConstructorImplementation(Writer, Class, Constructor)
+     * @see #writeDispatchingConstructorImplementation(Writer, Class, Constructor)
+     */
+    private static void writeConstructorImplementation(final Writer writer, final Class<?> token,
+                                                       final Constructor<?> constructor, final String fieldType,
+                                                       final String fieldName) throws IOException {
         indent(writer);
-        final String modifiers = Modifier.toString(constructor.getModifiers() & Modifier.constructorModifiers());
+        final String modifiers = constructor == null ? "public"
+                : Modifier.toString(constructor.getModifiers() & Modifier.constructorModifiers());
+        final TypeVariable<?>[] constructorTypeParameters = constructor == null ? new TypeVariable<?>[0]
+                : constructor.getTypeParameters();
         writer.write(modifiers +
                 (modifiers.isEmpty() ? "" : " ") +
-                GenericUtils.typeParametersToString(Arrays.asList(constructor.getTypeParameters()), Map.of()) +
-                constructor.getDeclaringClass().getSimpleName() +
+                GenericUtils.typeParametersToString(Arrays.asList(constructorTypeParameters), Map.of()) +
+                token.getSimpleName() +
                 "Impl"
         );
-        final Set<String> typeParameterNames = Arrays.stream(constructor.getTypeParameters())
+        final Set<String> typeParameterNames = Arrays.stream(constructorTypeParameters)
                 .map(TypeVariable::getName)
                 .collect(Collectors.toSet());
-        final Type[] types = constructor.getGenericParameterTypes();
-        writer.write(IntStream.range(0, types.length).mapToObj(idx -> {
+        final Type[] types = constructor == null ? new Type[0] : constructor.getGenericParameterTypes();
+        final List<String> parameters = new ArrayList<>();
+        if (fieldName != null) {
+            parameters.add(fieldType + " " + fieldName);
+        }
+        IntStream.range(0, types.length).mapToObj(idx -> {
             final Type type = types[idx];
             if (constructor.isVarArgs() && idx == types.length - 1) {
                 if (type instanceof final GenericArrayType genericArrayType) {
@@ -264,8 +470,9 @@ public final class IOUtils {
                 }
             }
             return GenericUtils.typeToStringInContext(Map.of(), type, typeParameterNames) + " var" + idx;
-        }).collect(Collectors.joining(", ", "(", ") ")));
-        final Type[] exceptionTypes = constructor.getGenericExceptionTypes();
+        }).forEach(parameters::add);
+        writer.write("(" + String.join(", ", parameters) + ") ");
+        final Type[] exceptionTypes = constructor == null ? new Type[0] : constructor.getGenericExceptionTypes();
         if (exceptionTypes.length > 0) {
             writer.write(Arrays.stream(exceptionTypes)
                     .map(exceptionType -> GenericUtils.typeToStringInContext(
@@ -275,9 +482,15 @@ public final class IOUtils {
         }
         writer.write("{" + LINE_SEPARATOR);
 
-        indent(writer, 2);
-        writer.write(IntStream.range(0, constructor.getParameterCount()).mapToObj(idx -> "var" + idx)
-                .collect(Collectors.joining(", ", "super(", ");" + LINE_SEPARATOR)));
+        if (constructor != null) {
+            indent(writer, 2);
+            writer.write(IntStream.range(0, constructor.getParameterCount()).mapToObj(idx -> "var" + idx)
+                    .collect(Collectors.joining(", ", "super(", ");" + LINE_SEPARATOR)));
+        }
+        if (fieldName != null) {
+            indent(writer, 2);
+            writer.write("this." + fieldName + " = " + fieldName + ";" + LINE_SEPARATOR);
+        }
 
         indent(writer);
         writer.write("}" + LINE_SEPARATOR.repeat(2));
@@ -296,11 +509,50 @@ public final class IOUtils {
      */
     public static void writeMethodImplementation(
             final Writer writer, final ImplementationMethodSignature methodSignature) throws IOException {
+        writeMethodImplementation(writer, methodSignature, null);
+    }
+
+    /**
+     * Writes implementation of method with given {@code methodSignature}, that increments its call counter.
+     * Implemented method is the same as written by
+     * {@link #writeMethodImplementation(Writer, ImplementationMethodSignature)}, but increments counter
+     * before returning default value.
+     *
+     * @param writer          used to write output text
+     * @param methodSignature signature of method to be implemented
+     * @param methodId        id of method, that is index of its counter
+     * @throws IOException if an I/O error occurs
+     * @see #writeCallCounters(Writer, List)
+     */
+    public static void writeCountingMethodImplementation(
+            final Writer writer, final ImplementationMethodSignature methodSignature, final int methodId)
+            throws IOException {
+        writeMethodImplementation(writer, methodSignature,
+                CALL_COUNTERS_FIELD + "[" + methodId + "].increment();");
+    }
+
+    /**
+     * Writes implementation of method with given {@code methodSignature}, that executes given statement
+     * and returns default value.
+     *
+     * @param writer          used to write output text
+     * @param methodSignature signature of method to be implemented
+     * @param statement       statement executed by implemented method, or {@code null} if there is none
+     * @throws IOException if an I/O error occurs
+     * @see #writeMethodImplementation(Writer, ImplementationMethodSignature)
+     */
+    private static void writeMethodImplementation(
+            final Writer writer, final ImplementationMethodSignature methodSignature, final String statement)
+            throws IOException {
         indent(writer);
         writer.write("@Override" + LINE_SEPARATOR);
         indent(writer);
         writer.write(methodSignature.toString() + LINE_SEPARATOR);
         indent(writer, 2);
+        if (statement != null) {
+            writer.write(statement + LINE_SEPARATOR);
+            indent(writer, 2);
+        }
         final Class<?> clazz = methodSignature.getReferenceMethod().getReturnType();
         final String returnValue;
         if (clazz.equals(void.class)) {
@@ -319,6 +571,205 @@ public final class IOUtils {
         writer.write("}" + LINE_SEPARATOR.repeat(2));
     }
 
+    /**
+     * Writes declarations of static fields, that hold call counters of implemented methods,
+     * and of static method {@value CALL_COUNTS_METHOD}, that takes snapshot of counters.
+     * Counters are {@link LongAdder}s, so counting is allocation-free and
+     * doesn't block concurrent calls. Snapshot maps name of each method, followed by erased parameter types
+     * in parentheses, to number of its calls, in order of ids of methods.
+     * Code would be indented for 4 whitespaces from the lines' start and properly formatted.
+     *
+     * @param writer           used to write output text
+     * @param methodSignatures signatures of methods to be implemented, ids of methods are their indices
+     * @throws IOException if an I/O error occurs
+     * @see #writeCountingMethodImplementation(Writer, ImplementationMethodSignature, int)
+     */
+    public static void writeCallCounters(final Writer writer,
+                                         final List<ImplementationMethodSignature> methodSignatures)
+            throws IOException {
+        final String adder = LongAdder.class.getName();
+        indent(writer);
+        writer.write("private static final " + adder + "[] " + CALL_COUNTERS_FIELD
+                + " = java.util.stream.Stream.generate(" + adder + "::new).limit(" + methodSignatures.size()
+                + ").toArray(" + adder + "[]::new);" + LINE_SEPARATOR);
+        indent(writer);
+        writer.write(methodSignatures.stream()
+                .map(signature -> Arrays.stream(signature.getErasedParameterTypes())
+                        .map(Class::getTypeName)
+                        .collect(Collectors.joining(", ", "\"" + signature.getName() + "(", ")\"")))
+                .collect(Collectors.joining(", ",
+                        "private static final java.lang.String[] " + COUNTED_METHODS_FIELD + " = {",
+                        "};" + LINE_SEPARATOR.repeat(2))));
+
+        final String mapType = "java.util.Map<java.lang.String, java.lang.Long>";
+        indent(writer);
+        writer.write("public static " + mapType + " " + CALL_COUNTS_METHOD + "() {" + LINE_SEPARATOR);
+        indent(writer, 2);
+        writer.write("final " + mapType + " counts = new java.util.LinkedHashMap<>();" + LINE_SEPARATOR);
+        indent(writer, 2);
+        writer.write("for (int i = 0; i < " + CALL_COUNTERS_FIELD + ".length; i++) {" + LINE_SEPARATOR);
+        indent(writer, 3);
+        writer.write("counts.put(" + COUNTED_METHODS_FIELD + "[i], " + CALL_COUNTERS_FIELD + "[i].sum());"
+                + LINE_SEPARATOR);
+        indent(writer, 2);
+        writer.write("}" + LINE_SEPARATOR);
+        indent(writer, 2);
+        writer.write("return counts;" + LINE_SEPARATOR);
+        indent(writer);
+        writer.write("}" + LINE_SEPARATOR.repeat(2));
+    }
+
+    /**
+     * Writes implementation of method with given {@code methodSignature}, that forwards call to
+     * field {@value DELEGATE_FIELD} with the same arguments, and returns its result.
+     * Delegate is cast to {@link ImplementationMethodSignature#getReceiverType() receiver type}, if it is given.
+     * Implemented method declares checked exceptions, that can be thrown by delegate's method.
+     * Implemented method would have the {@link Override} annotation.
+     * Code would be indented for 4 whitespaces from the lines' start and properly formatted.
+     *
+     * @param writer          used to write output text
+     * @param methodSignature signature of method to be implemented
+     * @throws IOException if an I/O error occurs
+     * @see #writeDelegateField(Writer, Class)
+     */
+    public static void writeDelegatingMethodImplementation(
+            final Writer writer, final ImplementationMethodSignature methodSignature) throws IOException {
+        indent(writer);
+        writer.write("@Override" + LINE_SEPARATOR);
+        indent(writer);
+        writer.write(methodSignature.toString(methodSignature.getCommonExceptionTypes()) + LINE_SEPARATOR);
+        indent(writer, 2);
+        final List<String> typeParameterNames = methodSignature.getTypeParameterNames();
+        final String receiverType = methodSignature.getReceiverType();
+        writer.write((methodSignature.getReferenceMethod().getReturnType().equals(void.class) ? "" : "return ")
+                + (receiverType == null ? DELEGATE_FIELD : "((" + receiverType + ") " + DELEGATE_FIELD + ")") + "."
+                + (typeParameterNames.isEmpty() ? "" : String.join(", ", typeParameterNames)
+                .transform(names -> "<" + names + ">"))
+                + methodSignature.getName()
+                + IntStream.range(0, methodSignature.getReferenceMethod().getParameterCount())
+                .mapToObj(idx -> "var" + idx)
+                .collect(Collectors.joining(", ", "(", ");" + LINE_SEPARATOR)));
+        indent(writer);
+        writer.write("}" + LINE_SEPARATOR.repeat(2));
+    }
+
+    /**
+     * Writes implementation of method with given {@code methodSignature}, that passes call to
+     * field {@value HANDLER_FIELD}, choosing entry point of {@link DispatchHandler} by return type and arguments.
+     * Implemented method declares checked exceptions, that can be thrown by all overridden methods.
+     * Other checked exceptions, thrown by handler, are wrapped into {@link UndeclaredThrowableException}.
+     * Implemented method would have the {@link Override} annotation.
+     * Code would be indented for 4 whitespaces from the lines' start and properly formatted.
+     *
+     * @param writer          used to write output text
+     * @param methodSignature signature of method to be implemented
+     * @param methodId        id of method, passed to handler
+     * @throws IOException if an I/O error occurs
+     * @see #writeDispatchFields(Writer, Class, List)
+     */
+    public static void writeDispatchingMethodImplementation(
+            final Writer writer, final ImplementationMethodSignature methodSignature, final int methodId)
+            throws IOException {
+        final Class<?> returnType = methodSignature.getErasedReturnType();
+        if (!methodSignature.getReturnType().equals(returnType.getCanonicalName())) {
+            indent(writer);
+            writer.write("@SuppressWarnings(\"unchecked\")" + LINE_SEPARATOR);
+        }
+        indent(writer);
+        writer.write("@Override" + LINE_SEPARATOR);
+        final List<Class<?>> exceptionTypes = methodSignature.getCommonExceptionTypes();
+        indent(writer);
+        writer.write(methodSignature.toString(exceptionTypes) + LINE_SEPARATOR);
+
+        final Class<?>[] parameterTypes = methodSignature.getErasedParameterTypes();
+        final String call = HANDLER_FIELD + "." + getDispatchEntryPoint(returnType)
+                + Stream.concat(Stream.of("this", Integer.toString(methodId), METHOD_FIELD_PREFIX + methodId),
+                        parameterTypes.length == 1 ? Stream.of(getDispatchArgument(parameterTypes[0], "var0"))
+                                : parameterTypes.length == 0 ? Stream.empty()
+                                : Stream.of(IntStream.range(0, parameterTypes.length)
+                                .mapToObj(idx -> "var" + idx)
+                                .collect(Collectors.joining(", ", "new java.lang.Object[]{", "}"))))
+                .collect(Collectors.joining(", ", "(", ");" + LINE_SEPARATOR));
+        final String statement;
+        if (returnType == void.class) {
+            statement = call;
+        } else if (returnType == long.class || returnType == double.class || returnType == boolean.class) {
+            statement = "return " + call;
+        } else {
+            statement = "return (" + methodSignature.getReturnType() + ") " + call;
+        }
+
+        final List<Class<?>> rethrownTypes = Stream.concat(
+                        Stream.of(RuntimeException.class, Error.class), exceptionTypes.stream())
+                .distinct()
+                .toList();
+        final List<Class<?>> catchTypes = rethrownTypes.stream()
+                .filter(type -> rethrownTypes.stream().noneMatch(
+                        other -> other != type && other.isAssignableFrom(type)))
+                .toList();
+        if (catchTypes.contains(Throwable.class)) {
+            indent(writer, 2);
+            writer.write(statement);
+        } else {
+            indent(writer, 2);
+            writer.write("try {" + LINE_SEPARATOR);
+            indent(writer, 3);
+            writer.write(statement);
+            indent(writer, 2);
+            writer.write(catchTypes.stream()
+                    .map(Class::getCanonicalName)
+                    .collect(Collectors.joining(" | ", "} catch (", " e) {" + LINE_SEPARATOR)));
+            indent(writer, 3);
+            writer.write("throw e;" + LINE_SEPARATOR);
+            indent(writer, 2);
+            writer.write("} catch (java.lang.Throwable e) {" + LINE_SEPARATOR);
+            indent(writer, 3);
+            writer.write("throw new " + UndeclaredThrowableException.class.getName() + "(e);" + LINE_SEPARATOR);
+            indent(writer, 2);
+            writer.write("}" + LINE_SEPARATOR);
+        }
+        indent(writer);
+        writer.write("}" + LINE_SEPARATOR.repeat(2));
+    }
+
+    /**
+     * Gets name of {@link DispatchHandler}'s entry point, that processes calls of methods with given return type.
+     *
+     * @param returnType erased return type of method
+     * @return name of entry point
+     */
+    private static String getDispatchEntryPoint(final Class<?> returnType) {
+        if (!returnType.isPrimitive() || returnType == void.class) {
+            return "invoke";
+        } else if (returnType == boolean.class) {
+            return "invokeBoolean";
+        } else if (returnType == float.class || returnType == double.class) {
+            return "invokeDouble";
+        } else {
+            return "invokeLong";
+        }
+    }
+
+    /**
+     * Gets expression, that passes single argument to {@link DispatchHandler}'s entry point without boxing.
+     * Expression has exactly type of parameter of entry point, so that overload is chosen unambiguously.
+     *
+     * @param type     erased type of argument
+     * @param argument name of argument
+     * @return argument widened to {@code long}, {@code double}, or {@link Object}
+     */
+    private static String getDispatchArgument(final Class<?> type, final String argument) {
+        if (!type.isPrimitive()) {
+            return "(java.lang.Object) " + argument;
+        } else if (type == boolean.class) {
+            return argument + " ? 1L : 0L";
+        } else if (type == float.class || type == double.class) {
+            return "(double) " + argument;
+        } else {
+            return "(long) " + argument;
+        }
+    }
+
     /**
      * Writes indentation for {@code count} level.
      * One indentation level is considered to be 4 whitespaces.
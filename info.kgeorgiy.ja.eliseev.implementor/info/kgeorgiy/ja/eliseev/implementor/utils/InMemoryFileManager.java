@@ -0,0 +1,81 @@
+package info.kgeorgiy.ja.eliseev.implementor.utils;
+
+import javax.tools.*;
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * {@link JavaFileManager} that keeps compiled classes in memory instead of writing them to file system.
+ * All other requests, such as classpath lookups, are forwarded to the wrapped file manager.
+ *
+ * @author Aleksandr Eliseev
+ */
+public final class InMemoryFileManager extends ForwardingJavaFileManager<StandardJavaFileManager> {
+    /**
+     * Maps binary names of compiled classes to streams, which their class-files are written to.
+     */
+    private final Map<String, ByteArrayOutputStream> classes = new LinkedHashMap<>();
+
+    /**
+     * Creates file manager, that forwards all requests except class output to {@code fileManager}.
+     *
+     * @param fileManager file manager to forward requests to
+     */
+    public InMemoryFileManager(final StandardJavaFileManager fileManager) {
+        super(fileManager);
+    }
+
+    /**
+     * Creates source file object with given content.
+     *
+     * @param className binary name of class declared in source
+     * @param source    source code
+     * @return source file object, which content is {@code source}
+     */
+    public static JavaFileObject sourceFile(final String className, final String source) {
+        return new SimpleJavaFileObject(getUri(className, JavaFileObject.Kind.SOURCE), JavaFileObject.Kind.SOURCE) {
+            @Override
+            public CharSequence getCharContent(final boolean ignoreEncodingErrors) {
+                return source;
+            }
+        };
+    }
+
+    /**
+     * Gets URI of in-memory file object.
+     *
+     * @param className binary name of class
+     * @param kind      kind of file object
+     * @return URI of file object
+     */
+    private static URI getUri(final String className, final JavaFileObject.Kind kind) {
+        return URI.create("string:///" + className.replace('.', '/') + kind.extension);
+    }
+
+    @Override
+    public JavaFileObject getJavaFileForOutput(final Location location, final String className,
+                                               final JavaFileObject.Kind kind, final FileObject sibling) {
+        return new SimpleJavaFileObject(getUri(className, kind), kind) {
+            @Override
+            public OutputStream openOutputStream() {
+                final ByteArrayOutputStream stream = new ByteArrayOutputStream();
+                classes.put(className, stream);
+                return stream;
+            }
+        };
+    }
+
+    /**
+     * Gets classes compiled with this file manager.
+     *
+     * @return mapping from binary names of compiled classes to their class-files' content
+     */
+    public Map<String, byte[]> getClasses() {
+        final Map<String, byte[]> result = new LinkedHashMap<>();
+        classes.forEach((className, stream) -> result.put(className, stream.toByteArray()));
+        return result;
+    }
+}
@@ -0,0 +1,525 @@
+package info.kgeorgiy.ja.eliseev.implementor.utils;
+
+import info.kgeorgiy.ja.eliseev.implementor.JarCompression;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.jar.JarFile;
+import java.util.jar.Manifest;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.ZipException;
+
+/**
+ * Utility class for writing <var>.jar</var> files.
+ * Unlike {@link java.util.jar.JarOutputStream}, entries are compressed in parallel before being written,
+ * and then archive is written sequentially with precomputed sizes and checksums, so no data descriptors are needed.
+ * Large archives can be written in batches with {@link JarWriter}.
+ * Existing <var>.jar</var> files can also be updated in place, replacing only changed entries.
+ * <p>
+ * Methods are safe to call concurrently for the same file: written files replace target atomically,
+ * and in-place updates of the same file within one JVM are serialized by striped locks.
+ *
+ * @author Aleksandr Eliseev
+ * @see <a href="https://pkware.cachefly.net/webdocs/casestudies/APPNOTE.TXT">ZIP file format specification</a>
+ */
+public final class JarUtils {
+    /**
+     * Signature of local file header.
+     */
+    private static final int LOCAL_HEADER_SIGNATURE = 0x04034b50;
+    /**
+     * Signature of central directory file header.
+     */
+    private static final int CENTRAL_HEADER_SIGNATURE = 0x02014b50;
+    /**
+     * Signature of end of central directory record.
+     */
+    private static final int END_SIGNATURE = 0x06054b50;
+    /**
+     * Size of local file header without name.
+     */
+    private static final int LOCAL_HEADER_SIZE = 30;
+    /**
+     * Size of central directory file header without name.
+     */
+    private static final int CENTRAL_HEADER_SIZE = 46;
+    /**
+     * Size of end of central directory record without comment.
+     */
+    private static final int END_SIZE = 22;
+    /**
+     * General purpose flag, that indicates that entry names are encoded with UTF-8.
+     */
+    private static final short UTF8_FLAG = 0x0800;
+    /**
+     * Version needed to extract entries: 2.0, required for deflate and directories.
+     */
+    private static final short VERSION = 20;
+    /**
+     * Compression method of stored entries.
+     */
+    private static final short STORED = 0;
+    /**
+     * Compression method of deflated entries.
+     */
+    private static final short DEFLATED = 8;
+    /**
+     * External attributes of directory entries: MS-DOS directory attribute.
+     */
+    private static final int DIRECTORY_ATTRIBUTES = 0x10;
+    /**
+     * Maximal number of entries in archive without ZIP64 extensions.
+     */
+    private static final int MAX_ENTRIES = 0xFFFF;
+    /**
+     * Maximal size of archive without ZIP64 extensions.
+     */
+    private static final long MAX_SIZE = 0xFFFF_FFFFL;
+    /**
+     * Name of manifest's directory entry.
+     */
+    private static final String MANIFEST_DIRECTORY = "META-INF/";
+    /**
+     * Locks serializing in-place updates. File is guarded by lock chosen by hash of its absolute path.
+     */
+    private static final Lock[] UPDATE_LOCKS = new Lock[64];
+
+    static {
+        Arrays.setAll(UPDATE_LOCKS, i -> new ReentrantLock());
+    }
+
+    /**
+     * Private constructor to ensure no instances of utility class would be created.
+     */
+    private JarUtils() {
+    }
+
+    /**
+     * Writes <var>.jar</var> file with given manifest and classes, atomically replacing existing file.
+     * Archive contains manifest, entries for all directories containing classes, and classes,
+     * in this order.
+     *
+     * @param jarFile     file to write
+     * @param manifest    manifest of <var>.jar</var> file
+     * @param classes     mapping from binary names of classes to their class-files' content
+     * @param compression way to store entries
+     * @throws IOException if an I/O error occurs, or archive is too large to be written without ZIP64 extensions
+     */
+    public static void writeJar(final Path jarFile, final Manifest manifest, final Map<String, byte[]> classes,
+                                final JarCompression compression) throws IOException {
+        try (final JarWriter writer = new JarWriter(jarFile, manifest, compression)) {
+            writer.write(classes);
+            writer.commit();
+        }
+    }
+
+    /**
+     * Writer of <var>.jar</var> file, to which classes are added in several batches.
+     * Entries are written as soon as they are added, and only their headers are kept in memory until
+     * central directory is written, so memory used doesn't depend on number of batches.
+     * File is written to temporary file, that replaces target atomically on {@link #commit()}.
+     * Closing writer without commit discards written entries.
+     * <p>
+     * Writer is not thread-safe, though entries of each batch are compressed in parallel.
+     *
+     * @author Aleksandr Eliseev
+     * @see #writeJar(Path, Manifest, Map, JarCompression)
+     */
+    public static final class JarWriter implements Closeable {
+        /**
+         * File to be replaced on commit.
+         */
+        private final Path target;
+        /**
+         * Temporary file, that entries are written to.
+         */
+        private final Path temporary;
+        /**
+         * Channel writing {@link #temporary}.
+         */
+        private final FileChannel channel;
+        /**
+         * Way to store entries.
+         */
+        private final JarCompression compression;
+        /**
+         * Modification time of entries, in MS-DOS format.
+         */
+        private final short time;
+        /**
+         * Modification date of entries, in MS-DOS format.
+         */
+        private final short date;
+        /**
+         * Central directory file headers of written entries.
+         */
+        private final ByteArrayOutputStream central = new ByteArrayOutputStream();
+        /**
+         * Names of written directory entries.
+         */
+        private final Set<String> directories = new HashSet<>();
+        /**
+         * Number of written entries.
+         */
+        private int entries;
+        /**
+         * Size of written part of archive, that is offset of next local file header.
+         */
+        private long offset;
+        /**
+         * Whether archive is complete and has replaced {@link #target}.
+         */
+        private boolean committed;
+
+        /**
+         * Creates writer and writes manifest.
+         *
+         * @param jarFile     file to write
+         * @param manifest    manifest of <var>.jar</var> file
+         * @param compression way to store entries
+         * @throws IOException if an I/O error occurs
+         */
+        public JarWriter(final Path jarFile, final Manifest manifest, final JarCompression compression)
+                throws IOException {
+            this.target = jarFile;
+            this.temporary = IOUtils.getTemporarySibling(jarFile);
+            this.compression = compression;
+            final LocalDateTime now = LocalDateTime.now();
+            this.time = (short) (now.getHour() << 11 | now.getMinute() << 5 | now.getSecond() / 2);
+            this.date = (short) ((Math.max(now.getYear(), 1980) - 1980) << 9
+                    | now.getMonthValue() << 5 | now.getDayOfMonth());
+            this.channel = FileChannel.open(temporary, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+
+            try {
+                final ByteArrayOutputStream manifestBytes = new ByteArrayOutputStream();
+                manifest.write(manifestBytes);
+                // Manifest goes first, so that it is found by JarInputStream
+                writeDirectory(MANIFEST_DIRECTORY);
+                writeEntry(compress(JarFile.MANIFEST_NAME, manifestBytes.toByteArray(), compression));
+            } catch (final IOException e) {
+                close();
+                throw e;
+            }
+        }
+
+        /**
+         * Writes entries for given classes, preceded by entries for directories containing them,
+         * that were not written yet.
+         *
+         * @param classes mapping from binary names of classes to their class-files' content
+         * @throws IOException if an I/O error occurs, or archive is too large to be written without
+         *                     ZIP64 extensions
+         */
+        public void write(final Map<String, byte[]> classes) throws IOException {
+            for (final String directory : IOUtils.getJarDirectories(classes.keySet())) {
+                if (!directories.contains(directory)) {
+                    writeDirectory(directory);
+                }
+            }
+            for (final Entry entry : classes.entrySet().parallelStream()
+                    .map(entry -> compress(IOUtils.getClassFileJarPath(entry.getKey()), entry.getValue(), compression))
+                    .toList()) {
+                writeEntry(entry);
+            }
+        }
+
+        /**
+         * Writes central directory, and replaces target file with written archive.
+         *
+         * @throws IOException if an I/O error occurs
+         */
+        public void commit() throws IOException {
+            final ByteBuffer end = ByteBuffer.allocate(END_SIZE)
+                    .order(ByteOrder.LITTLE_ENDIAN)
+                    .putInt(END_SIGNATURE)
+                    .putShort((short) 0)
+                    .putShort((short) 0)
+                    .putShort((short) entries)
+                    .putShort((short) entries)
+                    .putInt(central.size())
+                    .putInt((int) offset)
+                    .putShort((short) 0)
+                    .flip();
+            writeFully(channel, ByteBuffer.wrap(central.toByteArray()), end);
+            channel.close();
+            IOUtils.replaceAtomically(temporary, target);
+            committed = true;
+        }
+
+        /**
+         * Closes writer, discarding written entries, if archive is not committed.
+         *
+         * @throws IOException if an I/O error occurs
+         */
+        @Override
+        public void close() throws IOException {
+            channel.close();
+            if (!committed) {
+                IOUtils.deleteQuietly(temporary);
+            }
+        }
+
+        /**
+         * Writes directory entry.
+         *
+         * @param name directory name, ending with {@code /}
+         * @throws IOException if an I/O error occurs, or archive is too large to be written without
+         *                     ZIP64 extensions
+         */
+        private void writeDirectory(final String name) throws IOException {
+            directories.add(name);
+            writeEntry(new Entry(name, new byte[0], STORED, 0, 0));
+        }
+
+        /**
+         * Writes local file header and content of entry, and adds central directory file header of it.
+         *
+         * @param entry entry to be written
+         * @throws IOException if an I/O error occurs, or archive is too large to be written without
+         *                     ZIP64 extensions
+         */
+        private void writeEntry(final Entry entry) throws IOException {
+            if (++entries > MAX_ENTRIES) {
+                throw new IOException("Too many entries in jar file: " + entries);
+            }
+            final ByteBuffer header = ByteBuffer.allocate(LOCAL_HEADER_SIZE + entry.name.length)
+                    .order(ByteOrder.LITTLE_ENDIAN)
+                    .putInt(LOCAL_HEADER_SIGNATURE)
+                    .putShort(VERSION)
+                    .putShort(UTF8_FLAG)
+                    .putShort(entry.method)
+                    .putShort(time)
+                    .putShort(date)
+                    .putInt((int) entry.crc)
+                    .putInt(entry.data.length)
+                    .putInt(entry.size)
+                    .putShort((short) entry.name.length)
+                    .putShort((short) 0)
+                    .put(entry.name)
+                    .flip();
+            final ByteBuffer centralHeader = ByteBuffer.allocate(CENTRAL_HEADER_SIZE + entry.name.length)
+                    .order(ByteOrder.LITTLE_ENDIAN)
+                    .putInt(CENTRAL_HEADER_SIGNATURE)
+                    .putShort(VERSION)
+                    .putShort(VERSION)
+                    .putShort(UTF8_FLAG)
+                    .putShort(entry.method)
+                    .putShort(time)
+                    .putShort(date)
+                    .putInt((int) entry.crc)
+                    .putInt(entry.data.length)
+                    .putInt(entry.size)
+                    .putShort((short) entry.name.length)
+                    .putShort((short) 0)
+                    .putShort((short) 0)
+                    .putShort((short) 0)
+                    .putShort((short) 0)
+                    .putInt(entry.isDirectory() ? DIRECTORY_ATTRIBUTES : 0)
+                    .putInt((int) offset)
+                    .put(entry.name);
+            writeFully(channel, header, ByteBuffer.wrap(entry.data));
+            central.write(centralHeader.array());
+            offset += header.capacity() + entry.data.length;
+            if (offset + central.size() > MAX_SIZE) {
+                throw new IOException("Jar file is too large");
+            }
+        }
+    }
+
+    /**
+     * Updates existing <var>.jar</var> file in place with given classes, using <var>jdk.zipfs</var> file system.
+     * Only class-files, which content differs from given one, are replaced, and missing class-files,
+     * directories and manifest are added. Other entries are left untouched, and are not recompressed.
+     * If nothing changed, file is not modified at all.
+     * <p>
+     * If file doesn't exist, is not a valid <var>.jar</var> file, or zip file system is not available,
+     * file is written from scratch as with {@link #writeJar(Path, Manifest, Map, JarCompression)}.
+     *
+     * @param jarFile     file to update
+     * @param manifest    manifest, added if file has no manifest
+     * @param classes     mapping from binary names of classes to their class-files' content
+     * @param compression way to store added and replaced entries
+     * @throws IOException if an I/O error occurs
+     */
+    public static void updateJar(final Path jarFile, final Manifest manifest, final Map<String, byte[]> classes,
+                                 final JarCompression compression) throws IOException {
+        final Lock lock = UPDATE_LOCKS[Math.floorMod(jarFile.toAbsolutePath().normalize().hashCode(),
+                UPDATE_LOCKS.length)];
+        lock.lock();
+        try {
+            if (Files.isRegularFile(jarFile)) {
+                updateEntries(jarFile, manifest, classes, compression);
+            } else {
+                writeJar(jarFile, manifest, classes, compression);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Replaces changed entries of existing <var>.jar</var> file.
+     *
+     * @param jarFile     file to update
+     * @param manifest    manifest, added if file has no manifest
+     * @param classes     mapping from binary names of classes to their class-files' content
+     * @param compression way to store added and replaced entries
+     * @throws IOException if an I/O error occurs
+     * @see #updateJar(Path, Manifest, Map, JarCompression)
+     */
+    private static void updateEntries(final Path jarFile, final Manifest manifest, final Map<String, byte[]> classes,
+                                      final JarCompression compression) throws IOException {
+        try (final FileSystem jar = FileSystems.newFileSystem(jarFile,
+                Map.of("compressionMethod", compression.name()))) {
+            final Path manifestPath = jar.getPath(JarFile.MANIFEST_NAME);
+            if (!Files.exists(manifestPath)) {
+                Files.createDirectories(manifestPath.getParent());
+                try (final OutputStream output = Files.newOutputStream(manifestPath)) {
+                    manifest.write(output);
+                }
+            }
+            for (final Map.Entry<String, byte[]> entry : classes.entrySet()) {
+                final Path path = jar.getPath(IOUtils.getClassFileJarPath(entry.getKey()));
+                if (!isSameContent(path, entry.getValue())) {
+                    final Path parent = path.getParent();
+                    if (parent != null) {
+                        Files.createDirectories(parent);
+                    }
+                    Files.write(path, entry.getValue());
+                }
+            }
+        } catch (final ProviderNotFoundException | ZipException e) {
+            writeJar(jarFile, manifest, classes, compression);
+        }
+    }
+
+    /**
+     * Checks if entry of zip file system exists and has given content.
+     * Size and checksum of stored entry are compared first, so changed entries are not decompressed.
+     *
+     * @param path    path of entry in zip file system
+     * @param content expected content of entry
+     * @return {@code true} if and only if entry exists and has exactly given content
+     * @throws IOException if an I/O error occurs
+     */
+    private static boolean isSameContent(final Path path, final byte[] content) throws IOException {
+        if (!Files.isRegularFile(path) || Files.size(path) != content.length) {
+            return false;
+        }
+        final CRC32 crc = new CRC32();
+        crc.update(content);
+        return Objects.equals(Files.getAttribute(path, "zip:crc"), crc.getValue())
+                && Arrays.equals(Files.readAllBytes(path), content);
+    }
+
+    /**
+     * Compresses entry content, if needed, and computes its checksum.
+     *
+     * @param name        entry name
+     * @param content     uncompressed content of entry
+     * @param compression way to store entry
+     * @return entry, that can be written to archive
+     */
+    private static Entry compress(final String name, final byte[] content, final JarCompression compression) {
+        final CRC32 crc = new CRC32();
+        crc.update(content);
+        if (compression == JarCompression.STORED) {
+            return new Entry(name, content, STORED, crc.getValue(), content.length);
+        }
+        // Raw deflate without zlib header and checksum, as required by zip format
+        final Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+        try {
+            deflater.setInput(content);
+            deflater.finish();
+            final ByteArrayOutputStream compressed = new ByteArrayOutputStream(content.length / 2 + 64);
+            final byte[] buffer = new byte[8192];
+            while (!deflater.finished()) {
+                compressed.write(buffer, 0, deflater.deflate(buffer));
+            }
+            return new Entry(name, compressed.toByteArray(), DEFLATED, crc.getValue(), content.length);
+        } finally {
+            deflater.end();
+        }
+    }
+
+    /**
+     * Writes all remaining bytes of given buffers to channel.
+     *
+     * @param channel channel to write to
+     * @param buffers buffers to be written
+     * @throws IOException if an I/O error occurs
+     */
+    private static void writeFully(final FileChannel channel, final ByteBuffer... buffers) throws IOException {
+        for (final ByteBuffer buffer : buffers) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+    }
+
+    /**
+     * Entry of archive, ready to be written.
+     *
+     * @author Aleksandr Eliseev
+     */
+    private static final class Entry {
+        /**
+         * Name of entry encoded with UTF-8.
+         */
+        private final byte[] name;
+        /**
+         * Content of entry, as stored in archive.
+         */
+        private final byte[] data;
+        /**
+         * Compression method.
+         */
+        private final short method;
+        /**
+         * CRC-32 of uncompressed content.
+         */
+        private final long crc;
+        /**
+         * Size of uncompressed content.
+         */
+        private final int size;
+
+        /**
+         * Constructor, that assign its arguments to class' fields.
+         *
+         * @param name   entry name, encoded to {@link #name}
+         * @param data   value of {@link #data}
+         * @param method value of {@link #method}
+         * @param crc    value of {@link #crc}
+         * @param size   value of {@link #size}
+         */
+        private Entry(final String name, final byte[] data, final short method, final long crc, final int size) {
+            this.name = name.getBytes(StandardCharsets.UTF_8);
+            this.data = data;
+            this.method = method;
+            this.crc = crc;
+            this.size = size;
+        }
+
+        /**
+         * Checks if entry is a directory.
+         *
+         * @return {@code true} if and only if entry name ends with {@code /}
+         */
+        private boolean isDirectory() {
+            return name.length != 0 && name[name.length - 1] == '/';
+        }
+    }
+}
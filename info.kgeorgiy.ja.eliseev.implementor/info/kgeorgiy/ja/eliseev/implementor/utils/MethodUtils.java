@@ -8,6 +8,7 @@ import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.lang.reflect.TypeVariable;
 import java.util.*;
+import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -18,6 +19,29 @@ import java.util.stream.Stream;
  * @author Aleksandr Eliseev
  */
 public final class MethodUtils {
+    /**
+     * Order of methods in equivalence classes, that doesn't depend on order of reflection results.
+     */
+    private static final Comparator<Method> METHOD_ORDER =
+            Comparator.comparing(Method::getName).thenComparing(Method::toString);
+
+    /**
+     * Prefix of cache entry of successful analysis.
+     */
+    private static final String CACHED_SUCCESS = "S\n";
+    /**
+     * Prefix of cache entry of failed analysis, followed by message of {@link ImplerException}.
+     */
+    private static final String CACHED_FAILURE = "E\n";
+    /**
+     * Separator of signatures' equivalence classes in cache entry.
+     */
+    private static final String CACHED_SIGNATURE_SEPARATOR = "\n";
+    /**
+     * Separator of methods of one equivalence class in cache entry.
+     */
+    private static final String CACHED_METHOD_SEPARATOR = "\t";
+
     /**
      * Private constructor to ensure no instances of utility class would be created.
      */
@@ -31,21 +55,139 @@ public final class MethodUtils {
      * @return list of signatures of implementation methods
      * @throws ImplerException if {@code token} cannot have non-abstract subclass or
      *                         its subclass' code must have raw types or/and unchecked casts
+     * @see #getMethodSignatures(HierarchyIndex)
      */
     public static List<ImplementationMethodSignature> getMethodSignatures(final Class<?> token) throws ImplerException {
+        return getMethodSignatures(new HierarchyIndex(token));
+    }
+
+    /**
+     * Gets signatures of methods needed to be implemented in non-abstract subclass of indexed class/interface,
+     * using results of previous analyses of the same hierarchy, if they are stored in {@code cache}.
+     * Both signatures and {@link ImplerException} are cached. Cached signatures are restored from
+     * equivalence classes of methods, so most of analysis, including computation of inherited methods, is skipped.
+     *
+     * @param index index of hierarchy of class/interface to be implemented
+     * @param cache cache of analysis results, or {@code null} if results should not be cached
+     * @return list of signatures of implementation methods
+     * @throws ImplerException if indexed class/interface cannot have non-abstract subclass or
+     *                         its subclass' code must have raw types or/and unchecked casts
+     * @see #getMethodSignatures(HierarchyIndex)
+     */
+    public static List<ImplementationMethodSignature> getMethodSignatures(final HierarchyIndex index,
+                                                                          final AnalysisCache cache)
+            throws ImplerException {
+        final byte[] key = cache == null ? null : AnalysisCache.fingerprint(index.getTypes());
+        if (key == null) {
+            return getMethodSignatures(index);
+        }
+        final String entry = cache.get(key);
+        if (entry != null) {
+            final List<ImplementationMethodSignature> restored = restoreMethodSignatures(index, entry);
+            if (restored != null) {
+                return restored;
+            }
+        }
+
+        final List<ImplementationMethodSignature> methodSignatures;
+        try {
+            methodSignatures = getMethodSignatures(index);
+        } catch (final ImplerException e) {
+            cache.put(key, CACHED_FAILURE + Objects.requireNonNullElse(e.getMessage(), ""));
+            throw e;
+        }
+        cache.put(key, CACHED_SUCCESS + methodSignatures.stream()
+                .map(signature -> signature.getEquivalentMethods().stream()
+                        .map(MethodUtils::getLocator)
+                        .collect(Collectors.joining(CACHED_METHOD_SEPARATOR)))
+                .collect(Collectors.joining(CACHED_SIGNATURE_SEPARATOR)));
+        return methodSignatures;
+    }
+
+    /**
+     * Restores signatures of implementation methods from cache entry.
+     *
+     * @param index index of hierarchy of class/interface to be implemented
+     * @param entry cache entry
+     * @return list of signatures of implementation methods, or {@code null} if entry cannot be restored
+     * @throws ImplerException if entry represents failed analysis
+     * @see #getMethodSignatures(HierarchyIndex, AnalysisCache)
+     */
+    private static List<ImplementationMethodSignature> restoreMethodSignatures(final HierarchyIndex index,
+                                                                               final String entry)
+            throws ImplerException {
+        if (entry.startsWith(CACHED_FAILURE)) {
+            throw new ImplerException(entry.substring(CACHED_FAILURE.length()));
+        }
+        if (!entry.startsWith(CACHED_SUCCESS)) {
+            return null;
+        }
+        final Map<String, Method> methods = index.getAllMethods().stream()
+                .collect(Collectors.toMap(MethodUtils::getLocator, Function.identity()));
+        final List<ImplementationMethodSignature> methodSignatures = new ArrayList<>();
+        for (final String line : entry.substring(CACHED_SUCCESS.length()).split(CACHED_SIGNATURE_SEPARATOR)) {
+            if (line.isEmpty()) {
+                continue;
+            }
+            final List<Method> equivalent = new ArrayList<>();
+            for (final String locator : line.split(CACHED_METHOD_SEPARATOR)) {
+                final Method method = methods.get(locator);
+                if (method == null) {
+                    return null;
+                }
+                equivalent.add(method);
+            }
+            methodSignatures.add(ImplementationMethodSignature.getCommonMethodSignature(
+                    equivalent, getTypeParameterNames(index.getRoot()), index.getContexts()));
+        }
+        return methodSignatures;
+    }
+
+    /**
+     * Gets string, that identifies method in hierarchy: name of declaring class, name and descriptor of method.
+     *
+     * @param method method to get locator of
+     * @return locator of {@code method}
+     */
+    private static String getLocator(final Method method) {
+        return method.getDeclaringClass().getName() + "#" + method.getName()
+                + ClassFileWriter.methodDescriptor(method.getReturnType(), method.getParameterTypes());
+    }
+
+    /**
+     * Gets names of type parameters of class/interface.
+     *
+     * @param token class/interface to get type parameters of
+     * @return set of names of {@code token}'s type parameters
+     */
+    private static Set<String> getTypeParameterNames(final Class<?> token) {
+        return Arrays.stream(token.getTypeParameters()).map(TypeVariable::getName).collect(Collectors.toSet());
+    }
+
+    /**
+     * Gets signatures of methods needed to be implemented in non-abstract subclass of indexed class/interface.
+     *
+     * @param index index of hierarchy of class/interface to be implemented
+     * @return list of signatures of implementation methods
+     * @throws ImplerException if indexed class/interface cannot have non-abstract subclass or
+     *                         its subclass' code must have raw types or/and unchecked casts
+     */
+    public static List<ImplementationMethodSignature> getMethodSignatures(final HierarchyIndex index)
+            throws ImplerException {
+        final Class<?> token = index.getRoot();
         final List<ImplementationMethodSignature> methodSignatures = new ArrayList<>();
-        final GenericContexts contexts = GenericUtils.getContexts(token);
-        final Set<Set<Method>> quotientSetOfMemberMethods = MethodUtils.getQuotientSetOfMemberMethods(token);
+        final GenericContexts contexts = index.getContexts();
+        final List<Set<Method>> quotientSetOfMemberMethods = MethodUtils.getQuotientSetOfMemberMethods(index);
         for (final Set<Method> equivalent : quotientSetOfMemberMethods) {
             if (equivalent.stream().anyMatch(method -> Modifier.isAbstract(method.getModifiers()))) {
-                methodSignatures.add(ImplementationMethodSignature.getCommonMethodSignature(equivalent, Arrays.stream(
-                        token.getTypeParameters()).map(TypeVariable::getName).collect(Collectors.toSet()), contexts));
+                methodSignatures.add(ImplementationMethodSignature.getCommonMethodSignature(
+                        equivalent, getTypeParameterNames(token), contexts));
             }
         }
         for (final Method method : quotientSetOfMemberMethods.stream().flatMap(Set::stream).toList()) {
             for (final ImplementationMethodSignature methodSignature : methodSignatures) {
                 if (methodSignature.getName().equals(method.getName()) && !GenericUtils.isSubSignature(
-                        methodSignature.getReferenceMethod(), method, contexts) && GenericUtils.hasSameErasure(
+                        methodSignature.getReferenceMethod(), method, index) && GenericUtils.hasSameErasure(
                         methodSignature.getReferenceMethod(), method,
                         contexts.getContext(methodSignature.getReferenceMethod().getDeclaringClass()))) {
                     throw new ImplerException("Cannot implement: subtype cannot be non-abstract");
@@ -53,18 +195,17 @@ public final class MethodUtils {
             }
         }
         Class<?> superClass = token;
-        List<Class<?>> superClasses = new ArrayList<>();
-        Set<Method> allMethods = getAllMethods(token);
-        Map<Class<?>, Set<Method>> inheritedMethods = getInheritedMethods(token, allMethods, contexts);
+        final List<Class<?>> superClasses = new ArrayList<>();
         while (superClass != null) {
             superClasses.add(superClass);
             if (!superClass.getPackageName().equals(token.getPackageName())) {
-                for (Method declaredMethod : superClass.getDeclaredMethods()) {
-                    int modifiers = declaredMethod.getModifiers();
+                for (final Method declaredMethod : index.getDeclaredMethods(superClass)) {
+                    final int modifiers = declaredMethod.getModifiers();
                     if (isPackagePrivate(modifiers) && Modifier.isAbstract(modifiers)) {
-                        if (allMethods.stream().noneMatch(method -> superClasses.stream().anyMatch(
+                        if (index.getAllMethods(declaredMethod.getName()).stream().noneMatch(
+                                method -> superClasses.stream().anyMatch(
                                 superclass -> isOverridingDeclarationFrom(method, declaredMethod, superclass,
-                                                                          inheritedMethods, allMethods, contexts)))) {
+                                                                          index)))) {
                             throw new ImplerException(String.format(
                                     "Cannot generate non-abstract implementation: method %s.%s is abstract and " +
                                             "cannot be overridden.",
@@ -78,23 +219,48 @@ public final class MethodUtils {
         return methodSignatures;
     }
 
+    /**
+     * Gets methods declared in {@code token} and its supertypes, that would be overridden by implementations of
+     * given methods. Result includes methods, that are not members of {@code token}, because they are overridden
+     * by other supertypes' methods, so it can be used to determine which bridge methods are needed.
+     *
+     * @param index      index of hierarchy of class/interface to be implemented
+     * @param signatures signatures of implementation methods
+     * @return mapping from signatures to methods overridden by them
+     * @see #getMethodSignatures(HierarchyIndex)
+     */
+    public static Map<ImplementationMethodSignature, Set<Method>> getOverriddenMethods(
+            final HierarchyIndex index, final List<ImplementationMethodSignature> signatures) {
+        final Class<?> token = index.getRoot();
+        final Map<ImplementationMethodSignature, Set<Method>> result = new LinkedHashMap<>();
+        for (final ImplementationMethodSignature signature : signatures) {
+            result.put(signature, index.getAllMethods(signature.getName()).stream()
+                    .filter(method -> {
+                        final int modifiers = method.getModifiers();
+                        return !Modifier.isStatic(modifiers) && !Modifier.isPrivate(modifiers) && (!isPackagePrivate(
+                                modifiers) || method.getDeclaringClass().getPackageName()
+                                                    .equals(token.getPackageName()));
+                    })
+                    .filter(method -> GenericUtils.isSubSignature(signature.getReferenceMethod(), method, index))
+                    .collect(Collectors.toSet()));
+        }
+        return result;
+    }
+
     /**
      * Gets quotient set of methods that are members in {@code rootToken} class/interface.
      * Equivalence used for partition is
      * <a href="https://docs.oracle.com/javase/specs/jls/se19/html/jls-8.html#jls-8.4.2">override equivalent</a>
      * (It is equivalence for methods that are members of the same class/interface).
      *
-     * @param rootToken class/interface to get methods from
+     * @param index index of hierarchy of class/interface to get methods from
      * @return quotient set by
      * <a href="https://docs.oracle.com/javase/specs/jls/se19/html/jls-8.html#jls-8.4.2">override equivalent</a>
      * equivalence.
-     * @see #makeQuotientSet(Set, GenericContexts)
+     * @see #makeQuotientSet(Set, HierarchyIndex)
      */
-    private static Set<Set<Method>> getQuotientSetOfMemberMethods(final Class<?> rootToken) {
-        final GenericContexts contexts = GenericUtils.getContexts(rootToken);
-        return makeQuotientSet(
-                getMemberMethods(rootToken, getInheritedMethods(rootToken, getAllMethods(rootToken), contexts)),
-                contexts);
+    private static List<Set<Method>> getQuotientSetOfMemberMethods(final HierarchyIndex index) {
+        return makeQuotientSet(index.getMemberMethods(index.getRoot()), index);
     }
 
     /**
@@ -102,86 +268,92 @@ public final class MethodUtils {
      * Equivalence used for partition is
      * <a href="https://docs.oracle.com/javase/specs/jls/se19/html/jls-8.html#jls-8.4.2">override equivalent</a>
      * (It is equivalence for methods that are members of the same class/interface).
+     * Methods are only compared with methods with the same name and number of parameters,
+     * and equivalence classes are merged with union-find, so order of methods doesn't affect result.
      *
-     * @param methods  methods to divide to equivalence classes
-     * @param contexts {@link GenericContexts} from which we can get contexts for methods
+     * @param methods methods to divide to equivalence classes
+     * @param index   index of hierarchy, that contains declaring classes of methods
      * @return quotient set by
      * <a href="https://docs.oracle.com/javase/specs/jls/se19/html/jls-8.html#jls-8.4.2">override equivalent</a>
-     * equivalence.
-     * @see #getQuotientSetOfMemberMethods(Class)
+     * equivalence. Classes are ordered by name and number of parameters of their methods
+     * @see #getQuotientSetOfMemberMethods(HierarchyIndex)
      */
-    private static Set<Set<Method>> makeQuotientSet(final Set<Method> methods, final GenericContexts contexts) {
-        final Set<Set<Method>> result = new HashSet<>();
-        methodLoop:
-        for (final Method method : methods) {
-            for (final Set<Method> set : result) {
-                if (set.stream().anyMatch(other -> GenericUtils.isOverrideEquivalent(method, other, contexts))) {
-                    set.add(method);
-                    continue methodLoop;
+    private static List<Set<Method>> makeQuotientSet(final Set<Method> methods, final HierarchyIndex index) {
+        // Only methods with the same name and number of parameters can be override-equivalent
+        final Map<String, Map<Integer, List<Method>>> buckets = methods.stream()
+                .sorted(METHOD_ORDER)
+                .collect(Collectors.groupingBy(Method::getName, TreeMap::new,
+                        Collectors.groupingBy(Method::getParameterCount, TreeMap::new, Collectors.toList())));
+        final List<Set<Method>> result = new ArrayList<>();
+        for (final Map<Integer, List<Method>> bucketsByParameterCount : buckets.values()) {
+            for (final List<Method> bucket : bucketsByParameterCount.values()) {
+                // Union-find over indices of methods in bucket
+                final int[] parents = new int[bucket.size()];
+                for (int i = 0; i < parents.length; i++) {
+                    parents[i] = i;
                 }
+                for (int i = 0; i < parents.length; i++) {
+                    for (int j = i + 1; j < parents.length; j++) {
+                        final int root1 = find(parents, i);
+                        final int root2 = find(parents, j);
+                        if (root1 != root2 && GenericUtils.isOverrideEquivalent(bucket.get(i), bucket.get(j), index)) {
+                            parents[Math.max(root1, root2)] = Math.min(root1, root2);
+                        }
+                    }
+                }
+                final Map<Integer, Set<Method>> classes = new TreeMap<>();
+                for (int i = 0; i < parents.length; i++) {
+                    classes.computeIfAbsent(find(parents, i), root -> new LinkedHashSet<>()).add(bucket.get(i));
+                }
+                result.addAll(classes.values());
             }
-            final Set<Method> newSet = new HashSet<>();
-            newSet.add(method);
-            result.add(newSet);
         }
         return result;
     }
 
     /**
-     * Gets all methods declared in {@code token} class/interface or its superclasses/superinterfaces.
+     * Finds representative of element's set in union-find structure, compressing the path to it.
      *
-     * @param token root class/interface to get methods
-     * @return all methods from {@code token} and all its supertypes
+     * @param parents parents of elements, representatives are parents of themselves
+     * @param element element to find representative of
+     * @return representative of {@code element}'s set
+     * @see #makeQuotientSet(Set, HierarchyIndex)
      */
-    private static Set<Method> getAllMethods(final Class<?> token) {
-        if (token == null) {
-            return Set.of();
-        }
-        final Set<Method> result = new HashSet<>(Arrays.asList(token.getDeclaredMethods()));
-        for (final Class<?> iface : token.getInterfaces()) {
-            result.addAll(getAllMethods(iface));
+    private static int find(final int[] parents, final int element) {
+        int current = element;
+        while (parents[current] != current) {
+            parents[current] = parents[parents[current]];
+            current = parents[current];
         }
-        result.addAll(getAllMethods(token.getSuperclass()));
-        return result;
+        return current;
     }
 
     /**
-     * Gets all methods inherited by {@code token} and all its superclasses/superinterfaces.
+     * Gets all methods inherited by {@code token}.
+     * Member methods of all {@code token}'s supertypes must be already present in {@code index}.
      *
-     * @param token      type to get inherited methods for
-     * @param allMethods set, that contains at least all methods declared in {@code token} and all its supertypes
-     * @param contexts   {@link GenericContexts} from which we can get contexts for methods
-     * @return mapping from types to set of all methods inherited by type.
-     * Contains at least {@code token} and all of its supertypes
-     * @see #getAllMethods(Class)
+     * @param token type to get inherited methods for
+     * @param index index of hierarchy, that contains {@code token}
+     * @return set of all methods inherited by {@code token}
+     * @see HierarchyIndex#getInheritedMethods(Class)
      */
-    private static Map<Class<?>, Set<Method>> getInheritedMethods(final Class<?> token, final Set<Method> allMethods,
-                                                                  final GenericContexts contexts) {
+    static Set<Method> getInheritedMethods(final Class<?> token, final HierarchyIndex index) {
         // Object and primitives don't have inherited methods
         // All classes have superclasses so later token.getSuperclass() is not null if token.isInterface() is false
-        if (token == null || token == Object.class || token.isPrimitive()) {
-            final Map<Class<?>, Set<Method>> result = new HashMap<>();
-            result.put(token, new HashSet<>());
-            return result;
-        }
-        final Map<Class<?>, Set<Method>> result = getInheritedMethods(token.getSuperclass(), allMethods, contexts);
-        for (final Class<?> iface : token.getInterfaces()) {
-            for (final Map.Entry<Class<?>, Set<Method>> entry : getInheritedMethods(iface, allMethods,
-                                                                                    contexts).entrySet()) {
-                result.putIfAbsent(entry.getKey(), entry.getValue());
-            }
+        if (token == Object.class || token.isPrimitive()) {
+            return new HashSet<>();
         }
         final Set<Method> methods = new HashSet<>();
-        final List<Method> tokenDeclaredMethods = Arrays.asList(token.getDeclaredMethods());
+        final List<Method> tokenDeclaredMethods = index.getDeclaredMethods(token);
         if (token.isInterface()) {
             for (final Class<?> directInterface : token.getInterfaces()) {
-                for (final Method superinterfaceMember : getMemberMethods(directInterface, result)) {
+                for (final Method superinterfaceMember : index.getMemberMethods(directInterface)) {
                     if (!superinterfaceMember.isDefault() && !Modifier.isAbstract(
                             superinterfaceMember.getModifiers())) {
                         continue;
                     }
                     if (tokenDeclaredMethods.stream().noneMatch(
-                            method -> GenericUtils.isSubSignature(method, superinterfaceMember, contexts)) &&
+                            method -> GenericUtils.isSubSignature(method, superinterfaceMember, index)) &&
                             // There exists no method m' that is a member of a direct superinterface,
                             // J', of I (m distinct from m', J distinct from J'), such that m' overrides from J'
                             // the declaration of the method m.
@@ -192,27 +364,22 @@ public final class MethodUtils {
                             // member method overrides m from J'
                             Arrays.stream(token.getInterfaces())
                                   .filter(Predicate.not(Predicate.isEqual(directInterface))).allMatch(
-                                          anotherDirectInterface -> getMemberMethods(anotherDirectInterface, result).stream()
-                                                                                                                    .noneMatch(
-                                                                                                                            method -> isOverridingDeclarationFrom(
-                                                                                                                                    method,
-                                                                                                                                    superinterfaceMember,
-                                                                                                                                    anotherDirectInterface,
-                                                                                                                                    result,
-                                                                                                                                    allMethods,
-                                                                                                                                    contexts)))) {
+                                          anotherDirectInterface -> index.getMemberMethods(anotherDirectInterface)
+                                                  .stream().noneMatch(method -> isOverridingDeclarationFrom(
+                                                          method, superinterfaceMember, anotherDirectInterface,
+                                                          index)))) {
                         methods.add(superinterfaceMember);
                     }
                 }
             }
         } else {
             final Set<Method> concreteInherited = new HashSet<>();
-            final Set<Method> superclassMembers = getMemberMethods(token.getSuperclass(), result);
+            final Set<Method> superclassMembers = index.getMemberMethods(token.getSuperclass());
             // first, add only concrete methods of superclass
             for (final Method superclassMember : superclassMembers) {
                 if (!Modifier.isAbstract(superclassMember.getModifiers())) {
                     if (isAccessibleFrom(superclassMember, token) && tokenDeclaredMethods.stream().noneMatch(
-                            method -> GenericUtils.isSubSignature(method, superclassMember, contexts))) {
+                            method -> GenericUtils.isSubSignature(method, superclassMember, index))) {
                         concreteInherited.add(superclassMember);
                     }
                 }
@@ -222,24 +389,22 @@ public final class MethodUtils {
             for (final Method superclassMember : superclassMembers) {
                 if (Modifier.isAbstract(superclassMember.getModifiers())) {
                     if (isAccessibleFrom(superclassMember, token) && tokenDeclaredMethods.stream().noneMatch(
-                            method -> GenericUtils.isSubSignature(method, superclassMember,
-                                                                  contexts)) && concreteInherited.stream().noneMatch(
-                            method -> GenericUtils.isSubSignature(method, superclassMember, contexts))) {
+                            method -> GenericUtils.isSubSignature(method, superclassMember, index)) && concreteInherited.stream().noneMatch(
+                            method -> GenericUtils.isSubSignature(method, superclassMember, index))) {
                         methods.add(superclassMember);
                     }
                 }
             }
             // then add abstract and default methods from superinterfaces
             for (final Class<?> directInterface : token.getInterfaces()) {
-                for (final Method superinterfaceMember : getMemberMethods(directInterface, result)) {
+                for (final Method superinterfaceMember : index.getMemberMethods(directInterface)) {
                     if (!superinterfaceMember.isDefault() && !Modifier.isAbstract(
                             superinterfaceMember.getModifiers())) {
                         continue;
                     }
                     if (tokenDeclaredMethods.stream().noneMatch(
-                            method -> GenericUtils.isSubSignature(method, superinterfaceMember,
-                                                                  contexts)) && concreteInherited.stream().noneMatch(
-                            method -> GenericUtils.isSubSignature(method, superinterfaceMember, contexts)) &&
+                            method -> GenericUtils.isSubSignature(method, superinterfaceMember, index)) && concreteInherited.stream().noneMatch(
+                            method -> GenericUtils.isSubSignature(method, superinterfaceMember, index)) &&
                             // There exists no method m' that is a member of the direct superclass
                             // or a direct superinterface, D', of C (m distinct from m', D distinct from D'),
                             // such that m' from D' overrides the declaration of the method m.
@@ -250,20 +415,18 @@ public final class MethodUtils {
                             Stream.concat(Stream.of(token.getSuperclass()), Arrays.stream(token.getInterfaces()))
                                   .filter(Predicate.not(Predicate.isEqual(directInterface)))
                                   .allMatch(anotherDirectInterface -> {
-                                      final Set<Method> thisMemberMethods = getMemberMethods(anotherDirectInterface,
-                                                                                             result);
+                                      final Set<Method> thisMemberMethods =
+                                              index.getMemberMethods(anotherDirectInterface);
                                       return thisMemberMethods.stream().noneMatch(
                                               method -> isOverridingDeclarationFrom(method, superinterfaceMember,
-                                                                                    anotherDirectInterface, result,
-                                                                                    allMethods, contexts));
+                                                                                    anotherDirectInterface, index));
                                   })) {
                         methods.add(superinterfaceMember);
                     }
                 }
             }
         }
-        result.put(token, methods);
-        return result;
+        return methods;
     }
 
     /**
@@ -282,43 +445,45 @@ public final class MethodUtils {
     }
 
     /**
-     * Gets all member methods of {@code token}.
-     * Member methods are either methods inherited or declared in class/interface.
+     * Checks if method {@code overriding} overrides method {@code overridden} from class/interface {@code token}.
      *
-     * @param token               type to get methods from
-     * @param inheritedMethodsMap mapping from types to set of methods inherited by that type.
-     *                            Must contain {@code token} as a key
-     * @return all methods that are members of {@code token} class/interface
-     * @see #getInheritedMethods(Class, Set, GenericContexts)
+     * @param overriding method to check if overrides
+     * @param overridden method to check if overridden
+     * @param from       class/interface to check point of overriding
+     * @param index      index of hierarchy, that contains {@code from} and member methods of all its supertypes
+     * @return {@code true} if and only if {@code overriding} overrides the {@code overridden} method from {@code token}
+     * @see #getInheritedMethods(Class, HierarchyIndex)
+     * @see <a href="https://docs.oracle.com/javase/specs/jls/se19/html/jls-8.html#jls-8.4.8.1">Overriding
+     * from class</a>
+     * @see <a href="https://docs.oracle.com/javase/specs/jls/se19/html/jls-9.html#jls-9.4.1.1">
+     * Overriding from interface</a>
      */
-    private static Set<Method> getMemberMethods(final Class<?> token,
-                                                final Map<Class<?>, Set<Method>> inheritedMethodsMap) {
-        final Set<Method> result = new HashSet<>(Arrays.asList(token.getDeclaredMethods()));
-        result.addAll(inheritedMethodsMap.get(token));
+    private static boolean isOverridingDeclarationFrom(final Method overriding, final Method overridden,
+                                                       final Class<?> from, final HierarchyIndex index) {
+        final Boolean memorized = index.getOverriding(overriding, overridden, from);
+        if (memorized != null) {
+            return memorized;
+        }
+        // Check, that depends on itself, is considered failed
+        index.putOverriding(overriding, overridden, from, false);
+        final boolean result = checkOverridingDeclarationFrom(overriding, overridden, from, index);
+        index.putOverriding(overriding, overridden, from, result);
         return result;
     }
 
     /**
-     * Checks if method {@code overriding} overrides method {@code overridden} from class/interface {@code token}.
+     * Checks if method {@code overriding} overrides method {@code overridden} from class/interface {@code token},
+     * without using memorized results for these arguments.
      *
-     * @param overriding       method to check if overrides
-     * @param overridden       method to check if overridden
-     * @param from             class/interface to check point of overriding
-     * @param inheritedMethods mapping from types to set of methods inherited by that type.
-     *                         Must contain {@code from} and all of its supertypes as a keys
-     * @param allMethods       set, that contains at least all methods declared in {@code from} and all its supertypes
-     * @param contexts         {@link GenericContexts} from which we can get contexts for methods
+     * @param overriding method to check if overrides
+     * @param overridden method to check if overridden
+     * @param from       class/interface to check point of overriding
+     * @param index      index of hierarchy, that contains {@code from} and member methods of all its supertypes
      * @return {@code true} if and only if {@code overriding} overrides the {@code overridden} method from {@code token}
-     * @see #getInheritedMethods(Class, Set, GenericContexts)
-     * @see #getAllMethods(Class)
-     * @see <a href="https://docs.oracle.com/javase/specs/jls/se19/html/jls-8.html#jls-8.4.8.1">Overriding
-     * from class</a>
-     * @see <a href="https://docs.oracle.com/javase/specs/jls/se19/html/jls-9.html#jls-9.4.1.1">
-     * Overriding from interface</a>
+     * @see #isOverridingDeclarationFrom(Method, Method, Class, HierarchyIndex)
      */
-    private static boolean isOverridingDeclarationFrom(final Method overriding, final Method overridden, final Class<
-            ?> from, final Map<Class<?>, Set<Method>> inheritedMethods, final Set<Method> allMethods,
-                                                       final GenericContexts contexts) {
+    private static boolean checkOverridingDeclarationFrom(final Method overriding, final Method overridden,
+                                                          final Class<?> from, final HierarchyIndex index) {
         // Object and primitives has no superclasses and superinterfaces,
         // so method cannot override something from Object.
         // All classes have superclasses so later from.getSuperclass() is not null if from.isInterface() is false
@@ -329,9 +494,9 @@ public final class MethodUtils {
         if (from == overriddenDeclaringClass) {
             return false;
         }
-        if (!getMemberMethods(from, inheritedMethods).contains(overriding) || Modifier.isStatic(
+        if (!index.getMemberMethods(from).contains(overriding) || Modifier.isStatic(
                 overriding.getModifiers()) || !overriddenDeclaringClass.isAssignableFrom(
-                from) || !GenericUtils.isSubSignature(overriding, overridden, contexts)) {
+                from) || !GenericUtils.isSubSignature(overriding, overridden, index)) {
             return false;
         } else if (overriddenDeclaringClass.isInterface()) {
             if (from.isInterface()) {
@@ -344,7 +509,7 @@ public final class MethodUtils {
                 // Method declared in class cannot be overridden from interface
                 return false;
             } else {
-                if (inheritedMethods.get(from).contains(overridden)) {
+                if (index.getInheritedMethods(from).contains(overridden)) {
                     return false;
                 } else {
                     final int overriddenModifiers = overridden.getModifiers();
@@ -356,22 +521,21 @@ public final class MethodUtils {
                         // package access
 
                         if (overridden.getDeclaringClass().getPackageName()
-                                      .equals(from.getPackageName()) && (overriding.getDeclaringClass() == from || getMemberMethods(
-                                from.getSuperclass(), inheritedMethods).contains(overridden))) {
+                                      .equals(from.getPackageName()) && (overriding.getDeclaringClass() == from || index.getMemberMethods(
+                                from.getSuperclass()).contains(overridden))) {
                             return true;
                         } else {
                             Class<?> superclass = from.getSuperclass();
                             while (superclass != null) {
-                                if (isOverridingDeclarationFrom(overriding, overridden, superclass, inheritedMethods,
-                                                                allMethods, contexts)) {
+                                if (isOverridingDeclarationFrom(overriding, overridden, superclass, index)) {
                                     return true;
                                 }
-                                for (final Method method : allMethods) {
+                                // Only methods with the same name can be overridden by overriding
+                                for (final Method method : index.getAllMethods(overriding.getName())) {
                                     if (!method.equals(overridden) && !method.equals(
                                             overriding) && isOverridingDeclarationFrom(overriding, method, from,
-                                                                                       inheritedMethods, allMethods,
-                                                                                       contexts) && isOverridingDeclarationFrom(
-                                            method, overridden, superclass, inheritedMethods, allMethods, contexts)) {
+                                                                                       index) && isOverridingDeclarationFrom(
+                                            method, overridden, superclass, index)) {
                                         return true;
                                     }
                                 }
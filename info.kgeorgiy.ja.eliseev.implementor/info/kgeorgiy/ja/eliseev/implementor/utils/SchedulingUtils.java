@@ -0,0 +1,147 @@
+package info.kgeorgiy.ja.eliseev.implementor.utils;
+
+import java.lang.reflect.*;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Utility class for scheduling implementation of many classes/interfaces.
+ * Time spent on analysis of class/interface varies by orders of magnitude, so batches are scheduled
+ * largest-first by estimated cost: then no expensive class/interface is left for the end of the batch,
+ * when other threads are idle.
+ *
+ * @author Aleksandr Eliseev
+ */
+public final class SchedulingUtils {
+    /**
+     * Cost of class/interface, which hierarchy cannot be scanned, such as one with missing dependency.
+     * It is the least cost, as analysis of such class/interface fails early.
+     */
+    private static final long UNKNOWN_COST = 1;
+
+    /**
+     * Private constructor to ensure no instances of utility class would be created.
+     */
+    private SchedulingUtils() {
+    }
+
+    /**
+     * Estimates relative cost of implementing given class/interface.
+     * Estimation is based on number of supertypes, number of methods declared in them, and maximal depth
+     * of type arguments in generic supertypes, as each method is checked against methods of other supertypes,
+     * and generic types are resolved in context of each supertype.
+     * Hierarchy is scanned with reflection only, without analysis of methods, so estimation is cheap.
+     *
+     * @param token class/interface to be implemented
+     * @return estimated cost, positive number, that is only meaningful compared to costs of other types
+     */
+    public static long estimateCost(final Class<?> token) {
+        return estimateCost(token, new HashMap<>());
+    }
+
+    /**
+     * Estimates relative cost of implementing given class/interface, reusing results of scanning types,
+     * that were already scanned.
+     *
+     * @param token   class/interface to be implemented
+     * @param scanned results of scanning types, that is updated with newly scanned ones
+     * @return estimated cost, or {@link #UNKNOWN_COST} if hierarchy of {@code token} cannot be scanned
+     * @see #estimateCost(Class)
+     */
+    private static long estimateCost(final Class<?> token, final Map<Class<?>, ScannedType> scanned) {
+        try {
+            final Set<Class<?>> types = new HashSet<>();
+            final Deque<Class<?>> queue = new ArrayDeque<>(List.of(token));
+            long methods = 0;
+            int genericDepth = 0;
+            while (!queue.isEmpty()) {
+                final Class<?> type = queue.poll();
+                if (!types.add(type)) {
+                    continue;
+                }
+                final ScannedType scannedType = scanned.computeIfAbsent(type, ScannedType::new);
+                methods += scannedType.methods;
+                genericDepth = Math.max(genericDepth, scannedType.genericDepth);
+                if (type.getSuperclass() != null) {
+                    queue.add(type.getSuperclass());
+                }
+                queue.addAll(Arrays.asList(type.getInterfaces()));
+            }
+            return (methods + 1) * types.size() * (genericDepth + 1);
+        } catch (final RuntimeException | LinkageError e) {
+            // Analysis reports the error as failure of this class/interface
+            return UNKNOWN_COST;
+        }
+    }
+
+    /**
+     * Gets order, in which given classes/interfaces should be implemented: largest estimated cost first.
+     * Classes/interfaces of equal cost keep their relative order.
+     * Costs are estimated in parallel, and supertypes shared by several classes/interfaces are scanned once.
+     *
+     * @param tokens classes/interfaces to be implemented
+     * @return indices of {@code tokens}, ordered by decreasing {@link #estimateCost(Class) estimated cost}
+     */
+    public static int[] getLargestFirstOrder(final List<Class<?>> tokens) {
+        final Map<Class<?>, ScannedType> scanned = new ConcurrentHashMap<>();
+        final long[] costs = tokens.parallelStream().mapToLong(token -> estimateCost(token, scanned)).toArray();
+        return IntStream.range(0, costs.length)
+                .boxed()
+                .sorted(Comparator.comparingLong((Integer index) -> costs[index]).reversed())
+                .mapToInt(Integer::intValue)
+                .toArray();
+    }
+
+    /**
+     * Gets depth of nesting of type arguments in given type.
+     *
+     * @param type type to be inspected
+     * @return {@code 0} for non-generic types, and one more than maximal depth of arguments or bounds otherwise
+     */
+    private static int getDepth(final Type type) {
+        final Type[] nested;
+        if (type instanceof final ParameterizedType parameterizedType) {
+            nested = parameterizedType.getActualTypeArguments();
+        } else if (type instanceof final WildcardType wildcardType) {
+            nested = Stream.concat(Arrays.stream(wildcardType.getUpperBounds()),
+                    Arrays.stream(wildcardType.getLowerBounds())).toArray(Type[]::new);
+        } else if (type instanceof final GenericArrayType arrayType) {
+            return getDepth(arrayType.getGenericComponentType());
+        } else {
+            return 0;
+        }
+        return 1 + Arrays.stream(nested).mapToInt(SchedulingUtils::getDepth).max().orElse(0);
+    }
+
+    /**
+     * Part of estimation, that depends on one type only.
+     *
+     * @author Aleksandr Eliseev
+     */
+    private static final class ScannedType {
+        /**
+         * Number of methods declared in type.
+         */
+        private final int methods;
+        /**
+         * Maximal depth of type arguments in direct generic supertypes of type.
+         */
+        private final int genericDepth;
+
+        /**
+         * Scans type.
+         *
+         * @param type type to be scanned
+         */
+        private ScannedType(final Class<?> type) {
+            methods = type.getDeclaredMethods().length;
+            genericDepth = Stream.concat(
+                            Stream.ofNullable(type.getGenericSuperclass()),
+                            Arrays.stream(type.getGenericInterfaces()))
+                    .mapToInt(SchedulingUtils::getDepth)
+                    .max().orElse(0);
+        }
+    }
+}
@@ -0,0 +1,228 @@
+package info.kgeorgiy.ja.eliseev.implementor.utils;
+
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Reads names, that are referenced by JVM signature, as stored in <var>Signature</var> attribute of class-file.
+ * Class, method and field signatures are read, as well as plain descriptors, which are signatures without
+ * type variables and type arguments.
+ *
+ * @author Aleksandr Eliseev
+ * @see <a href="https://docs.oracle.com/javase/specs/jvms/se17/html/jvms-4.html#jvms-4.7.9.1">Signatures</a>
+ */
+final class SignatureReader {
+    /**
+     * Signature being read.
+     */
+    private final String signature;
+    /**
+     * Names of type parameters, declared by signature.
+     */
+    private final Set<String> typeParameters = new LinkedHashSet<>();
+    /**
+     * Binary names of classes, referenced by signature.
+     */
+    private final Set<String> classNames = new LinkedHashSet<>();
+    /**
+     * Names of type variables, referenced by signature.
+     */
+    private final Set<String> typeVariables = new LinkedHashSet<>();
+    /**
+     * Index of next character to be read.
+     */
+    private int position;
+
+    /**
+     * Creates reader, that is positioned at the start of signature.
+     *
+     * @param signature signature to be read
+     */
+    private SignatureReader(final String signature) {
+        this.signature = signature;
+    }
+
+    /**
+     * Reads given signature.
+     *
+     * @param signature class, method or field signature, or descriptor
+     * @return reader, that has read the whole signature
+     * @throws IllegalArgumentException if signature is malformed
+     */
+    static SignatureReader read(final String signature) {
+        final SignatureReader reader = new SignatureReader(signature);
+        try {
+            reader.readSignature();
+        } catch (final IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Malformed signature " + signature, e);
+        }
+        return reader;
+    }
+
+    /**
+     * Gets names of type parameters, declared by signature.
+     *
+     * @return unmodifiable set of names, in order of declaration
+     */
+    Set<String> getTypeParameters() {
+        return Collections.unmodifiableSet(typeParameters);
+    }
+
+    /**
+     * Gets classes, referenced by signature, including classes in bounds and type arguments.
+     *
+     * @return unmodifiable set of binary names of classes, in order of first occurrence
+     */
+    Set<String> getClassNames() {
+        return Collections.unmodifiableSet(classNames);
+    }
+
+    /**
+     * Gets type variables, referenced by signature. Type variables may be declared by signature itself,
+     * or by enclosing declaration.
+     *
+     * @return unmodifiable set of names of type variables, in order of first occurrence
+     */
+    Set<String> getTypeVariables() {
+        return Collections.unmodifiableSet(typeVariables);
+    }
+
+    /**
+     * Reads the whole signature: optional type parameters, followed either by parameters, return type and
+     * exception types of method, or by types of class' supertypes or field.
+     */
+    private void readSignature() {
+        if (signature.charAt(position) == '<') {
+            readTypeParameters();
+        }
+        if (signature.charAt(position) == '(') {
+            position++;
+            while (signature.charAt(position) != ')') {
+                readType();
+            }
+            position++;
+            readType();
+            while (position < signature.length()) {
+                expect('^');
+                readType();
+            }
+        } else {
+            while (position < signature.length()) {
+                readType();
+            }
+        }
+    }
+
+    /**
+     * Reads declarations of type parameters with their bounds, enclosed in angle brackets.
+     * Class bound may be empty, interface bounds are prefixed with colon.
+     */
+    private void readTypeParameters() {
+        position++;
+        while (signature.charAt(position) != '>') {
+            final int colon = signature.indexOf(':', position);
+            if (colon < 0) {
+                throw new IllegalArgumentException("Malformed signature " + signature);
+            }
+            typeParameters.add(signature.substring(position, colon));
+            position = colon + 1;
+            if (signature.charAt(position) != ':') {
+                readType();
+            }
+            while (signature.charAt(position) == ':') {
+                position++;
+                readType();
+            }
+        }
+        position++;
+    }
+
+    /**
+     * Reads single type: class type, type variable, array type, primitive type or {@code void}.
+     */
+    private void readType() {
+        final char c = signature.charAt(position);
+        if (c == 'L') {
+            readClassType();
+        } else if (c == 'T') {
+            final int end = signature.indexOf(';', position);
+            if (end < 0) {
+                throw new IllegalArgumentException("Malformed signature " + signature);
+            }
+            typeVariables.add(signature.substring(position + 1, end));
+            position = end + 1;
+        } else if (c == '[') {
+            position++;
+            readType();
+        } else if ("BCDFIJSZV".indexOf(c) >= 0) {
+            position++;
+        } else {
+            throw new IllegalArgumentException("Malformed signature " + signature);
+        }
+    }
+
+    /**
+     * Reads class type, possibly parameterized, and possibly qualified by parameterized outer class.
+     */
+    private void readClassType() {
+        position++;
+        final StringBuilder name = new StringBuilder(readIdentifier());
+        while (true) {
+            if (signature.charAt(position) == '<') {
+                readTypeArguments();
+            }
+            if (signature.charAt(position) != '.') {
+                break;
+            }
+            position++;
+            name.append('$').append(readIdentifier());
+        }
+        expect(';');
+        classNames.add(name.toString().replace('/', '.'));
+    }
+
+    /**
+     * Reads type arguments, enclosed in angle brackets. Arguments may be wildcards with bounds.
+     */
+    private void readTypeArguments() {
+        position++;
+        while (signature.charAt(position) != '>') {
+            final char c = signature.charAt(position);
+            if (c == '*') {
+                position++;
+            } else {
+                if (c == '+' || c == '-') {
+                    position++;
+                }
+                readType();
+            }
+        }
+        position++;
+    }
+
+    /**
+     * Reads name of class or its part, up to the start of type arguments, inner class name or end of class type.
+     *
+     * @return name in internal form
+     */
+    private String readIdentifier() {
+        final int start = position;
+        while ("<.;".indexOf(signature.charAt(position)) < 0) {
+            position++;
+        }
+        return signature.substring(start, position);
+    }
+
+    /**
+     * Reads expected character.
+     *
+     * @param expected character, that must be next in signature
+     * @throws IllegalArgumentException if next character is different
+     */
+    private void expect(final char expected) {
+        if (signature.charAt(position++) != expected) {
+            throw new IllegalArgumentException("Malformed signature " + signature);
+        }
+    }
+}
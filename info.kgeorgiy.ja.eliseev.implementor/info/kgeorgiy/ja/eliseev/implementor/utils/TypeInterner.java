@@ -0,0 +1,172 @@
+package info.kgeorgiy.ja.eliseev.implementor.utils;
+
+import info.kgeorgiy.ja.eliseev.implementor.GenericContexts;
+
+import java.lang.reflect.*;
+import java.util.*;
+
+/**
+ * Creates hash-consed {@link TypeModel} instances and caches models of method signatures.
+ * Instance is not thread-safe, and is meant to be used during one analysis.
+ *
+ * @author Aleksandr Eliseev
+ * @see HierarchyIndex
+ */
+final class TypeInterner {
+    /**
+     * Maps types to their canonical instances.
+     */
+    private final Map<TypeModel, TypeModel> canonical = new HashMap<>();
+    /**
+     * Maps methods to models of their signatures.
+     */
+    private final Map<Method, SignatureModel> signatures = new HashMap<>();
+    /**
+     * Generic contexts of methods' declaring classes.
+     */
+    private final GenericContexts contexts;
+
+    /**
+     * Creates interner without types.
+     *
+     * @param contexts generic contexts of methods' declaring classes
+     */
+    TypeInterner(final GenericContexts contexts) {
+        this.contexts = contexts;
+    }
+
+    /**
+     * Gets model of {@code method}'s signature. Types are substituted using context of declaring class,
+     * and type parameters of {@code method} are represented by their positions.
+     * Two methods with equal number of type parameters have the
+     * <a href="https://docs.oracle.com/javase/specs/jls/se19/html/jls-8.html#jls-8.4.2">same signature</a>
+     * if and only if they have the same name and their models are identical.
+     *
+     * @param method method to get model of
+     * @return model of {@code method}'s signature
+     */
+    SignatureModel getSignature(final Method method) {
+        SignatureModel signature = signatures.get(method);
+        if (signature == null) {
+            final Map<String, Type> context = contexts.getContext(method.getDeclaringClass());
+            final TypeVariable<Method>[] typeParameters = method.getTypeParameters();
+            final Map<String, TypeModel> positions = new HashMap<>();
+            for (int i = 0; i < typeParameters.length; i++) {
+                positions.put(typeParameters[i].getName(), intern(new TypeModel.OfVariable(null, i)));
+            }
+            final List<List<TypeModel>> bounds = Arrays.stream(typeParameters)
+                    .map(typeParameter -> of(context, typeParameter.getBounds(), positions))
+                    .toList();
+            signature = new SignatureModel(of(context, method.getGenericParameterTypes(), positions), bounds);
+            signatures.put(method, signature);
+        }
+        return signature;
+    }
+
+    /**
+     * Gets models of given types.
+     *
+     * @param context   context used to substitute types
+     * @param types     types to get models of
+     * @param positions maps names of method's type parameters to their models
+     * @return list of models of {@code types}
+     * @see #of(Map, Type, Map)
+     */
+    private List<TypeModel> of(final Map<String, Type> context, final Type[] types,
+                               final Map<String, TypeModel> positions) {
+        final List<TypeModel> result = new ArrayList<>(types.length);
+        for (final Type type : types) {
+            result.add(of(context, type, positions));
+        }
+        return result;
+    }
+
+    /**
+     * Gets canonical model of {@code type}, using {@code context} to substitute types.
+     * Substitution rules are the same as in {@link GenericUtils#typeToStringInContext(Map, Type, Set)}.
+     *
+     * @param context   context used to substitute types
+     * @param type      type to get model of
+     * @param positions maps names of method's type parameters to their models, such type variables are not
+     *                  substituted
+     * @return canonical model of {@code type}
+     */
+    private TypeModel of(final Map<String, Type> context, final Type type, final Map<String, TypeModel> positions) {
+        if (type instanceof final ParameterizedType parameterizedType) {
+            return intern(new TypeModel.OfParameterized((Class<?>) parameterizedType.getRawType(),
+                    of(context, parameterizedType.getActualTypeArguments(), positions)));
+        } else if (type instanceof final TypeVariable<?> typeVariable) {
+            final TypeModel position = positions.get(typeVariable.getName());
+            if (position != null) {
+                return position;
+            }
+            final Type replacement = context.get(typeVariable.getName());
+            if (replacement == null) {
+                return intern(new TypeModel.OfVariable(typeVariable.getName(), -1));
+            }
+            // Same as in typeToStringInContext
+            if (replacement instanceof final TypeVariable<?> variable) {
+                return intern(new TypeModel.OfVariable(variable.getName(), -1));
+            }
+            // Replacement is a type of implemented class, where method's type parameters are not in scope,
+            // even if some of its type variables have the same names
+            return of(context, replacement, Map.of());
+        } else if (type instanceof final WildcardType wildcard) {
+            final Type[] lowerBounds = wildcard.getLowerBounds();
+            final Type[] upperBounds = wildcard.getUpperBounds();
+            if (lowerBounds.length != 0) {
+                return intern(new TypeModel.OfWildcard(List.of(), of(context, lowerBounds, positions)));
+            } else if (upperBounds.length != 0 && !(upperBounds.length == 1 && upperBounds[0] == Object.class)) {
+                return intern(new TypeModel.OfWildcard(of(context, upperBounds, positions), List.of()));
+            }
+            return intern(new TypeModel.OfWildcard(List.of(), List.of()));
+        } else if (type instanceof final GenericArrayType arrayType) {
+            return intern(new TypeModel.OfArray(of(context, arrayType.getGenericComponentType(), positions)));
+        } else if (type instanceof final Class<?> clazz) {
+            return clazz.isArray()
+                    ? intern(new TypeModel.OfArray(of(context, clazz.getComponentType(), positions)))
+                    : intern(new TypeModel.OfClass(clazz));
+        } else {
+            throw new AssertionError("Unreachable");
+        }
+    }
+
+    /**
+     * Gets canonical instance of given type.
+     *
+     * @param type type to get canonical instance of
+     * @return canonical instance, equal to {@code type}
+     */
+    private TypeModel intern(final TypeModel type) {
+        final TypeModel existing = canonical.putIfAbsent(type, type);
+        return existing == null ? type : existing;
+    }
+
+    /**
+     * Model of method's signature.
+     *
+     * @param parameterTypes      models of parameter types
+     * @param typeParameterBounds models of bounds of each type parameter
+     * @author Aleksandr Eliseev
+     */
+    record SignatureModel(List<TypeModel> parameterTypes, List<List<TypeModel>> typeParameterBounds) {
+        /**
+         * Checks if signature has the same parameter types and bounds of type parameters, as other.
+         *
+         * @param other other signature
+         * @return {@code true} if and only if models are identical
+         */
+        boolean isIdentical(final SignatureModel other) {
+            if (!TypeModel.identical(parameterTypes, other.parameterTypes)
+                    || typeParameterBounds.size() != other.typeParameterBounds.size()) {
+                return false;
+            }
+            for (int i = 0; i < typeParameterBounds.size(); i++) {
+                if (!TypeModel.identical(typeParameterBounds.get(i), other.typeParameterBounds.get(i))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package info.kgeorgiy.ja.eliseev.implementor.utils;
+
+import java.util.List;
+
+/**
+ * Internal representation of types in method signatures, used to compare signatures.
+ * Unlike {@link java.lang.reflect.Type}, type variables are already substituted,
+ * so types from different classes in hierarchy can be compared directly.
+ * <p>
+ * Instances are hash-consed by {@link TypeInterner}: equal types created by the same interner
+ * are the same object, so they can be compared by identity.
+ * Because of that, composite types compare and hash their components by identity.
+ *
+ * @author Aleksandr Eliseev
+ * @see TypeInterner
+ */
+sealed interface TypeModel {
+    /**
+     * Checks if lists contain the same objects in the same order.
+     *
+     * @param list1 first list
+     * @param list2 second list
+     * @return {@code true} if and only if lists have the same size, and their elements are identical
+     */
+    static boolean identical(final List<? extends TypeModel> list1, final List<? extends TypeModel> list2) {
+        if (list1.size() != list2.size()) {
+            return false;
+        }
+        for (int i = 0; i < list1.size(); i++) {
+            if (list1.get(i) != list2.get(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Gets hash code of list, that is consistent with {@link #identical(List, List)}.
+     *
+     * @param list list to get hash code of
+     * @return hash code based on identity of list's elements
+     */
+    static int identityHashCode(final List<? extends TypeModel> list) {
+        int result = 1;
+        for (final TypeModel element : list) {
+            result = 31 * result + System.identityHashCode(element);
+        }
+        return result;
+    }
+
+    /**
+     * Non-generic, non-array class or interface, or primitive type.
+     *
+     * @param type the class
+     * @author Aleksandr Eliseev
+     */
+    record OfClass(Class<?> type) implements TypeModel {
+    }
+
+    /**
+     * Parameterized type. Arguments of owner type are not included, as in source representation.
+     *
+     * @param rawType   raw type
+     * @param arguments type arguments
+     * @author Aleksandr Eliseev
+     */
+    record OfParameterized(Class<?> rawType, List<TypeModel> arguments) implements TypeModel {
+        @Override
+        public boolean equals(final Object obj) {
+            return obj instanceof final OfParameterized other && rawType == other.rawType
+                    && identical(arguments, other.arguments);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * rawType.hashCode() + identityHashCode(arguments);
+        }
+    }
+
+    /**
+     * Type variable, that was not substituted.
+     * Type parameters of compared methods are represented by their position,
+     * so methods with renamed type parameters have equal signatures.
+     *
+     * @param name     name of type variable, or {@code null} for method's type parameter
+     * @param position position of method's type parameter, or {@code -1} for other type variables
+     * @author Aleksandr Eliseev
+     */
+    record OfVariable(String name, int position) implements TypeModel {
+    }
+
+    /**
+     * Wildcard type. Wildcard without bounds and wildcard with {@link Object} upper bound are equal.
+     *
+     * @param upperBounds upper bounds, empty if wildcard has lower bounds or no bounds
+     * @param lowerBounds lower bounds
+     * @author Aleksandr Eliseev
+     */
+    record OfWildcard(List<TypeModel> upperBounds, List<TypeModel> lowerBounds) implements TypeModel {
+        @Override
+        public boolean equals(final Object obj) {
+            return obj instanceof final OfWildcard other && identical(upperBounds, other.upperBounds)
+                    && identical(lowerBounds, other.lowerBounds);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * identityHashCode(upperBounds) + identityHashCode(lowerBounds);
+        }
+    }
+
+    /**
+     * Array type, either generic or not.
+     *
+     * @param componentType type of array's elements
+     * @author Aleksandr Eliseev
+     */
+    record OfArray(TypeModel componentType) implements TypeModel {
+        @Override
+        public boolean equals(final Object obj) {
+            return obj instanceof final OfArray other && componentType == other.componentType;
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(componentType);
+        }
+    }
+}
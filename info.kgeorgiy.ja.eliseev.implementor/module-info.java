@@ -8,6 +8,8 @@
 open module info.kgeorgiy.ja.eliseev.implementor {
     requires transitive info.kgeorgiy.java.advanced.implementor;
     requires java.compiler;
+    requires java.management;
+    requires static jdk.compiler;
     exports info.kgeorgiy.ja.eliseev.implementor;
 }
 
@@ -1,8 +1,19 @@
 package info.kgeorgiy.java.advanced.implementor;
 
 import info.kgeorgiy.java.advanced.base.BaseTester;
+import info.kgeorgiy.java.advanced.implementor.generic.BytecodeJarImplementorTest;
+import info.kgeorgiy.java.advanced.implementor.generic.CachedJarImplementorTest;
+import info.kgeorgiy.java.advanced.implementor.generic.CountingJarImplementorTest;
+import info.kgeorgiy.java.advanced.implementor.generic.DaemonJarImplementorTest;
+import info.kgeorgiy.java.advanced.implementor.generic.DelegateJarImplementorTest;
+import info.kgeorgiy.java.advanced.implementor.generic.DispatchJarImplementorTest;
 import info.kgeorgiy.java.advanced.implementor.generic.GenericImplementorTest;
 import info.kgeorgiy.java.advanced.implementor.generic.GenericJarImplementorTest;
+import info.kgeorgiy.java.advanced.implementor.generic.IncrementalJarImplementorTest;
+import info.kgeorgiy.java.advanced.implementor.generic.PipelineJarImplementorTest;
+import info.kgeorgiy.java.advanced.implementor.generic.RuntimeImplementorTest;
+import info.kgeorgiy.java.advanced.implementor.generic.StoredJarImplementorTest;
+import info.kgeorgiy.java.advanced.implementor.generic.WorkerPoolImplementorTest;
 
 /**
  * @author Georgiy Korneev (kgeorgiy@kgeorgiy.info)
@@ -18,10 +29,21 @@ public final class Tester {
                 .add("advanced", AdvancedImplementorTest.class)
                 .add("covariant", CovariantImplementorTest.class)
                 .add("generic", GenericImplementorTest.class) // Added by Aleksandr Eliseev
+                .add("runtime", RuntimeImplementorTest.class) // Added by Aleksandr Eliseev
+                .add("workers", WorkerPoolImplementorTest.class) // Added by Aleksandr Eliseev
                 .add("jar-interface", InterfaceJarImplementorTest.class)
                 .add("jar-class", ClassJarImplementorTest.class)
                 .add("jar-advanced", AdvancedJarImplementorTest.class)
                 .add("jar-generic", GenericJarImplementorTest.class) // Added by Aleksandr Eliseev
+                .add("jar-bytecode", BytecodeJarImplementorTest.class) // Added by Aleksandr Eliseev
+                .add("jar-stored", StoredJarImplementorTest.class) // Added by Aleksandr Eliseev
+                .add("jar-incremental", IncrementalJarImplementorTest.class) // Added by Aleksandr Eliseev
+                .add("jar-cached", CachedJarImplementorTest.class) // Added by Aleksandr Eliseev
+                .add("jar-delegate", DelegateJarImplementorTest.class) // Added by Aleksandr Eliseev
+                .add("jar-dispatch", DispatchJarImplementorTest.class) // Added by Aleksandr Eliseev
+                .add("jar-counting", CountingJarImplementorTest.class) // Added by Aleksandr Eliseev
+                .add("jar-pipeline", PipelineJarImplementorTest.class) // Added by Aleksandr Eliseev
+                .add("jar-daemon", DaemonJarImplementorTest.class) // Added by Aleksandr Eliseev
                 .run(args);
     }
 }
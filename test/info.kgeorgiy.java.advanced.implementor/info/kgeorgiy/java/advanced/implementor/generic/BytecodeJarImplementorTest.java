@@ -0,0 +1,19 @@
+package info.kgeorgiy.java.advanced.implementor.generic;
+
+import info.kgeorgiy.java.advanced.implementor.Impler;
+import info.kgeorgiy.java.advanced.implementor.ImplerException;
+
+import java.nio.file.Path;
+
+/**
+ * Runs jar tests with class-files generated directly, without java compiler.
+ * Generated class-files are verified only when they are loaded by checks of tests.
+ *
+ * @author Aleksandr Eliseev
+ */
+public class BytecodeJarImplementorTest extends GenericJarImplementorTest {
+    @Override
+    protected void implement(final Path root, final Impler implementor, final Class<?> clazz) throws ImplerException {
+        super.implement(root, configure(implementor, "withJarBackend", "BYTECODE"), clazz);
+    }
+}
@@ -0,0 +1,91 @@
+package info.kgeorgiy.java.advanced.implementor.generic;
+
+import info.kgeorgiy.java.advanced.implementor.Impler;
+import info.kgeorgiy.java.advanced.implementor.ImplerException;
+import info.kgeorgiy.java.advanced.implementor.InterfaceJarImplementorTest;
+import info.kgeorgiy.java.advanced.implementor.JarImpler;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Runs jar tests with analysis cache shared by two implementors, and by another process.
+ * Source code is implemented by one implementor, and <var>.jar</var> file by another one, that uses cached analysis.
+ *
+ * @author Aleksandr Eliseev
+ */
+public class CachedJarImplementorTest extends GenericJarImplementorTest {
+    private static final Path CACHE_DIRECTORY = Path.of("implementor-cache");
+    private static final Path CACHE_FILE = CACHE_DIRECTORY.resolve("analysis.cache");
+
+    @BeforeClass
+    public static void createCacheDirectory() throws IOException {
+        Files.createDirectories(CACHE_DIRECTORY);
+    }
+
+    @AfterClass
+    public static void deleteCacheDirectory() throws IOException {
+        clean(CACHE_DIRECTORY);
+    }
+
+    @Test
+    public void mySharedCacheProcessTest() throws IOException, InterruptedException {
+        final String modulePath = System.getProperty("jdk.module.path");
+        Assume.assumeNotNull(modulePath);
+
+        final Class<?>[] classes = {GenericArrays.class, GenericsWithBounds.class, RealTypeInGenericArgument.class,
+                GenericInterfaceWithGenericMethods.class, DeclaringClass.ZZ.class, DeclaringClass.U.class};
+        final Path childRoot = Path.of(testMethodName + "-child");
+        final List<String> command = new ArrayList<>(List.of(
+                Path.of(System.getProperty("java.home"), "bin", "java").toString(),
+                "-D" + CUT_PROPERTY + "=" + System.getProperty(CUT_PROPERTY),
+                "-p", modulePath,
+                "--add-modules", "ALL-MODULE-PATH",
+                "-m", CachedJarImplementorTest.class.getModule().getName() + "/" + CachedJarImplementorTest.class.getName(),
+                childRoot.toString()
+        ));
+        Arrays.stream(classes).map(Class::getName).forEach(command::add);
+
+        final Process child = new ProcessBuilder(command).inheritIO().start();
+        try {
+            test(false, classes);
+            Assert.assertEquals("Another process exit code", 0, child.waitFor());
+        } finally {
+            child.destroy();
+            clean(childRoot);
+        }
+    }
+
+    @Override
+    protected void implement(final Path root, final Impler implementor, final Class<?> clazz) throws ImplerException {
+        final Impler other = createCUT();
+        super.implement(root, configure(implementor, "withAnalysisCache", CACHE_FILE), clazz);
+        InterfaceJarImplementorTest.implementJar(root, configure(other, "withAnalysisCache", CACHE_FILE), clazz);
+    }
+
+    /**
+     * Implements classes/interfaces with analysis cache in another process.
+     *
+     * @param args root directory and names of classes/interfaces
+     * @throws ClassNotFoundException if class/interface is not found
+     * @throws ImplerException        if class/interface cannot be implemented
+     */
+    public static void main(final String... args) throws ClassNotFoundException, ImplerException {
+        final Path root = Path.of(args[0]);
+        final JarImpler implementor = (JarImpler) configure(createCUT(), "withAnalysisCache", CACHE_FILE);
+        for (final String name : Arrays.asList(args).subList(1, args.length)) {
+            final Class<?> clazz = Class.forName(name);
+            implementor.implement(clazz, root);
+            implementor.implementJar(clazz, root.resolve(name + ".jar"));
+        }
+    }
+}
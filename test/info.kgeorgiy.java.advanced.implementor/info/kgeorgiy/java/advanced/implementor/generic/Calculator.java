@@ -0,0 +1,12 @@
+package info.kgeorgiy.java.advanced.implementor.generic;
+
+import java.io.IOException;
+
+public interface Calculator {
+    int add(int a, int b);
+    long negate(long a);
+    double half(float a);
+    boolean isEmpty(String s);
+    String name();
+    void check() throws IOException;
+}
@@ -0,0 +1,58 @@
+package info.kgeorgiy.java.advanced.implementor.generic;
+
+import info.kgeorgiy.java.advanced.implementor.Impler;
+import info.kgeorgiy.java.advanced.implementor.ImplerException;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Map;
+
+/**
+ * Runs jar tests with implementations, that count calls of their methods.
+ *
+ * @author Aleksandr Eliseev
+ */
+public class CountingJarImplementorTest extends GenericJarImplementorTest {
+    @Test
+    public void myCallCountsTest() throws ReflectiveOperationException, ImplerException, IOException {
+        final Path root = Path.of(testMethodName);
+        try {
+            final Class<?> implementation = loadImplementation(root, configureMode(createCUT()), Calculator.class);
+            final Calculator calculator = (Calculator) implementation.getConstructor().newInstance();
+            for (int i = 0; i < 3; i++) {
+                Assert.assertEquals("Methods should return default values", 0, calculator.add(i, i));
+            }
+            Assert.assertNull("Methods should return default values", calculator.name());
+            // Counters are shared by all instances
+            ((Calculator) implementation.getConstructor().newInstance()).name();
+
+            Assert.assertEquals(Map.of(
+                    "add(int, int)", 3L,
+                    "negate(long)", 0L,
+                    "half(float)", 0L,
+                    "isEmpty(java.lang.String)", 0L,
+                    "name()", 2L,
+                    "check()", 0L
+            ), implementation.getMethod("getCallCounts").invoke(null));
+        } finally {
+            clean(root);
+        }
+    }
+
+    @Override
+    protected void implement(final Path root, final Impler implementor, final Class<?> clazz) throws ImplerException {
+        super.implement(root, configureMode(implementor), clazz);
+    }
+
+    /**
+     * Configures implementor to generate counting implementations.
+     *
+     * @param implementor implementor to be configured
+     * @return configured implementor
+     */
+    private static Impler configureMode(final Impler implementor) {
+        return configure(implementor, "withGenerationMode", "COUNTING");
+    }
+}
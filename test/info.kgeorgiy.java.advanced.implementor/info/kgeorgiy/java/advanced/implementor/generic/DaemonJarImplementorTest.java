@@ -0,0 +1,149 @@
+package info.kgeorgiy.java.advanced.implementor.generic;
+
+import info.kgeorgiy.java.advanced.implementor.Impler;
+import info.kgeorgiy.java.advanced.implementor.ImplerException;
+import info.kgeorgiy.java.advanced.implementor.JarImpler;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs jar tests with <var>.jar</var> files produced by implementor daemon, that is requested over socket file.
+ *
+ * @author Aleksandr Eliseev
+ */
+public class DaemonJarImplementorTest extends GenericJarImplementorTest {
+    private static final long TIMEOUT_SECONDS = 60;
+
+    private static Path socketDirectory;
+    private static Path socketFile;
+    private static Thread daemon;
+
+    /**
+     * Starts daemon in background thread, and waits until it listens on socket file.
+     *
+     * @throws IOException          if temporary directory cannot be created
+     * @throws InterruptedException if current thread is interrupted
+     */
+    @BeforeClass
+    public static void startDaemon() throws IOException, InterruptedException {
+        // Temporary directory keeps socket path shorter than the limit of Unix domain sockets
+        socketDirectory = Files.createTempDirectory("implementor");
+        socketFile = socketDirectory.resolve("daemon.socket");
+        final Object server = createDaemon(createCUT(), socketFile);
+        daemon = new Thread(() -> {
+            try {
+                server.getClass().getMethod("serve").invoke(server);
+            } catch (final IllegalAccessException | NoSuchMethodException e) {
+                throw new AssertionError(e);
+            } catch (final InvocationTargetException ignored) {
+                // Daemon is stopped by interruption, that closes socket
+            }
+        });
+        daemon.start();
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(TIMEOUT_SECONDS);
+        while (!Files.exists(socketFile)) {
+            Assert.assertTrue("Daemon should be running", daemon.isAlive());
+            Assert.assertTrue("Daemon should listen on " + socketFile, System.nanoTime() < deadline);
+            Thread.sleep(10);
+        }
+    }
+
+    /**
+     * Stops daemon and checks, that it deletes socket file.
+     *
+     * @throws IOException          if temporary directory cannot be deleted
+     * @throws InterruptedException if current thread is interrupted
+     */
+    @AfterClass
+    public static void stopDaemon() throws IOException, InterruptedException {
+        daemon.interrupt();
+        daemon.join(TimeUnit.SECONDS.toMillis(TIMEOUT_SECONDS));
+        Assert.assertFalse("Daemon should stop", daemon.isAlive());
+        Assert.assertFalse("Daemon should delete socket file", Files.exists(socketFile));
+        clean(socketDirectory);
+    }
+
+    @Test
+    public void myRoundTripTest() throws IOException {
+        final Path root = Files.createDirectories(Path.of(testMethodName));
+        try {
+            final Path jarFile = root.resolve("daemon.jar");
+            Assert.assertEquals("Request should succeed", List.of(),
+                    send(List.of("-jar", jarFile.toString(), Calculator.class.getName())));
+            Assert.assertTrue("Jar file not found", Files.isRegularFile(jarFile));
+            try (final URLClassLoader loader = getClassLoader(jarFile)) {
+                check(loader, Calculator.class);
+            }
+
+            final List<String> errors = send(List.of("-jar", root.resolve("failed.jar").toString(),
+                    String.class.getName()));
+            Assert.assertFalse("Errors should be returned for " + String.class, errors.isEmpty());
+            Assert.assertTrue("Unexpected error " + errors, errors.get(0).startsWith("Error: "));
+            Assert.assertFalse("Failed jar file should not be created", Files.exists(root.resolve("failed.jar")));
+        } finally {
+            clean(root);
+        }
+    }
+
+    @Override
+    protected void implement(final Path root, final Impler implementor, final Class<?> clazz) throws ImplerException {
+        super.implement(root, new JarImpler() {
+            @Override
+            public void implement(final Class<?> token, final Path root) throws ImplerException {
+                implementor.implement(token, root);
+            }
+
+            @Override
+            public void implementJar(final Class<?> token, final Path jarFile) throws ImplerException {
+                final List<String> errors = send(List.of("-jar", jarFile.toString(), token.getName()));
+                if (!errors.isEmpty()) {
+                    throw new ImplerException(String.join(System.lineSeparator(), errors));
+                }
+            }
+        }, clazz);
+    }
+
+    /**
+     * Sends request to running daemon.
+     *
+     * @param args command-line arguments of request
+     * @return error messages, empty if request succeeded
+     */
+    @SuppressWarnings("unchecked")
+    private static List<String> send(final List<String> args) {
+        try {
+            return (List<String>) Class.forName(loadClass().getPackageName() + ".ImplementorDaemon")
+                    .getMethod("send", Path.class, List.class)
+                    .invoke(null, socketFile, args);
+        } catch (final ReflectiveOperationException e) {
+            throw new AssertionError(e instanceof InvocationTargetException ? e.getCause() : e);
+        }
+    }
+
+    /**
+     * Creates daemon, that is not started yet.
+     *
+     * @param implementor implementor performing requests
+     * @param socketFile  socket file, on which daemon listens
+     * @return created daemon
+     */
+    private static Object createDaemon(final Impler implementor, final Path socketFile) {
+        try {
+            return Class.forName(loadClass().getPackageName() + ".ImplementorDaemon")
+                    .getConstructor(implementor.getClass(), Path.class)
+                    .newInstance(implementor, socketFile);
+        } catch (final ReflectiveOperationException e) {
+            throw new AssertionError(e);
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package info.kgeorgiy.java.advanced.implementor.generic;
+
+import info.kgeorgiy.java.advanced.implementor.Impler;
+import info.kgeorgiy.java.advanced.implementor.ImplerException;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Runs jar tests with implementations, that forward calls to delegate passed to constructor.
+ *
+ * @author Aleksandr Eliseev
+ */
+public class DelegateJarImplementorTest extends GenericJarImplementorTest {
+    @Test
+    public void myForwardingTest() throws ReflectiveOperationException, ImplerException, IOException {
+        final Calculator delegate = new Calculator() {
+            @Override
+            public int add(final int a, final int b) {
+                return a + b;
+            }
+
+            @Override
+            public long negate(final long a) {
+                return -a;
+            }
+
+            @Override
+            public double half(final float a) {
+                return a / 2;
+            }
+
+            @Override
+            public boolean isEmpty(final String s) {
+                return s.isEmpty();
+            }
+
+            @Override
+            public String name() {
+                return "delegate";
+            }
+
+            @Override
+            public void check() throws IOException {
+                throw new IOException("check");
+            }
+        };
+
+        final Path root = Path.of(testMethodName);
+        try {
+            final Calculator calculator = (Calculator) loadImplementation(root, configureMode(createCUT()),
+                    Calculator.class).getConstructor(Calculator.class).newInstance(delegate);
+            Assert.assertEquals(5, calculator.add(2, 3));
+            Assert.assertEquals(-5, calculator.negate(5));
+            Assert.assertEquals(0.75, calculator.half(1.5f), 0);
+            Assert.assertTrue(calculator.isEmpty(""));
+            Assert.assertEquals("delegate", calculator.name());
+            try {
+                calculator.check();
+                Assert.fail("Exception of delegate should be thrown");
+            } catch (final IOException e) {
+                Assert.assertEquals("check", e.getMessage());
+            }
+        } finally {
+            clean(root);
+        }
+    }
+
+    @Override
+    protected void implement(final Path root, final Impler implementor, final Class<?> clazz) throws ImplerException {
+        super.implement(root, configureMode(implementor), clazz);
+    }
+
+    /**
+     * Configures implementor to generate delegating implementations.
+     *
+     * @param implementor implementor to be configured
+     * @return configured implementor
+     */
+    private static Impler configureMode(final Impler implementor) {
+        return configure(implementor, "withGenerationMode", "DELEGATE");
+    }
+}
@@ -0,0 +1,156 @@
+package info.kgeorgiy.java.advanced.implementor.generic;
+
+import info.kgeorgiy.java.advanced.implementor.Impler;
+import info.kgeorgiy.java.advanced.implementor.ImplerException;
+import org.junit.Assert;
+import org.junit.Test;
+
+import javax.tools.ToolProvider;
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.lang.reflect.UndeclaredThrowableException;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Runs jar tests with implementations, that pass calls to dispatch handler passed to constructor.
+ * Implementations refer to implementor's module, so it is added to class path of compiled sources.
+ *
+ * @author Aleksandr Eliseev
+ */
+public class DispatchJarImplementorTest extends GenericJarImplementorTest {
+    @Test
+    public void myDispatchTest() throws Throwable {
+        final List<Object[]> calls = new ArrayList<>();
+        final Throwable[] failure = new Throwable[1];
+        final Class<?> handlerType = Class.forName(loadClass().getPackageName() + ".DispatchHandler");
+        final Object handler = Proxy.newProxyInstance(handlerType.getClassLoader(), new Class<?>[]{handlerType},
+                (proxy, entryPoint, arguments) -> {
+                    calls.add(Stream.concat(Stream.of(entryPoint.getName()), Arrays.stream(arguments)).toArray());
+                    return switch (((Method) arguments[2]).getName()) {
+                        case "add" -> 42L;
+                        case "negate" -> 7L;
+                        case "half" -> 0.25;
+                        case "isEmpty" -> true;
+                        case "name" -> "handler";
+                        default -> throw failure[0];
+                    };
+                });
+
+        final Path root = Path.of(testMethodName);
+        try {
+            final Calculator calculator = (Calculator) loadImplementation(root, configureMode(createCUT()),
+                    Calculator.class).getConstructor(handlerType).newInstance(handler);
+            Assert.assertEquals(42, calculator.add(2, 3));
+            checkCall(calls, "invokeLong", calculator, "add", new Object[]{2, 3}, int.class, int.class);
+            Assert.assertEquals(7, calculator.negate(5));
+            checkCall(calls, "invokeLong", calculator, "negate", 5L, long.class);
+            Assert.assertEquals(0.25, calculator.half(1.5f), 0);
+            checkCall(calls, "invokeDouble", calculator, "half", 1.5, float.class);
+            Assert.assertTrue(calculator.isEmpty("value"));
+            checkCall(calls, "invokeBoolean", calculator, "isEmpty", "value", String.class);
+            Assert.assertEquals("handler", calculator.name());
+            final Object[] name = checkCall(calls, "invoke", calculator, "name", null);
+            Assert.assertEquals("handler", calculator.name());
+            final Object[] sameName = checkCall(calls, "invoke", calculator, "name", null);
+            Assert.assertEquals("Method id should not change", name[2], sameName[2]);
+            Assert.assertSame("Method should be resolved once", name[3], sameName[3]);
+            Assert.assertEquals("Methods should have different ids", 5,
+                    calls.stream().map(call -> call[2]).distinct().count());
+
+            failure[0] = new IOException("check");
+            try {
+                calculator.check();
+                Assert.fail("Declared exception should be thrown");
+            } catch (final IOException e) {
+                Assert.assertSame(failure[0], e);
+            }
+            failure[0] = new Exception("check");
+            try {
+                calculator.check();
+                Assert.fail("Undeclared exception should be thrown");
+            } catch (final UndeclaredThrowableException e) {
+                Assert.assertSame(failure[0], e.getCause());
+            }
+        } finally {
+            clean(root);
+        }
+    }
+
+    /**
+     * Checks the last call of dispatch handler.
+     *
+     * @param calls          calls of handler: entry point followed by its arguments
+     * @param entryPoint     expected entry point
+     * @param proxy          expected implementation
+     * @param name           name of called method
+     * @param argument       expected argument of entry point, {@code null} if there should be no argument
+     * @param parameterTypes parameter types of called method
+     * @return checked call
+     * @throws NoSuchMethodException if there is no called method in {@link Calculator}
+     */
+    private static Object[] checkCall(final List<Object[]> calls, final String entryPoint, final Object proxy,
+                                      final String name, final Object argument, final Class<?>... parameterTypes)
+            throws NoSuchMethodException {
+        final Object[] call = calls.get(calls.size() - 1);
+        Assert.assertEquals("Entry point of " + name, entryPoint, call[0]);
+        Assert.assertSame("Implementation should be passed to handler", proxy, call[1]);
+        Assert.assertEquals("Method should be passed to handler",
+                Calculator.class.getMethod(name, parameterTypes), call[3]);
+        if (argument == null) {
+            Assert.assertEquals("No argument should be passed for " + name, 4, call.length);
+        } else {
+            Assert.assertEquals("Argument should be passed for " + name, 5, call.length);
+            Assert.assertArrayEquals("Argument of " + name, new Object[]{argument}, new Object[]{call[4]});
+        }
+        return call;
+    }
+
+    @Override
+    public void compile(final Path root, final Class<?>... classes) {
+        final List<String> arguments = new ArrayList<>();
+        for (final Class<?> token : classes) {
+            arguments.add(getFile(root, token).toString());
+        }
+        arguments.addAll(List.of("-encoding", StandardCharsets.UTF_8.name(), "-cp", String.join(File.pathSeparator,
+                root.toString(), getLocation(DispatchJarImplementorTest.class), getLocation(loadClass()))));
+        Assert.assertEquals("Compiler exit code", 0,
+                ToolProvider.getSystemJavaCompiler().run(null, null, null, arguments.toArray(String[]::new)));
+    }
+
+    /**
+     * Gets location of class-files of module or class path entry.
+     *
+     * @param token class from module or class path entry
+     * @return path to directory or <var>.jar</var> file
+     */
+    private static String getLocation(final Class<?> token) {
+        try {
+            return Path.of(token.getProtectionDomain().getCodeSource().getLocation().toURI()).toString();
+        } catch (final URISyntaxException e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    @Override
+    protected void implement(final Path root, final Impler implementor, final Class<?> clazz) throws ImplerException {
+        super.implement(root, configureMode(implementor), clazz);
+    }
+
+    /**
+     * Configures implementor to generate dispatching implementations.
+     *
+     * @param implementor implementor to be configured
+     * @return configured implementor
+     */
+    private static Impler configureMode(final Impler implementor) {
+        return configure(implementor, "withGenerationMode", "DISPATCH");
+    }
+}
@@ -0,0 +1,12 @@
+package info.kgeorgiy.java.advanced.implementor.generic;
+
+import java.util.function.Function;
+
+public class FunctionalInterfaces {
+    public interface StrFn extends Function<String, String> {
+    }
+
+    public interface FiveArguments {
+        int apply(int a, int b, int c, int d, int e);
+    }
+}
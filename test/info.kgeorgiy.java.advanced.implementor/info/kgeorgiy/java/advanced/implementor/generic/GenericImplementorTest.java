@@ -1,9 +1,17 @@
 package info.kgeorgiy.java.advanced.implementor.generic;
 
 import info.kgeorgiy.java.advanced.implementor.CovariantImplementorTest;
+import info.kgeorgiy.java.advanced.implementor.ImplerException;
 import info.kgeorgiy.java.advanced.implementor.generic.subpackage.Subpackage;
+import org.junit.Assert;
 import org.junit.Test;
 
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.List;
+
 /**
  * My tests for bonus version of
  * <a href="https://www.kgeorgiy.info/courses/java-advanced/homeworks.html#homework-implementor">Implementor</a>
@@ -21,6 +29,65 @@ public class GenericImplementorTest extends CovariantImplementorTest {
              DollarsIn$Name$$.$Inner$Cla$$.class, DollarsIn$Name$$.SSSS.class, GenericArrays.class,
              GenericInterface.class, GenericInterfaceWithGenericMethods.class, GenericsWithBounds.class,
              GenericThrowsConstructor.class, InterfaceWithGenericMethods.class, RealTypeInGenericArgument.class,
-             DeclaringClass.StringChild.class, DeclaringClass.ZZ.class, DeclaringClass.U.class);
+             DeclaringClass.StringChild.class, DeclaringClass.ZZ.class, DeclaringClass.U.class,
+             ShadowedTypeVariable.Child.class);
+    }
+
+    @Test
+    public void myImplementAllTest() throws IOException {
+        final List<Class<?>> tokens = List.of(Calculator.class, String.class, GenericInterface.class,
+                DeclaringClass.C.class, Dependency.class);
+        final List<Class<?>> failing = List.of(String.class, DeclaringClass.C.class);
+        final Path root = Path.of(testMethodName);
+        try {
+            final List<?> results = (List<?>) call(createCUT(), "implementAll",
+                    new Class<?>[]{Collection.class, Path.class}, tokens, root);
+            Assert.assertEquals("Each class should have result", tokens.size(), results.size());
+            for (int i = 0; i < tokens.size(); i++) {
+                final Class<?> token = tokens.get(i);
+                final Object result = results.get(i);
+                Assert.assertSame("Results should be in order of classes", token, call(result, "getToken"));
+                final boolean fails = failing.contains(token);
+                Assert.assertEquals("Unexpected result " + result, !fails, call(result, "isSuccessful"));
+                Assert.assertEquals("Exception should be given for failed " + token, fails,
+                        call(result, "getException") instanceof ImplerException);
+            }
+            final Class<?>[] implemented = {Calculator.class, GenericInterface.class, Dependency.class};
+            compile(root, implemented);
+            check(root, implemented);
+        } finally {
+            clean(root);
+        }
+    }
+
+    /**
+     * Calls public method of implementor or its result, as tests cannot depend on implementor's classes.
+     *
+     * @param target         object, which method is called
+     * @param name           name of method
+     * @param parameterTypes parameter types of method
+     * @param args           arguments of call
+     * @return value returned by method
+     */
+    protected static Object call(final Object target, final String name, final Class<?>[] parameterTypes,
+                                 final Object... args) {
+        try {
+            return target.getClass().getMethod(name, parameterTypes).invoke(target, args);
+        } catch (final IllegalAccessException | NoSuchMethodException e) {
+            throw new AssertionError(e);
+        } catch (final InvocationTargetException e) {
+            throw new AssertionError("Error calling " + name, e.getCause());
+        }
+    }
+
+    /**
+     * Calls public method without parameters of implementor or its result.
+     *
+     * @param target object, which method is called
+     * @param name   name of method
+     * @return value returned by method
+     */
+    protected static Object call(final Object target, final String name) {
+        return call(target, name, new Class<?>[0]);
     }
 }
@@ -3,16 +3,182 @@ package info.kgeorgiy.java.advanced.implementor.generic;
 import info.kgeorgiy.java.advanced.implementor.Impler;
 import info.kgeorgiy.java.advanced.implementor.ImplerException;
 import info.kgeorgiy.java.advanced.implementor.InterfaceJarImplementorTest;
+import info.kgeorgiy.java.advanced.implementor.JarImpler;
+import info.kgeorgiy.java.advanced.implementor.full.classes.Overridden;
+import org.junit.Assert;
+import org.junit.Test;
 
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.jar.JarFile;
 
 /**
  * @author Aleksandr Eliseev
  */
 public class GenericJarImplementorTest extends GenericImplementorTest {
+    /**
+     * Classes/interfaces, which generated source code doesn't compile, must be rejected by every jar backend.
+     */
+    @Test
+    public void myUncompilableTest() {
+        test(true, Overridden.PrivateArg.class);
+        test(true, Overridden.PrivateResult.class);
+        test(true, DeclaringClass.B.class);
+        test(true, GenericClass.class);
+    }
+
+    @Test
+    public void myManyClassesJarTest() throws ImplerException, IOException {
+        final List<Class<?>> classes = List.of(Calculator.class, GenericInterface.class, Dependency.class,
+                DeclaringClass.ZZ.class, Calculator.class);
+        final Path root = Files.createDirectories(Path.of(testMethodName));
+        try {
+            final Impler implementor = createCUT();
+            final Path jarFile = root.resolve("classes.jar");
+            implementJar(implementor, classes, jarFile);
+            try (final JarFile jar = new JarFile(jarFile.toFile());
+                 final URLClassLoader loader = getClassLoader(jarFile)) {
+                for (final Class<?> token : classes) {
+                    final String entry = token.getPackageName().replace('.', '/') + "/" + token.getSimpleName()
+                            + "Impl.class";
+                    Assert.assertEquals("Jar file should contain " + entry + " once", 1,
+                            jar.stream().filter(candidate -> candidate.getName().equals(entry)).count());
+                    check(loader, token);
+                }
+            }
+
+            final Path failedJarFile = root.resolve("failed.jar");
+            try {
+                implementJar(implementor, List.of(Calculator.class, String.class), failedJarFile);
+                Assert.fail("You may not implement " + String.class);
+            } catch (final ImplerException ignored) {
+                // Expected
+            }
+            Assert.assertFalse("Failed jar file should not be created", Files.exists(failedJarFile));
+        } finally {
+            clean(root);
+        }
+    }
+
+    @Test
+    public void myConcurrentJarTest() throws IOException {
+        final List<Class<?>> classes = List.of(Calculator.class, GenericInterface.class, Dependency.class,
+                DeclaringClass.ZZ.class, ShadowedTypeVariable.Child.class, GenericArrays.class);
+        final Path root = Files.createDirectories(Path.of(testMethodName));
+        try {
+            final Impler implementor = createCUT();
+            final List<Command<ImplerException>> commands = new ArrayList<>();
+            for (final Class<?> token : classes) {
+                // Each class is implemented twice at once, to different jar files
+                for (int i = 0; i < 2; i++) {
+                    final Path jarFile = root.resolve(token.getName() + "-" + i + ".jar");
+                    commands.add(() -> ((JarImpler) implementor).implementJar(token, jarFile));
+                }
+            }
+            parallelCommands(commands.size(), commands);
+            for (final Class<?> token : classes) {
+                for (int i = 0; i < 2; i++) {
+                    final Path jarFile = root.resolve(token.getName() + "-" + i + ".jar");
+                    try (final URLClassLoader loader = getClassLoader(jarFile)) {
+                        check(loader, token);
+                    }
+                }
+            }
+        } finally {
+            clean(root);
+        }
+    }
+
     @Override
     protected void implement(final Path root, final Impler implementor, final Class<?> clazz) throws ImplerException {
         super.implement(root, implementor, clazz);
         InterfaceJarImplementorTest.implementJar(root, implementor, clazz);
     }
+
+    /**
+     * Implements class/interface into <var>.jar</var> file and loads implementation from it.
+     * Package of {@code token} is exported to class loader, so that implementation can be linked.
+     *
+     * @param root        directory to put <var>.jar</var> file in
+     * @param implementor implementor to be used
+     * @param token       class/interface from this module to be implemented
+     * @return loaded implementation
+     * @throws ImplerException if class/interface cannot be implemented
+     * @throws IOException     if directory cannot be created
+     */
+    protected static Class<?> loadImplementation(final Path root, final Impler implementor, final Class<?> token)
+            throws ImplerException, IOException {
+        final Path jarFile = Files.createDirectories(root).resolve(token.getName() + ".jar");
+        ((JarImpler) implementor).implementJar(token, jarFile);
+        final URLClassLoader loader = getClassLoader(jarFile);
+        token.getModule().addExports(token.getPackageName(), loader.getUnnamedModule());
+        try {
+            return loader.loadClass(token.getName() + "Impl");
+        } catch (final ClassNotFoundException e) {
+            throw new AssertionError("Error loading implementation of " + token, e);
+        }
+    }
+
+    /**
+     * Produces one <var>.jar</var> file with implementations of all given classes/interfaces.
+     *
+     * @param implementor implementor to be used
+     * @param tokens      classes/interfaces to be implemented
+     * @param jarFile     target <var>.jar</var> file
+     * @throws ImplerException if any of classes/interfaces cannot be implemented
+     */
+    protected static void implementJar(final Impler implementor, final Collection<Class<?>> tokens,
+                                       final Path jarFile) throws ImplerException {
+        try {
+            implementor.getClass().getMethod("implementJar", Collection.class, Path.class)
+                    .invoke(implementor, tokens, jarFile);
+        } catch (final IllegalAccessException | NoSuchMethodException e) {
+            throw new AssertionError(e);
+        } catch (final InvocationTargetException e) {
+            if (e.getCause() instanceof ImplerException) {
+                throw (ImplerException) e.getCause();
+            }
+            throw new AssertionError(e.getCause());
+        }
+    }
+
+    /**
+     * Configures implementor with its one-argument method, that returns configured copy of implementor.
+     * Enum arguments are given by names of constants, as tests cannot depend on implementor's classes.
+     *
+     * @param implementor implementor to be configured
+     * @param method      name of configuring method
+     * @param value       argument of configuring method, or name of enum constant
+     * @return configured implementor
+     */
+    protected static Impler configure(final Impler implementor, final String method, final Object value) {
+        final Method setter = Arrays.stream(implementor.getClass().getMethods())
+                .filter(candidate -> candidate.getName().equals(method) && candidate.getParameterCount() == 1)
+                .findFirst()
+                .orElseThrow(() -> new AssertionError(implementor.getClass().getName() + " should have " + method));
+        final Class<?> type = setter.getParameterTypes()[0];
+        final Object argument = type.isEnum()
+                ? Arrays.stream(type.getEnumConstants())
+                        .filter(constant -> ((Enum<?>) constant).name().equals(value))
+                        .findFirst()
+                        .orElseThrow(() -> new AssertionError(type.getName() + " should have " + value))
+                : value;
+        try {
+            final Object configured = setter.invoke(implementor, argument);
+            Assert.assertTrue(method + " should return implementor", configured instanceof Impler);
+            return (Impler) configured;
+        } catch (final IllegalAccessException e) {
+            throw new AssertionError(e);
+        } catch (final InvocationTargetException e) {
+            throw new AssertionError(e.getCause());
+        }
+    }
 }
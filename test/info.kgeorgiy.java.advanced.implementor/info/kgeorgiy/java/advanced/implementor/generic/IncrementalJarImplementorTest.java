@@ -0,0 +1,43 @@
+package info.kgeorgiy.java.advanced.implementor.generic;
+
+import info.kgeorgiy.java.advanced.implementor.Impler;
+import info.kgeorgiy.java.advanced.implementor.ImplerException;
+import info.kgeorgiy.java.advanced.implementor.InterfaceJarImplementorTest;
+import org.junit.Assert;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Runs jar tests with incremental update of <var>.jar</var> files.
+ * Each <var>.jar</var> file is implemented twice, so the second run updates existing file,
+ * which must keep entries not produced by implementor.
+ *
+ * @author Aleksandr Eliseev
+ */
+public class IncrementalJarImplementorTest extends GenericJarImplementorTest {
+    private static final String FOREIGN_ENTRY = "foreign.txt";
+
+    @Override
+    protected void implement(final Path root, final Impler implementor, final Class<?> clazz) throws ImplerException {
+        final Impler configured = configure(implementor, "withIncrementalJarUpdate", true);
+        super.implement(root, configured, clazz);
+        final Path jarFile = root.resolve(clazz.getName() + ".jar");
+        try (final FileSystem jar = FileSystems.newFileSystem(jarFile)) {
+            Files.writeString(jar.getPath(FOREIGN_ENTRY), clazz.getName());
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        InterfaceJarImplementorTest.implementJar(root, configured, clazz);
+        try (final FileSystem jar = FileSystems.newFileSystem(jarFile)) {
+            Assert.assertEquals("Foreign entry should be kept", clazz.getName(),
+                    Files.readString(jar.getPath(FOREIGN_ENTRY)));
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,5 @@
+package info.kgeorgiy.java.advanced.implementor.generic;
+
+interface PackagePrivateInterface {
+    void method();
+}
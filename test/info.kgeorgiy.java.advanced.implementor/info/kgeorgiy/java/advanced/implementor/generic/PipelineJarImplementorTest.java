@@ -0,0 +1,218 @@
+package info.kgeorgiy.java.advanced.implementor.generic;
+
+import info.kgeorgiy.java.advanced.implementor.Impler;
+import info.kgeorgiy.java.advanced.implementor.ImplerException;
+import info.kgeorgiy.java.advanced.implementor.JarImpler;
+import org.junit.Assert;
+import org.junit.Test;
+
+import javax.sql.rowset.CachedRowSet;
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Flow;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.jar.JarFile;
+import java.util.stream.Stream;
+
+/**
+ * Runs jar tests with <var>.jar</var> files produced by implementation pipeline.
+ *
+ * @author Aleksandr Eliseev
+ */
+public class PipelineJarImplementorTest extends GenericJarImplementorTest {
+    private static final long TIMEOUT_SECONDS = 60;
+
+    @Test
+    public void myPipelineJarTest() throws ImplerException, IOException {
+        final List<Class<?>> classes = List.of(Calculator.class, GenericInterface.class, Dependency.class,
+                DeclaringClass.ZZ.class, ShadowedTypeVariable.Child.class);
+        final Path root = Files.createDirectories(Path.of(testMethodName));
+        try {
+            final Path jarFile = root.resolve("pipeline.jar");
+            implementJar(createCUT(), classes, jarFile);
+            try (final JarFile jar = new JarFile(jarFile.toFile());
+                 final URLClassLoader loader = getClassLoader(jarFile)) {
+                for (final Class<?> token : classes) {
+                    final String entry = token.getPackageName().replace('.', '/') + "/" + token.getSimpleName()
+                            + "Impl.class";
+                    Assert.assertNotNull("Jar file should contain " + entry, jar.getEntry(entry));
+                    check(loader, token);
+                }
+            }
+
+            final Path failedJarFile = root.resolve("failed.jar");
+            try {
+                implementJar(createCUT(), List.of(Calculator.class, String.class, GenericInterface.class),
+                        failedJarFile);
+                Assert.fail("You may not implement " + String.class);
+            } catch (final ImplerException ignored) {
+                // Expected
+            }
+            try (final Stream<Path> files = Files.list(root)) {
+                Assert.assertEquals("Failed jar file should be discarded", List.of(jarFile), files.toList());
+            }
+        } finally {
+            clean(root);
+        }
+    }
+
+    @Test
+    public void myPublisherTest() throws InterruptedException, IOException {
+        final List<Class<?>> classes = List.of(Calculator.class, String.class, GenericInterface.class,
+                Dependency.class, DeclaringClass.ZZ.class);
+        final BlockingQueue<Object> published = new LinkedBlockingQueue<>();
+        final CountDownLatch completed = new CountDownLatch(1);
+        final AtomicReference<Flow.Subscription> subscription = new AtomicReference<>();
+        final Path root = Path.of(testMethodName);
+        try {
+            publishAll(createCUT(), classes, root).subscribe(new Flow.Subscriber<>() {
+                @Override
+                public void onSubscribe(final Flow.Subscription s) {
+                    subscription.set(s);
+                    s.request(2);
+                }
+
+                @Override
+                public void onNext(final Object item) {
+                    published.add(item);
+                }
+
+                @Override
+                public void onError(final Throwable throwable) {
+                    published.add(throwable);
+                    completed.countDown();
+                }
+
+                @Override
+                public void onComplete() {
+                    completed.countDown();
+                }
+            });
+            final List<Object> results = new ArrayList<>();
+            for (int i = 0; i < 2; i++) {
+                final Object result = published.poll(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+                Assert.assertNotNull("Requested result should be published", result);
+                results.add(result);
+            }
+            Assert.assertNull("Only requested results should be published",
+                    published.poll(100, TimeUnit.MILLISECONDS));
+            subscription.get().request(Long.MAX_VALUE);
+            Assert.assertTrue("Publisher should complete", completed.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+            published.drainTo(results);
+
+            Assert.assertEquals("Each class should have result", classes.size(), results.size());
+            for (final Class<?> token : classes) {
+                final String description = results.stream()
+                        .map(Object::toString)
+                        .filter(result -> result.startsWith(token.getName() + " "))
+                        .findFirst()
+                        .orElseThrow(() -> new AssertionError("No result for " + token));
+                Assert.assertTrue("Unexpected result " + description, description.contains(
+                        token == String.class ? " failed in " : " implemented in "));
+            }
+        } finally {
+            clean(root);
+        }
+    }
+
+    @Test
+    public void myLargestFirstTest() throws ReflectiveOperationException {
+        final Method order = Class.forName(loadClass().getPackageName() + ".utils.SchedulingUtils")
+                .getMethod("getLargestFirstOrder", List.class);
+        // Utilities are not exported, but implementor's module is open
+        order.setAccessible(true);
+        Assert.assertArrayEquals("Larger hierarchy should be implemented first", new int[]{1, 0},
+                (int[]) order.invoke(null, List.of(RandomAccess.class, CachedRowSet.class)));
+        Assert.assertArrayEquals("Types of equal cost should keep their order", new int[]{0, 1},
+                (int[]) order.invoke(null, List.of(Calculator.class, Calculator.class)));
+    }
+
+    @Override
+    protected void implement(final Path root, final Impler implementor, final Class<?> clazz) throws ImplerException {
+        super.implement(root, new JarImpler() {
+            @Override
+            public void implement(final Class<?> token, final Path root) throws ImplerException {
+                implementor.implement(token, root);
+            }
+
+            @Override
+            public void implementJar(final Class<?> token, final Path jarFile) throws ImplerException {
+                PipelineJarImplementorTest.implementJar(implementor, List.of(token), jarFile);
+            }
+        }, clazz);
+    }
+
+    /**
+     * Produces one <var>.jar</var> file with implementation pipeline, that analyzes classes/interfaces
+     * in two threads, and compiles them in batches of two.
+     *
+     * @param implementor implementor, which configuration is used by pipeline
+     * @param tokens      classes/interfaces to be implemented
+     * @param jarFile     target <var>.jar</var> file
+     * @throws ImplerException if any of classes/interfaces cannot be implemented
+     */
+    private static void implementJar(final Impler implementor, final List<Class<?>> tokens, final Path jarFile)
+            throws ImplerException {
+        try {
+            final Object pipeline = createPipeline(implementor);
+            pipeline.getClass().getMethod("implementJar", Iterable.class, Path.class)
+                    .invoke(pipeline, tokens, jarFile);
+        } catch (final IllegalAccessException | NoSuchMethodException e) {
+            throw new AssertionError(e);
+        } catch (final InvocationTargetException e) {
+            if (e.getCause() instanceof ImplerException) {
+                throw (ImplerException) e.getCause();
+            }
+            throw new AssertionError(e.getCause());
+        }
+    }
+
+    /**
+     * Gets publisher of results of implementing classes/interfaces by implementation pipeline.
+     *
+     * @param implementor implementor, which configuration is used by pipeline
+     * @param tokens      classes/interfaces to be implemented
+     * @param root        root directory
+     * @return publisher of results
+     */
+    @SuppressWarnings("unchecked")
+    private static Flow.Publisher<Object> publishAll(final Impler implementor, final List<Class<?>> tokens,
+                                                     final Path root) {
+        try {
+            final Object pipeline = createPipeline(implementor);
+            return (Flow.Publisher<Object>) pipeline.getClass().getMethod("publishAll", Iterable.class, Path.class)
+                    .invoke(pipeline, tokens, root);
+        } catch (final IllegalAccessException | NoSuchMethodException e) {
+            throw new AssertionError(e);
+        } catch (final InvocationTargetException e) {
+            throw new AssertionError(e.getCause());
+        }
+    }
+
+    /**
+     * Creates implementation pipeline with two threads, and capacity of queues and size of batches equal to two.
+     *
+     * @param implementor implementor, which configuration is used by pipeline
+     * @return created pipeline
+     */
+    private static Object createPipeline(final Impler implementor) {
+        try {
+            return Class.forName(loadClass().getPackageName() + ".ImplementationPipeline")
+                    .getConstructor(implementor.getClass(), int.class, int.class, int.class)
+                    .newInstance(implementor, 2, 2, 2);
+        } catch (final ReflectiveOperationException e) {
+            throw new AssertionError(e);
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package info.kgeorgiy.java.advanced.implementor.generic;
+
+import info.kgeorgiy.java.advanced.implementor.ImplerException;
+import info.kgeorgiy.java.advanced.implementor.JarImpler;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.AbstractList;
+import java.util.function.Function;
+
+/**
+ * Tests implementations, that are defined at runtime by {@code instantiate} method of implementor,
+ * without writing or compiling source code.
+ *
+ * @author Aleksandr Eliseev
+ */
+public class RuntimeImplementorTest extends GenericImplementorTest {
+    /**
+     * Lets implementor create lambdas for interfaces of this package, as it does for public exported interfaces.
+     */
+    @BeforeClass
+    public static void exportPackage() {
+        RuntimeImplementorTest.class.getModule()
+                .addExports(RuntimeImplementorTest.class.getPackageName(), loadClass().getModule());
+    }
+
+    @Test
+    public void myInstantiateTest() {
+        final AbstractList<?> first = instantiate(AbstractList.class);
+        final AbstractList<?> second = instantiate(AbstractList.class);
+        Assert.assertNotSame("Each call should create new instance", first, second);
+        Assert.assertSame("Implementation should be defined once", first.getClass(), second.getClass());
+        Assert.assertTrue("Implementation should be hidden class", first.getClass().isHidden());
+        Assert.assertEquals("Methods should return default values", 0, first.size());
+        Assert.assertNull("Methods should return default values", first.get(0));
+    }
+
+    @Test
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public void myLambdaTest() {
+        final FunctionalInterfaces.StrFn function = instantiate(FunctionalInterfaces.StrFn.class);
+        Assert.assertTrue("Lambda should be created", function.getClass().getName().contains("$$Lambda"));
+        Assert.assertNull("Method should return default value", function.apply("value"));
+        Assert.assertNull("Bridge method should return default value", ((Function) function).apply("value"));
+        try {
+            ((Function) function).apply(new Object());
+            Assert.fail("Bridge method should cast its arguments");
+        } catch (final ClassCastException ignored) {
+            // Bridge method casts to String, as bridge of compiled lambda does
+        }
+
+        final FunctionalInterfaces.FiveArguments five = instantiate(FunctionalInterfaces.FiveArguments.class);
+        Assert.assertTrue("Implementation should be generated for more than four arguments",
+                five.getClass().getName().startsWith(loadClass().getPackageName() + ".FiveArgumentsImpl/"));
+        Assert.assertEquals("Method should return default value", 0, five.apply(1, 2, 3, 4, 5));
+    }
+
+    @Test
+    public void myClassLoaderTest() throws ReflectiveOperationException {
+        final Class<?> loaderClass = Class.forName(loadClass().getPackageName() + ".ImplementingClassLoader");
+        final ClassLoader loader = (ClassLoader) loaderClass.getConstructor().newInstance();
+        final Class<?> impl = loader.loadClass(JarImpler.class.getName() + "Impl");
+        Assert.assertSame("Implementation should be defined by class loader", loader, impl.getClassLoader());
+        Assert.assertTrue("Implementation should implement " + JarImpler.class, JarImpler.class.isAssignableFrom(impl));
+        Assert.assertSame("Implementation should be defined once", impl,
+                loader.loadClass(JarImpler.class.getName() + "Impl"));
+        Assert.assertNotNull(impl.getConstructor().newInstance());
+
+        checkClassLoaderFailure(loader, PackagePrivateInterface.class);
+        checkClassLoaderFailure(loader, AbstractList.class);
+    }
+
+    /**
+     * Checks that class loader cannot define implementation, and remembers the reason.
+     *
+     * @param loader class loader to be checked
+     * @param token  class/interface, that cannot be implemented by class loader
+     */
+    private static void checkClassLoaderFailure(final ClassLoader loader, final Class<?> token) {
+        final Throwable first = loadFailure(loader, token);
+        Assert.assertTrue("Reason should be given for " + token, first instanceof ImplerException);
+        Assert.assertSame("Failure should be cached for " + token, first, loadFailure(loader, token));
+    }
+
+    /**
+     * Loads implementation, that cannot be defined.
+     *
+     * @param loader class loader to be used
+     * @param token  class/interface, that cannot be implemented by class loader
+     * @return cause of {@link ClassNotFoundException}
+     */
+    private static Throwable loadFailure(final ClassLoader loader, final Class<?> token) {
+        try {
+            loader.loadClass(token.getName() + "Impl");
+        } catch (final ClassNotFoundException e) {
+            return e.getCause();
+        }
+        throw new AssertionError("Implementation of " + token + " should not be defined");
+    }
+
+    /**
+     * Creates instance of implementation with {@code instantiate} method of implementor.
+     *
+     * @param token class/interface to be implemented
+     * @param <T>   type of class/interface
+     * @return new instance of implementation
+     */
+    protected static <T> T instantiate(final Class<T> token) {
+        try {
+            return token.cast(loadClass().getMethod("instantiate", Class.class).invoke(null, token));
+        } catch (final IllegalAccessException | NoSuchMethodException e) {
+            throw new AssertionError(e);
+        } catch (final InvocationTargetException e) {
+            throw new AssertionError("Error instantiating " + token, e.getCause());
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package info.kgeorgiy.java.advanced.implementor.generic;
+
+import java.util.List;
+
+public class ShadowedTypeVariable {
+    public interface Base<E> {
+        <T> void method(E first, T second);
+    }
+
+    public interface Other<T> {
+        <U> void method(List<T> first, U second);
+    }
+
+    public abstract static class Child<T> implements Base<List<T>>, Other<T> {
+    }
+}
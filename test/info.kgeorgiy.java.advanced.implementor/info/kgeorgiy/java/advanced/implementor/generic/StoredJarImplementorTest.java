@@ -0,0 +1,35 @@
+package info.kgeorgiy.java.advanced.implementor.generic;
+
+import info.kgeorgiy.java.advanced.implementor.Impler;
+import info.kgeorgiy.java.advanced.implementor.ImplerException;
+import org.junit.Assert;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.jar.JarFile;
+import java.util.zip.ZipEntry;
+
+/**
+ * Runs jar tests with uncompressed entries.
+ *
+ * @author Aleksandr Eliseev
+ */
+public class StoredJarImplementorTest extends GenericJarImplementorTest {
+    @Override
+    protected void implement(final Path root, final Impler implementor, final Class<?> clazz) throws ImplerException {
+        super.implement(root, configure(implementor, "withJarCompression", "STORED"), clazz);
+        checkStored(root.resolve(clazz.getName() + ".jar"));
+    }
+
+    private static void checkStored(final Path jarFile) {
+        try (final JarFile jar = new JarFile(jarFile.toFile())) {
+            for (final ZipEntry entry : Collections.list(jar.entries())) {
+                Assert.assertEquals("Entry " + entry.getName() + " should be stored", ZipEntry.STORED, entry.getMethod());
+            }
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package info.kgeorgiy.java.advanced.implementor.generic;
+
+import info.kgeorgiy.java.advanced.implementor.ImplerException;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Tests implementing classes/interfaces by pool of worker processes.
+ *
+ * @author Aleksandr Eliseev
+ */
+public class WorkerPoolImplementorTest extends GenericImplementorTest {
+    @Test
+    public void myWorkerPoolTest() throws ReflectiveOperationException, ImplerException, IOException {
+        final List<Class<?>> classes = List.of(Calculator.class, GenericInterface.class, Dependency.class,
+                DeclaringClass.ZZ.class);
+        final String missing = WorkerPoolImplementorTest.class.getPackageName() + ".Missing";
+        final List<String> names = List.of(classes.get(0).getName(), String.class.getName(), classes.get(1).getName(),
+                missing, classes.get(2).getName(), classes.get(3).getName());
+        final Path root = Path.of(testMethodName);
+        try {
+            // Every worker process is recycled after one class/interface, failed ones included
+            final Map<String, Object> results = implementAll(names, root);
+            Assert.assertEquals("Each class should have result", names.size(), results.size());
+            for (final Class<?> token : classes) {
+                final Object result = results.get(token.getName());
+                Assert.assertEquals("Error implementing " + token, null, getError(result));
+                Assert.assertEquals("Path to generated file", getFile(root, token).toAbsolutePath(),
+                        getOutput(result).toAbsolutePath().normalize());
+                Assert.assertTrue("Generated file not found", Files.isRegularFile(getFile(root, token)));
+            }
+            for (final String name : List.of(String.class.getName(), missing)) {
+                final Object result = results.get(name);
+                Assert.assertNotNull("Error should be returned for " + name, getError(result));
+                try {
+                    getOutput(result);
+                    Assert.fail("Output should not be available for " + name);
+                } catch (final ImplerException ignored) {
+                    // Expected
+                }
+            }
+            compile(root, classes.toArray(Class<?>[]::new));
+            check(root, classes.toArray(Class<?>[]::new));
+        } finally {
+            clean(root);
+        }
+    }
+
+    /**
+     * Implements classes/interfaces by two worker processes, that are recycled after every class/interface.
+     *
+     * @param names binary names of classes/interfaces
+     * @param root  root directory
+     * @return results by binary names of classes/interfaces
+     * @throws ReflectiveOperationException if pool cannot be created
+     */
+    private static Map<String, Object> implementAll(final List<String> names, final Path root)
+            throws ReflectiveOperationException {
+        final Class<?> poolClass = Class.forName(loadClass().getPackageName() + ".WorkerPool");
+        final Object pool = poolClass.getConstructor(int.class, int.class, long.class)
+                .newInstance(2, 1, Long.MAX_VALUE);
+        final Map<String, Object> results = new HashMap<>();
+        final Consumer<Object> consumer = result -> {
+            final String name = (String) invoke(result, "getClassName");
+            Assert.assertNull("Single result should be given for " + name, results.put(name, result));
+        };
+        try {
+            poolClass.getMethod("implementAll", Iterable.class, Path.class, Consumer.class)
+                    .invoke(pool, names, root, consumer);
+        } catch (final InvocationTargetException e) {
+            throw new AssertionError("Error running worker processes", e.getCause());
+        }
+        return results;
+    }
+
+    /**
+     * Gets error message of result.
+     *
+     * @param result result of worker process
+     * @return error message, {@code null} if implementation succeeded
+     */
+    private static String getError(final Object result) {
+        final String error = (String) invoke(result, "getError");
+        Assert.assertEquals("Success flag should match error", error == null, invoke(result, "isSuccessful"));
+        return error;
+    }
+
+    /**
+     * Gets path to file generated by worker process.
+     *
+     * @param result result of worker process
+     * @return path to generated file
+     * @throws ImplerException if implementation failed
+     */
+    private static Path getOutput(final Object result) throws ImplerException {
+        try {
+            return (Path) getMethod(result, "getOutput").invoke(result);
+        } catch (final IllegalAccessException e) {
+            throw new AssertionError(e);
+        } catch (final InvocationTargetException e) {
+            if (e.getCause() instanceof ImplerException) {
+                throw (ImplerException) e.getCause();
+            }
+            throw new AssertionError(e.getCause());
+        }
+    }
+
+    /**
+     * Calls getter of result.
+     *
+     * @param result result of worker process
+     * @param name   name of getter
+     * @return value returned by getter
+     */
+    private static Object invoke(final Object result, final String name) {
+        try {
+            return getMethod(result, name).invoke(result);
+        } catch (final IllegalAccessException e) {
+            throw new AssertionError(e);
+        } catch (final InvocationTargetException e) {
+            throw new AssertionError(e.getCause());
+        }
+    }
+
+    /**
+     * Gets public getter of result.
+     *
+     * @param result result of worker process
+     * @param name   name of getter
+     * @return getter
+     */
+    private static Method getMethod(final Object result, final String name) {
+        try {
+            return result.getClass().getMethod(name);
+        } catch (final NoSuchMethodException e) {
+            throw new AssertionError(e);
+        }
+    }
+}